@@ -0,0 +1,27 @@
+/**
+ * A player of HotGammon, human or AI, that can play the turns of
+ * either colour.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public interface Agent {
+    /**
+     * make the moves of the player in turn.
+     *
+     * @param game the game to play
+     * @return the number of moves the game accepted
+     */
+    public int playTurn(Game game);
+}
@@ -0,0 +1,21 @@
+/**
+ * A factory of agents of one kind. Agents are not thread-safe, so a
+ * tournament creates one agent per entrant for every thread.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public interface AgentFactory {
+    public Agent createAgent();
+}
@@ -0,0 +1,35 @@
+/**
+ * The simple move rules of AlphaMon: a checker may move any distance
+ * in its direction, and may bear off at any time.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class AlphaMonRules implements MoveRules {
+    public boolean isExactDistance() {
+        return false;
+    }
+
+    public boolean isBarFirst() {
+        return false;
+    }
+
+    public boolean isBearOffFromHomeOnly() {
+        return false;
+    }
+
+    public boolean isHome(Color player, Location location) {
+        return BetaMonRules.isStandardHome(player, location);
+    }
+}
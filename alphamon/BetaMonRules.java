@@ -0,0 +1,48 @@
+/**
+ * The move rules of BetaMon, those of standard backgammon: a
+ * checker moves exactly the value of a die, checkers on the bar
+ * must be entered first, and checkers are only borne off when all
+ * of the player's checkers are in the home board, B1-B6 for black
+ * and R1-R6 for red.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class BetaMonRules implements MoveRules {
+    public boolean isExactDistance() {
+        return true;
+    }
+
+    public boolean isBarFirst() {
+        return true;
+    }
+
+    public boolean isBearOffFromHomeOnly() {
+        return true;
+    }
+
+    public boolean isHome(Color player, Location location) {
+        return isStandardHome(player, location);
+    }
+
+    static boolean isStandardHome(Color player, Location location) {
+        int i = location.getIndex();
+        if (player == Color.BLACK) {
+            return (i >= Location.B6.getIndex() && i <= Location.B1.getIndex())
+                    || location == Location.B_BEAR_OFF;
+        }
+        return (i >= Location.R1.getIndex() && i <= Location.R6.getIndex())
+                || location == Location.R_BEAR_OFF;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * An agent that plays the move Gerry rates best, looked up in a move
+ * list cache shared with other agents, so positions seen before are
+ * not searched again. Plays as Gerry without an opening book: where
+ * Gerry's choice is not among the legal moves of the list, the
+ * position is searched as Gerry would.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class CachedGerryAgent implements Agent {
+    private final MoveListCache cache;
+    private final Agent search = new GerryAdapter(new Gerry(null));
+    private final int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+    private final int[] dice = new int[2];
+
+    public CachedGerryAgent(MoveListCache cache) {
+        this.cache = cache;
+    }
+
+    public int playTurn(Game game) {
+        game.getBoard(board);
+        game.getDiceThrown(dice);
+        Color player = game.getPlayerInTurn();
+        MoveList moves = cache.get(board, player, dice);
+        int best = moves.getBestIndex();
+        if (best < 0) {
+            return moves.size() > 0 ? search.playTurn(game) : 0;
+        }
+        int made = 0;
+        for (int c = 0; c < moves.getCheckers(best); c++) {
+            int from = moves.getFrom(best, c), to = moves.getTo(best, c);
+            if (player == Color.RED) {
+                from = GerryAdapter.mirror(from);
+                to = GerryAdapter.mirror(to);
+            }
+            if (game.move(from, to)) {
+                made++;
+            }
+        }
+        return made;
+    }
+}
@@ -0,0 +1,72 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Measure the throughput of the GameStateCodec and of position
+ * keys: states encoded and decoded per second, through one reused
+ * buffer. Run with run-benchmark CodecBenchmark.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class CodecBenchmark {
+    private static final int STATES = 1000;
+    private static final int ROUNDS = 5000;
+
+    public static void main(String[] args) {
+        // a corpus of states from a game played by the simple rules
+        GameState[] states = new GameState[STATES];
+        GameImpl game = new GameImpl();
+        GerryAdapter gerry = new GerryAdapter(game);
+        game.nextTurn();
+        for (int i = 0; i < STATES; i++) {
+            if (game.winner() != Color.NONE) game.newGame();
+            if (game.getPlayerInTurn() == Color.BLACK) gerry.playTurn();
+            states[i] = new GameState();
+            states[i].readFrom(game);
+            game.nextTurn();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(STATES * GameStateCodec.RECORD_SIZE);
+        GameState decoded = new GameState();
+        byte[] key = new byte[PositionId.KEY_SIZE];
+        for (int warmup = 0; warmup < 3; warmup++) {
+            long start = System.nanoTime();
+            for (int r = 0; r < ROUNDS; r++) {
+                buffer.clear();
+                for (int i = 0; i < STATES; i++) {
+                    GameStateCodec.encode(states[i], buffer);
+                }
+            }
+            long encoded = System.nanoTime();
+            for (int r = 0; r < ROUNDS; r++) {
+                buffer.flip();
+                for (int i = 0; i < STATES; i++) {
+                    GameStateCodec.decode(buffer, decoded);
+                }
+            }
+            long decodedTime = System.nanoTime();
+            for (int r = 0; r < ROUNDS; r++) {
+                for (int i = 0; i < STATES; i++) {
+                    PositionId.positionKey(states[i].board, states[i].playerInTurn, key);
+                }
+            }
+            long keyed = System.nanoTime();
+            double n = (double) STATES * ROUNDS;
+            System.out.printf("encode: %.1f M states/s, decode: %.1f M states/s, position key: %.1f M/s%n",
+                    n / (encoded - start) * 1e3,
+                    n / (decodedTime - encoded) * 1e3,
+                    n / (keyed - decodedTime) * 1e3);
+        }
+    }
+}
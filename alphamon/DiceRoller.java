@@ -0,0 +1,29 @@
+/**
+ * The dice of a HotGammon variant. A roller computes the dice of a
+ * roll from its number in the game, so games are reproducible and
+ * a game restarts its dice with newGame.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public interface DiceRoller {
+    /**
+     * roll the dice.
+     *
+     * @param roll the number of rolls made before in this game,
+     *             counting from 0
+     * @param dice the array to put the two die values in
+     */
+    public void roll(int roll, int[] dice);
+}
@@ -0,0 +1,27 @@
+/**
+ * Fixed dice: the sequence 1-2, 3-4, 5-6, 1-2, ... with which black
+ * always starts.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class FixedDiceRoller implements DiceRoller {
+    private static final int[][] SEQUENCE = {{1, 2}, {3, 4}, {5, 6}};
+
+    public void roll(int roll, int[] dice) {
+        int[] values = SEQUENCE[roll % SEQUENCE.length];
+        dice[0] = values[0];
+        dice[1] = values[1];
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * A decorator that emits GameTurnEvent and GameMoveEvent to the JDK
+ * Flight Recorder for the turns and moves of a game.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+
+public class FlightRecordedGame implements Game {
+    private final Game game;
+    private final int[] dice = new int[2];
+
+    public FlightRecordedGame(Game game) {
+        this.game = game;
+    }
+
+    // == mutators are recorded
+
+    public void newGame() {
+        game.newGame();
+    }
+
+    public void nextTurn() {
+        GameTurnEvent event = new GameTurnEvent();
+        event.begin();
+        game.nextTurn();
+        event.end();
+        if (event.shouldCommit()) {
+            game.getDiceThrown(dice);
+            event.player = game.getPlayerInTurn().toString();
+            event.die1 = dice[0];
+            event.die2 = dice[1];
+            event.commit();
+        }
+    }
+
+    public boolean move(Location from, Location to) {
+        return move(from.getIndex(), to.getIndex());
+    }
+
+    public boolean move(int from, int to) {
+        GameMoveEvent event = new GameMoveEvent();
+        event.begin();
+        boolean valid = game.move(from, to);
+        event.end();
+        if (event.shouldCommit()) {
+            event.from = from;
+            event.to = to;
+            event.valid = valid;
+            event.commit();
+        }
+        return valid;
+    }
+
+    // == accessors are simply delegated
+
+    public Color getPlayerInTurn() {
+        return game.getPlayerInTurn();
+    }
+
+    public int getNumberOfMovesLeft() {
+        return game.getNumberOfMovesLeft();
+    }
+
+    public int[] diceThrown() {
+        return game.diceThrown();
+    }
+
+    public int[] diceValuesLeft() {
+        return game.diceValuesLeft();
+    }
+
+    public Color winner() {
+        return game.winner();
+    }
+
+    public Color getColor(Location location) {
+        return game.getColor(location);
+    }
+
+    public int getCount(Location location) {
+        return game.getCount(location);
+    }
+
+    public void getBoard(int[] board) {
+        game.getBoard(board);
+    }
+
+    public void getDiceThrown(int[] dice) {
+        game.getDiceThrown(dice);
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        return game.getDiceValuesLeft(values);
+    }
+
+    public Color getColor(int index) {
+        return game.getColor(index);
+    }
+
+    public int getCount(int index) {
+        return game.getCount(index);
+    }
+
+    public long getPositionHash() {
+        return game.getPositionHash();
+    }
+
+    public int getPipCount(Color player) {
+        return game.getPipCount(player);
+    }
+
+    public int getBorneOff(Color player) {
+        return game.getBorneOff(player);
+    }
+
+    public boolean isRace() {
+        return game.isRace();
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * A Gerry that emits a GerryPlayEvent for every play, so AI latency
+ * can be correlated with GC and JIT activity in a JDK Flight
+ * Recorder recording. When the event is not enabled in the
+ * recording, the only cost is counting nodes and leaves.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class FlightRecordedGerry extends Gerry {
+    // counts of the play in progress
+    private long playNodes, playLeaves;
+
+    public Move play(int[] boardstate, int[] dicestate) {
+        GerryPlayEvent event = new GerryPlayEvent();
+        event.begin();
+        playNodes = playLeaves = 0;
+        Move move = super.play(boardstate, dicestate);
+        event.end();
+        if (event.shouldCommit()) {
+            event.die1 = dicestate[0];
+            event.die2 = dicestate[1];
+            event.doubles = dicestate[0] == dicestate[1];
+            // a search always generates nodes; a book move none
+            event.fromBook = playNodes == 0;
+            event.candidates = playNodes;
+            event.evaluated = playLeaves;
+            event.score = maxscore;
+            event.checkersMoved = move.noOfMoves();
+            event.commit();
+        }
+        return move;
+    }
+
+    void recurse(int[] board, int[] dice, int dieIndex, Move move) {
+        playNodes++;
+        super.recurse(board, dice, dieIndex, move);
+    }
+
+    void maybeEnterMove(int[] board, Move move) {
+        playLeaves++;
+        super.maybeEnterMove(board, move);
+    }
+}
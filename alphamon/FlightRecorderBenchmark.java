@@ -0,0 +1,80 @@
+import jdk.jfr.Recording;
+
+import java.io.*;
+import java.util.Random;
+
+/**
+ * Measure the cost of recording every Gerry play in a JDK Flight
+ * Recorder recording, over positions from played games with random
+ * dice, and summarise the recording by roll type. Run with
+ * run-benchmark FlightRecorderBenchmark [recording.jfr]
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class FlightRecorderBenchmark {
+    private static final int POSITIONS = 1000;
+    private static final int PLAYS = 200000;
+
+    public static void main(String[] args) throws IOException {
+        // positions from games played by the simple rules
+        int[][] positions = new int[POSITIONS][28];
+        GameImpl game = new GameImpl();
+        GerryAdapter adapter = new GerryAdapter(game);
+        for (int i = 0; i < POSITIONS; i++) {
+            if (game.winner() != Color.NONE) game.newGame();
+            game.nextTurn();
+            if (game.getPlayerInTurn() == Color.BLACK) adapter.playTurn();
+            game.getBoard(positions[i]);
+        }
+        int[][] dice = new int[PLAYS][2];
+        Random random = new Random(42);
+        for (int i = 0; i < PLAYS; i++) {
+            dice[i][0] = 1 + random.nextInt(6);
+            dice[i][1] = 1 + random.nextInt(6);
+        }
+
+        File file = new File(args.length > 0 ? args[0] : "gerry.jfr");
+        Recording recording = new Recording();
+        recording.enable(GerryPlayEvent.class);
+        recording.start();
+        Gerry plain = new Gerry();
+        Gerry recorded = new FlightRecordedGerry();
+        for (int round = 0; round < 5; round++) {
+            long plainNanos = play(plain, positions, dice);
+            long recordedNanos = play(recorded, positions, dice);
+            System.out.printf("plain: %.2f us/play, recorded: %.2f us/play (%+.1f%%)%n",
+                    plainNanos / 1e3 / PLAYS, recordedNanos / 1e3 / PLAYS,
+                    100.0 * (recordedNanos - plainNanos) / plainNanos);
+        }
+        recording.stop();
+        recording.dump(file.toPath());
+        recording.close();
+
+        GerryFlightAnalyzer analyzer = new GerryFlightAnalyzer();
+        analyzer.read(file);
+        analyzer.writeSummary(System.out);
+        System.out.println("Recording written to " + file);
+    }
+
+    private static long play(Gerry gerry, int[][] positions, int[][] dice) {
+        int[] board = new int[28];
+        long start = System.nanoTime();
+        for (int i = 0; i < PLAYS; i++) {
+            System.arraycopy(positions[i % POSITIONS], 0, board, 0, 28);
+            gerry.play(board, dice[i]);
+        }
+        return System.nanoTime() - start;
+    }
+}
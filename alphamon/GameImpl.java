@@ -1,5 +1,22 @@
+import java.util.Arrays;
+import java.util.Random;
+
 /**
- * Skeleton implementation of HotGammon.
+ * Implementation of HotGammon whose move rules are given by a
+ * MoveTable compiled from the MoveRules of a variant, and whose
+ * dice are given by a DiceRoller. By default the moves are those of
+ * standard backgammon, BetaMonRules, and the dice roll in the fixed
+ * sequence 1-2, 3-4, 5-6, 1-2, ... of FixedDiceRoller, thus black
+ * always starts. The first player to bear off all 15 checkers wins.
+ * <p/>
+ * The board is kept as an array in the layout described by
+ * Game.getBoard, so the bulk accessors are simple array copies.
+ * All changes of the board go through one method that also updates
+ * the Zobrist hash, the pip counts, the rearmost checker of each
+ * player, and the masks of the locations each player occupies that
+ * the MoveTable validates moves by, so those are read in O(1). With
+ * assertions enabled (-ea) every move cross-checks them against a
+ * full recompute.
  * <p/>
  * This source code is from the book
  * "Flexible, Reliable Software:
@@ -17,43 +34,372 @@
  */
 
 public class GameImpl implements Game {
+    private static final int BOARDSIZE = 28;
+    private static final MoveTable STANDARD = new MoveTable(new BetaMonRules());
+
+    private static final int B_BAR = Location.B_BAR.getIndex();
+    private static final int R_BAR = Location.R_BAR.getIndex();
+    private static final int B_BEAR_OFF = Location.B_BEAR_OFF.getIndex();
+    private static final int R_BEAR_OFF = Location.R_BEAR_OFF.getIndex();
+
+    // the rearmost checker of a player that has none on the board
+    private static final int NO_BLACK = BOARDSIZE;
+    private static final int NO_RED = -1;
+
+    // random keys per location and signed count, and per player in turn
+    private static final long[][] ZOBRIST = new long[BOARDSIZE][31];
+    private static final long[] TURN_KEYS = new long[3];
+    // the pips of a checker on each location
+    private static final int[] BLACK_PIPS = new int[BOARDSIZE];
+    private static final int[] RED_PIPS = new int[BOARDSIZE];
+
+    static {
+        // a fixed seed, so hashes are the same in every run
+        Random random = new Random(0x5eedL);
+        for (int i = 0; i < BOARDSIZE; i++) {
+            for (int c = 0; c < 31; c++) {
+                ZOBRIST[i][c] = random.nextLong();
+            }
+        }
+        for (int p = 0; p < 3; p++) {
+            TURN_KEYS[p] = random.nextLong();
+        }
+        for (int i = 1; i <= 24; i++) {
+            BLACK_PIPS[i] = 25 - i;
+            RED_PIPS[i] = i;
+        }
+        BLACK_PIPS[B_BAR] = 25;
+        RED_PIPS[R_BAR] = 25;
+    }
+
+    private final MoveTable rules;
+    private final DiceRoller roller;
+
+    // checkers per location index; positive are black, negative red
+    private final int[] board = new int[BOARDSIZE];
+    private Color playerInTurn;
+    private int movesLeft;
+    // the number of times the dice have been rolled
+    private int rolls;
+    private final int[] dice = new int[2];
+    // unused die values, largest first
+    private final int[] diceLeft = new int[4];
+    private int numberOfDiceLeft;
+
+    // derived from the board, maintained by add
+    private long boardHash;
+    private int blackPips;
+    private int redPips;
+    private int blackRear;
+    private int redRear;
+    // bit i set if location index i holds checkers of the player
+    private int blackOccupied;
+    private int redOccupied;
+
+    /**
+     * create a game by the standard move rules, with fixed dice.
+     */
+    public GameImpl() {
+        this(STANDARD);
+    }
+
+    /**
+     * create a game by the rules of a variant.
+     *
+     * @param rules the move rules of the variant, compiled
+     */
+    public GameImpl(MoveTable rules) {
+        this(rules, new FixedDiceRoller());
+    }
+
+    /**
+     * create a game by the rules and dice of a variant.
+     *
+     * @param rules  the move rules of the variant, compiled
+     * @param roller the dice of the variant
+     */
+    public GameImpl(MoveTable rules, DiceRoller roller) {
+        this.rules = rules;
+        this.roller = roller;
+        newGame();
+    }
+
+    /**
+     * return the move rules of this game.
+     */
+    public MoveTable getRules() {
+        return rules;
+    }
+
+    /**
+     * return the dice of this game.
+     */
+    public DiceRoller getDiceRoller() {
+        return roller;
+    }
+
+    /**
+     * return the number of times the dice have been rolled in this
+     * game.
+     */
+    public int getRolls() {
+        return rolls;
+    }
+
     public void newGame() {
+        Arrays.fill(board, 0);
+        place(Location.R1, Color.BLACK, 2);
+        place(Location.R12, Color.BLACK, 5);
+        place(Location.B8, Color.BLACK, 3);
+        place(Location.B6, Color.BLACK, 5);
+        place(Location.B1, Color.RED, 2);
+        place(Location.B12, Color.RED, 5);
+        place(Location.R8, Color.RED, 3);
+        place(Location.R6, Color.RED, 5);
+        recomputeDerived();
 
+        playerInTurn = Color.NONE;
+        movesLeft = 0;
+        rolls = 0;
+        dice[0] = dice[1] = 0;
+        numberOfDiceLeft = 0;
+    }
+
+    private void place(Location location, Color color, int count) {
+        board[location.getIndex()] = color.getSign() * count;
     }
 
     public void nextTurn() {
+        roller.roll(rolls, dice);
+        rolls++;
+
+        if (playerInTurn == Color.NONE) {
+            if (dice[0] == dice[1]) {
+                // still deciding who starts
+                return;
+            }
+            playerInTurn = dice[0] > dice[1] ? Color.RED : Color.BLACK;
+        } else {
+            playerInTurn = playerInTurn == Color.RED ? Color.BLACK : Color.RED;
+        }
 
+        diceLeft[0] = Math.max(dice[0], dice[1]);
+        diceLeft[1] = Math.min(dice[0], dice[1]);
+        if (dice[0] == dice[1]) {
+            diceLeft[2] = diceLeft[3] = dice[0];
+            numberOfDiceLeft = 4;
+        } else {
+            numberOfDiceLeft = 2;
+        }
+        movesLeft = numberOfDiceLeft;
     }
 
     public boolean move(Location from, Location to) {
-        return false;
+        return move(from.getIndex(), to.getIndex());
+    }
+
+    public boolean move(int f, int t) {
+        if (movesLeft == 0 || winner() != Color.NONE) return false;
+
+        int sign = playerInTurn.getSign();
+        // the player must have a checker to move
+        if (board[f] * sign <= 0) return false;
+        // the location must not be held by the opponent
+        if (board[t] * sign < -1) return false;
+        // and the variant's rules must allow the move with a die left
+        int die = rules.selectDie(playerInTurn, f, t, sign > 0 ? blackOccupied : redOccupied,
+                diceLeft, numberOfDiceLeft);
+        if (die < 0) return false;
+
+        if (board[t] * sign == -1) {
+            // hit the opponent's blot
+            add(t, sign);
+            int opponentBar = sign > 0 ? R_BAR : B_BAR;
+            add(opponentBar, -sign);
+        }
+        add(f, -sign);
+        add(t, sign);
+        assert derivedStateIsConsistent();
+
+        useDie(die);
+        movesLeft--;
+        return true;
+    }
+
+    /**
+     * change the signed count of a location, and update the values
+     * derived from the board.
+     */
+    private void add(int i, int delta) {
+        int old = board[i];
+        int now = old + delta;
+        board[i] = now;
+        boardHash ^= ZOBRIST[i][old + 15] ^ ZOBRIST[i][now + 15];
+        blackPips += (Math.max(now, 0) - Math.max(old, 0)) * BLACK_PIPS[i];
+        redPips += (Math.max(-now, 0) - Math.max(-old, 0)) * RED_PIPS[i];
+        blackOccupied = now > 0 ? blackOccupied | 1 << i : blackOccupied & ~(1 << i);
+        redOccupied = now < 0 ? redOccupied | 1 << i : redOccupied & ~(1 << i);
+
+        if (i < B_BEAR_OFF) {
+            if (now > 0 && i < blackRear) {
+                blackRear = i;
+            } else if (old > 0 && now <= 0 && i == blackRear) {
+                blackRear = NO_BLACK;
+                for (int j = i + 1; j < R_BAR; j++) {
+                    if (board[j] > 0) {
+                        blackRear = j;
+                        break;
+                    }
+                }
+            }
+            if (now < 0 && i > redRear) {
+                redRear = i;
+            } else if (old < 0 && now >= 0 && i == redRear) {
+                redRear = NO_RED;
+                for (int j = i - 1; j > B_BAR; j--) {
+                    if (board[j] < 0) {
+                        redRear = j;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * compute the values derived from the board from scratch.
+     */
+    private void recomputeDerived() {
+        boardHash = 0;
+        blackPips = redPips = 0;
+        blackRear = NO_BLACK;
+        redRear = NO_RED;
+        blackOccupied = redOccupied = 0;
+        for (int i = 0; i < BOARDSIZE; i++) {
+            int count = board[i];
+            boardHash ^= ZOBRIST[i][count + 15];
+            if (count > 0) {
+                blackOccupied |= 1 << i;
+                blackPips += count * BLACK_PIPS[i];
+                if (i < B_BEAR_OFF && i < blackRear) blackRear = i;
+            } else if (count < 0) {
+                redOccupied |= 1 << i;
+                redPips -= count * RED_PIPS[i];
+                if (i < B_BEAR_OFF && i > redRear) redRear = i;
+            }
+        }
+    }
+
+    /**
+     * check the values derived from the board against a recompute,
+     * for use in assertions.
+     */
+    private boolean derivedStateIsConsistent() {
+        long hash = boardHash;
+        int black = blackPips, red = redPips, bRear = blackRear, rRear = redRear;
+        int bOccupied = blackOccupied, rOccupied = redOccupied;
+        recomputeDerived();
+        return hash == boardHash && black == blackPips && red == redPips
+                && bRear == blackRear && rRear == redRear
+                && bOccupied == blackOccupied && rOccupied == redOccupied;
+    }
+
+    /**
+     * remove a die from the dice left.
+     *
+     * @param used the index of the die in diceLeft
+     */
+    private void useDie(int used) {
+        numberOfDiceLeft--;
+        System.arraycopy(diceLeft, used + 1, diceLeft, used, numberOfDiceLeft - used);
     }
 
     public Color getPlayerInTurn() {
-        return Color.NONE;
+        return playerInTurn;
     }
 
     public int getNumberOfMovesLeft() {
-        return 0;
+        return movesLeft;
     }
 
     public int[] diceThrown() {
-        return new int[]{1, 1};
+        return new int[]{dice[0], dice[1]};
     }
 
     public int[] diceValuesLeft() {
-        return new int[]{};
+        return Arrays.copyOf(diceLeft, numberOfDiceLeft);
     }
 
     public Color winner() {
+        if (board[B_BEAR_OFF] == 15) return Color.BLACK;
+        if (board[R_BEAR_OFF] == -15) return Color.RED;
         return Color.NONE;
     }
 
     public Color getColor(Location location) {
-        return Color.NONE;
+        return getColor(location.getIndex());
     }
 
     public int getCount(Location location) {
-        return 0;
+        return getCount(location.getIndex());
+    }
+
+    public Color getColor(int index) {
+        return Color.getColorFromNumerical(board[index]);
+    }
+
+    public int getCount(int index) {
+        return Math.abs(board[index]);
+    }
+
+    public long getPositionHash() {
+        return boardHash ^ TURN_KEYS[playerInTurn.ordinal()];
+    }
+
+    public int getPipCount(Color player) {
+        return player == Color.BLACK ? blackPips : player == Color.RED ? redPips : 0;
+    }
+
+    public int getBorneOff(Color player) {
+        return player == Color.BLACK ? board[B_BEAR_OFF]
+                : player == Color.RED ? -board[R_BEAR_OFF] : 0;
+    }
+
+    public boolean isRace() {
+        return blackRear > redRear;
+    }
+
+    /**
+     * set the state of this game, for instance to continue a game
+     * that was saved using the GameStateCodec. The game keeps its
+     * own rules and dice; the dice continue after the rolls of the
+     * state.
+     *
+     * @param state the state to continue from
+     */
+    public void restore(GameState state) {
+        System.arraycopy(state.board, 0, board, 0, BOARDSIZE);
+        playerInTurn = state.playerInTurn;
+        dice[0] = state.dice[0];
+        dice[1] = state.dice[1];
+        numberOfDiceLeft = state.numberOfDiceLeft;
+        System.arraycopy(state.diceLeft, 0, diceLeft, 0, numberOfDiceLeft);
+        movesLeft = state.movesLeft;
+        rolls = state.rolls;
+        recomputeDerived();
+    }
+
+    public void getBoard(int[] board) {
+        System.arraycopy(this.board, 0, board, 0, BOARDSIZE);
+    }
+
+    public void getDiceThrown(int[] dice) {
+        dice[0] = this.dice[0];
+        dice[1] = this.dice[1];
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        System.arraycopy(diceLeft, 0, values, 0, numberOfDiceLeft);
+        return numberOfDiceLeft;
     }
 }
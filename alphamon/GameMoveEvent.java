@@ -0,0 +1,40 @@
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event for each move, committed by
+ * FlightRecordedGame. Like GameTurnEvent it is disabled by default,
+ * as there is one per move; enable it in a recording, e.g. with the
+ * hotgammon.jfc settings:
+ * <pre>
+ *   java -XX:StartFlightRecording=settings=hotgammon.jfc,filename=game.jfr ...
+ * </pre>
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+@Name("hotgammon.GameMove")
+@Label("Game Move")
+@Category({"HotGammon", "Game"})
+@StackTrace(false)
+@Enabled(false)
+public class GameMoveEvent extends Event {
+    @Label("From Index")
+    int from;
+
+    @Label("To Index")
+    int to;
+
+    @Label("Valid")
+    boolean valid;
+}
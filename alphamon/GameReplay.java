@@ -0,0 +1,82 @@
+/**
+ * A match log handler that replays the games of a log in a Game.
+ * <p/>
+ * Given the rules of the log, the replay plays a GameImpl of those
+ * rules whose ReplayDiceRoller rolls the logged dice, so any log can
+ * be replayed. Given a game, the dice cannot be set through the Game
+ * interface, so the game must roll the same dice as the game that
+ * was logged; if asked to, the replay verifies that it does. The
+ * replay always verifies that the moves are valid.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GameReplay implements MatchLogReader.Handler {
+    private final Game game;
+    private final ReplayDiceRoller replayed;
+    private final boolean verifyDice;
+    private final int[] dice = new int[2];
+
+    /**
+     * replay in a game of the given rules that rolls the logged dice.
+     *
+     * @param rules the rules of the log, see MatchLogReader.getRules
+     */
+    public GameReplay(MoveTable rules) {
+        replayed = new ReplayDiceRoller();
+        game = new GameImpl(rules, replayed);
+        verifyDice = false;
+    }
+
+    /**
+     * replay in a game that rolls its own dice.
+     *
+     * @param game       the game, rolling the dice of the log
+     * @param verifyDice true to verify the dice rolled by the game
+     */
+    public GameReplay(Game game, boolean verifyDice) {
+        this.game = game;
+        this.verifyDice = verifyDice;
+        replayed = null;
+    }
+
+    /**
+     * return the game the log is replayed in.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    public void newGame() {
+        game.newGame();
+    }
+
+    public void turn(int die1, int die2) {
+        if (replayed != null) replayed.setNext(die1, die2);
+        game.nextTurn();
+        if (verifyDice) {
+            game.getDiceThrown(dice);
+            if (dice[0] != die1 || dice[1] != die2) {
+                throw new IllegalStateException("Game rolled " + dice[0] + "-" + dice[1]
+                        + " where the log has " + die1 + "-" + die2);
+            }
+        }
+    }
+
+    public void move(int from, int to) {
+        if (!game.move(from, to)) {
+            throw new IllegalStateException("Invalid move in log: " + from + " to " + to);
+        }
+    }
+}
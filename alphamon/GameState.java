@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+/**
+ * A snapshot of the full state of a game: the board, the player in
+ * turn, the dice, the dice left, the moves left, and for a GameImpl
+ * the number of rolls its dice have made. Instances are
+ * mutable so they can be reused, e.g. when decoding many states
+ * with the GameStateCodec.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GameState {
+    /**
+     * the board in the layout of Game.getBoard
+     */
+    public final int[] board = new int[28];
+    public Color playerInTurn = Color.NONE;
+    public final int[] dice = new int[2];
+    /**
+     * the unused die values, largest first; only the first
+     * numberOfDiceLeft entries are valid.
+     */
+    public final int[] diceLeft = new int[4];
+    public int numberOfDiceLeft;
+    public int movesLeft;
+    /**
+     * the number of rolls of the dice in the game, by which a restored
+     * GameImpl continues its own dice; 0 unless read from a GameImpl.
+     * It is not part of the position, so equals ignores it.
+     */
+    public int rolls;
+
+    /**
+     * copy the state of a game into this snapshot.
+     *
+     * @param game the game to copy the state of
+     */
+    public void readFrom(Game game) {
+        game.getBoard(board);
+        playerInTurn = game.getPlayerInTurn();
+        game.getDiceThrown(dice);
+        numberOfDiceLeft = game.getDiceValuesLeft(diceLeft);
+        movesLeft = game.getNumberOfMovesLeft();
+        rolls = game instanceof GameImpl ? ((GameImpl) game).getRolls() : 0;
+    }
+
+    public boolean equals(Object o) {
+        if (!(o instanceof GameState)) return false;
+        GameState other = (GameState) o;
+        if (playerInTurn != other.playerInTurn
+                || numberOfDiceLeft != other.numberOfDiceLeft
+                || movesLeft != other.movesLeft
+                || !Arrays.equals(board, other.board)
+                || !Arrays.equals(dice, other.dice)) {
+            return false;
+        }
+        for (int i = 0; i < numberOfDiceLeft; i++) {
+            if (diceLeft[i] != other.diceLeft[i]) return false;
+        }
+        return true;
+    }
+
+    public int hashCode() {
+        return Arrays.hashCode(board) * 31 + movesLeft;
+    }
+
+    public String toString() {
+        StringBuilder s = new StringBuilder("GameState: ");
+        s.append(playerInTurn).append(" dice ").append(dice[0]).append('-').append(dice[1]);
+        s.append(" left");
+        for (int i = 0; i < numberOfDiceLeft; i++) {
+            s.append(' ').append(diceLeft[i]);
+        }
+        s.append(" moves ").append(movesLeft).append(" board");
+        for (int i = 0; i < board.length; i++) {
+            s.append(' ').append(board[i]);
+        }
+        return s.toString();
+    }
+}
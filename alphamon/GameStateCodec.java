@@ -0,0 +1,100 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary encoding of a full game state. A state takes
+ * exactly RECORD_SIZE (36) bytes:
+ * <pre>
+ * bytes 0-27  the board, one signed byte per location index
+ * byte  28    bits 0-1: player in turn sign + 1, bits 2-4: moves left
+ * byte  29    bits 0-2: die 1, bits 3-5: die 2
+ * bytes 30-31 bits 0-2: number of dice left, then 3 bits per die left
+ * bytes 32-35 the number of rolls of the dice
+ * </pre>
+ * Encoding and decoding work directly on a ByteBuffer supplied by
+ * the client and into a reusable GameState, so neither allocates.
+ * <p/>
+ * For exchanging positions with other backgammon software, see
+ * PositionId.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GameStateCodec {
+    /**
+     * the number of bytes of an encoded state
+     */
+    public static final int RECORD_SIZE = 36;
+
+    private static final Color[] COLOR_FROM_SIGN = {Color.RED, Color.NONE, Color.BLACK};
+
+    // scratch state used when encoding directly from a game
+    private final GameState scratch = new GameState();
+
+    /**
+     * write the state of a game at the position of the buffer.
+     *
+     * @param game   the game to encode
+     * @param buffer the buffer to write RECORD_SIZE bytes to
+     */
+    public void encode(Game game, ByteBuffer buffer) {
+        scratch.readFrom(game);
+        encode(scratch, buffer);
+    }
+
+    /**
+     * write a state at the position of the buffer.
+     *
+     * @param state  the state to encode
+     * @param buffer the buffer to write RECORD_SIZE bytes to
+     */
+    public static void encode(GameState state, ByteBuffer buffer) {
+        int[] board = state.board;
+        for (int i = 0; i < 28; i++) {
+            buffer.put((byte) board[i]);
+        }
+        buffer.put((byte) ((state.playerInTurn.getSign() + 1) | (state.movesLeft << 2)));
+        buffer.put((byte) (state.dice[0] | (state.dice[1] << 3)));
+        int left = state.numberOfDiceLeft;
+        for (int i = 0; i < state.numberOfDiceLeft; i++) {
+            left |= state.diceLeft[i] << (3 + 3 * i);
+        }
+        buffer.putShort((short) left);
+        buffer.putInt(state.rolls);
+    }
+
+    /**
+     * read a state from the position of the buffer.
+     *
+     * @param buffer the buffer to read RECORD_SIZE bytes from
+     * @param state  the state to fill in
+     */
+    public static void decode(ByteBuffer buffer, GameState state) {
+        int[] board = state.board;
+        for (int i = 0; i < 28; i++) {
+            board[i] = buffer.get();
+        }
+        int turn = buffer.get();
+        state.playerInTurn = COLOR_FROM_SIGN[turn & 3];
+        state.movesLeft = (turn >> 2) & 7;
+        int dice = buffer.get();
+        state.dice[0] = dice & 7;
+        state.dice[1] = (dice >> 3) & 7;
+        int left = buffer.getShort();
+        state.numberOfDiceLeft = left & 7;
+        for (int i = 0; i < 4; i++) {
+            state.diceLeft[i] = i < state.numberOfDiceLeft ? (left >> (3 + 3 * i)) & 7 : 0;
+        }
+        state.rolls = buffer.getInt();
+    }
+}
@@ -0,0 +1,37 @@
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event for each call of nextTurn, committed
+ * by FlightRecordedGame, holding the dice rolled. It is disabled by
+ * default, as there is one per turn; the hotgammon.jfc settings
+ * enable it along with GameMoveEvent and GerryPlayEvent.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+@Name("hotgammon.GameTurn")
+@Label("Game Turn")
+@Category({"HotGammon", "Game"})
+@StackTrace(false)
+@Enabled(false)
+public class GameTurnEvent extends Event {
+    @Label("Player In Turn")
+    String player;
+
+    @Label("Die 1")
+    int die1;
+
+    @Label("Die 2")
+    int die2;
+}
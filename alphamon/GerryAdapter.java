@@ -0,0 +1,106 @@
+/**
+ * An adapter that lets Gerry, the AI player, play either colour of
+ * any Game. Gerry only knows how to play black, so when red is in
+ * turn the board is mirrored: colours swapped and locations turned
+ * around, so Gerry plays red's checkers as black ones. The board and
+ * dice are read through the bulk accessors into buffers owned by the
+ * adapter, thus a turn creates no garbage on the game side no matter
+ * how often it is played.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GerryAdapter implements Agent {
+    private static final int N = Location.NUMBER_OF_LOCATIONS;
+    // the location index seen from the other side of the board
+    private static final int[] MIRROR = new int[N];
+
+    static {
+        for (int i = 0; i < N; i++) {
+            MIRROR[i] = 25 - i;
+        }
+        MIRROR[Location.B_BEAR_OFF.getIndex()] = Location.R_BEAR_OFF.getIndex();
+        MIRROR[Location.R_BEAR_OFF.getIndex()] = Location.B_BEAR_OFF.getIndex();
+    }
+
+    /**
+     * return the index of a location seen from the other side of the
+     * board, as Gerry sees red's checkers.
+     */
+    public static int mirror(int index) {
+        return MIRROR[index];
+    }
+
+    private final Game game;
+    private final Gerry gerry;
+    private final int[] board = new int[N];
+    private final int[] mirrored = new int[N];
+    private final int[] dice = new int[2];
+
+    public GerryAdapter(Game game) {
+        this(game, new Gerry());
+    }
+
+    public GerryAdapter(Game game, Gerry gerry) {
+        this.game = game;
+        this.gerry = gerry;
+    }
+
+    /**
+     * create an adapter that is not bound to a game, to be used as
+     * an Agent.
+     */
+    public GerryAdapter(Gerry gerry) {
+        this(null, gerry);
+    }
+
+    /**
+     * let Gerry make the moves of the current turn of the game the
+     * adapter was created for.
+     *
+     * @return the number of moves the game accepted.
+     */
+    public int playTurn() {
+        return playTurn(game);
+    }
+
+    public int playTurn(Game game) {
+        game.getBoard(board);
+        game.getDiceThrown(dice);
+        boolean red = game.getPlayerInTurn() == Color.RED;
+        Move move;
+        if (red) {
+            for (int i = 0; i < N; i++) {
+                mirrored[MIRROR[i]] = -board[i];
+            }
+            move = gerry.play(mirrored, dice);
+        } else {
+            move = gerry.play(board, dice);
+        }
+
+        int made = 0;
+        for (int i = 0; i < move.noOfMoves(); i++) {
+            // Gerry's indices are those of the Location enum
+            int from = move.getFrom(i), to = move.getTo(i);
+            if (red) {
+                from = MIRROR[from];
+                to = MIRROR[to];
+            }
+            if (game.move(from, to)) {
+                made++;
+            }
+        }
+        return made;
+    }
+}
@@ -0,0 +1,87 @@
+import jdk.jfr.consumer.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Summarise the AI latency in a JDK Flight Recorder file by roll
+ * type: the number of plays, latency percentiles, and candidates
+ * generated and evaluated per play, for doubles and for
+ * non-doubles. Run with
+ * run-benchmark GerryFlightAnalyzer recording.jfr
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GerryFlightAnalyzer {
+    private final LatencyHistogram[] latency = {new LatencyHistogram(), new LatencyHistogram()};
+    private final long[] candidates = new long[2];
+    private final long[] evaluated = new long[2];
+
+    /**
+     * add a recorded event; all but Gerry play events are ignored.
+     */
+    public void add(RecordedEvent event) {
+        if (!event.getEventType().getName().equals("hotgammon.GerryPlay")) return;
+        int type = event.getBoolean("doubles") ? 0 : 1;
+        latency[type].record(event.getDuration().toNanos());
+        candidates[type] += event.getLong("candidates");
+        evaluated[type] += event.getLong("evaluated");
+    }
+
+    /**
+     * return the number of plays recorded with or without doubles.
+     */
+    public long getPlays(boolean doubles) {
+        return latency[doubles ? 0 : 1].getCount();
+    }
+
+    public void writeSummary(PrintStream out) {
+        out.println("roll type      plays   mean us    p50 us    p99 us    max us"
+                + "  generated/play  evaluated/play");
+        String[] names = {"doubles", "non-doubles"};
+        for (int type = 0; type < 2; type++) {
+            LatencyHistogram h = latency[type];
+            long n = Math.max(1, h.getCount());
+            out.printf("%-11s %8d %9.1f %9.1f %9.1f %9.1f %15.1f %15.1f%n", names[type],
+                    h.getCount(), h.getMean() / 1e3, h.getValueAtPercentile(50) / 1e3,
+                    h.getValueAtPercentile(99) / 1e3, h.getMax() / 1e3,
+                    (double) candidates[type] / n, (double) evaluated[type] / n);
+        }
+    }
+
+    /**
+     * read all events of a recording file.
+     */
+    public void read(File recording) throws IOException {
+        RecordingFile file = new RecordingFile(recording.toPath());
+        try {
+            while (file.hasMoreEvents()) {
+                add(file.readEvent());
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: GerryFlightAnalyzer recording.jfr");
+            return;
+        }
+        GerryFlightAnalyzer analyzer = new GerryFlightAnalyzer();
+        analyzer.read(new File(args[0]));
+        analyzer.writeSummary(System.out);
+    }
+}
@@ -0,0 +1,55 @@
+import jdk.jfr.*;
+
+/**
+ * A JDK Flight Recorder event for each move Gerry plays, committed
+ * by FlightRecordedGerry. No stack trace is taken, as the event is
+ * always emitted from the same place, which keeps the cost of
+ * recording every play well below 1%.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+@Name("hotgammon.GerryPlay")
+@Label("Gerry Play")
+@Category({"HotGammon", "AI"})
+@Description("Move generation and evaluation of one turn played by Gerry")
+@StackTrace(false)
+public class GerryPlayEvent extends Event {
+    @Label("Die 1")
+    int die1;
+
+    @Label("Die 2")
+    int die2;
+
+    @Label("Doubles")
+    boolean doubles;
+
+    @Label("Candidates Generated")
+    @Description("Nodes generated by the move generation")
+    long candidates;
+
+    @Label("Candidates Evaluated")
+    @Description("Complete moves evaluated by pubeval")
+    long evaluated;
+
+    @Label("From Book")
+    @Description("Played from the opening book, without generating moves")
+    boolean fromBook;
+
+    @Label("Chosen Score")
+    float score;
+
+    @Label("Checkers Moved")
+    int checkersMoved;
+}
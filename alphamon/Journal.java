@@ -0,0 +1,412 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * An append-only, memory-mapped write-ahead journal that makes the
+ * games played through JournaledGame decorators survive a crash of
+ * the process.
+ * <p/>
+ * The journal is a sequence of segment files in a directory. Each
+ * segment starts with a checkpoint: the rules, dice and state of
+ * every live game, ended by a checkpoint marker. After that come the
+ * records of the games: the rules and dice of a game started, the
+ * full state after every newGame and nextTurn (thus the dice rolled
+ * are journaled, not re-rolled), every valid move, and the closing
+ * of a game. When a segment is full a new one is started with a
+ * fresh checkpoint, and the old one is deleted. The room for a
+ * record is made before the game is changed, so a checkpoint never
+ * holds a change whose record follows it.
+ * <p/>
+ * The rules of a game are journaled by the class name of its
+ * MoveRules, see MoveTable.forRules; only FixedDiceRoller and
+ * SeededDiceRoller dice can be journaled.
+ * <p/>
+ * Records are written to the mapped file without allocation and
+ * forced to disk in group commits: once every groupCommitSize
+ * records, and on sync(). Each record carries a checksum, so a
+ * record torn by a crash ends the replay. Creating a journal on a
+ * directory recovers the games of the newest segment with a
+ * complete checkpoint, see getRecoveredGames().
+ * <p/>
+ * All methods are synchronized, and the decorators change their
+ * games only while holding the lock of the journal, so games played
+ * by several threads may share a journal.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class Journal {
+    private static final byte STATE = 1;
+    private static final byte MOVE = 2;
+    private static final byte CLOSE = 3;
+    private static final byte CHECKPOINT = 4;
+    private static final byte GAME = 5;
+
+    private static final int STATE_SIZE = 1 + 4 + GameStateCodec.RECORD_SIZE + 4;
+    private static final int MOVE_SIZE = 1 + 4 + 2 + 4;
+
+    // the dice that can be journaled
+    private static final byte FIXED_DICE = 0;
+    private static final byte SEEDED_DICE = 1;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final File directory;
+    private final int segmentSize;
+    private final int groupCommitSize;
+
+    private final Map<Integer, GameImpl> live = new HashMap<Integer, GameImpl>();
+    private final Map<Integer, JournaledGame> recovered = new HashMap<Integer, JournaledGame>();
+    private final GameState scratch = new GameState();
+
+    private int segmentNumber;
+    private File segmentFile;
+    private MappedByteBuffer segment;
+    private int uncommitted;
+
+    /**
+     * open a journal, recovering the games journaled in the
+     * directory by an earlier run.
+     *
+     * @param directory       the directory of the segment files
+     * @param segmentSize     the size in bytes of each segment
+     * @param groupCommitSize the number of records between forcing
+     *                        the journal to disk
+     */
+    public Journal(File directory, int segmentSize, int groupCommitSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.groupCommitSize = groupCommitSize;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create journal directory " + directory);
+        }
+        recover();
+        checkpoint();
+        for (Map.Entry<Integer, GameImpl> e : live.entrySet()) {
+            recovered.put(e.getKey(), new JournaledGame(e.getKey(), e.getValue(), this));
+        }
+    }
+
+    /**
+     * return the games recovered when the journal was opened, by id.
+     * They are journaled just like games started by startGame.
+     */
+    public Map<Integer, JournaledGame> getRecoveredGames() {
+        return Collections.unmodifiableMap(recovered);
+    }
+
+    /**
+     * start journaling a game.
+     *
+     * @param id   the id of the game, unique in this journal
+     * @param game the game; it must only be changed through the
+     *             returned decorator from now on.
+     * @return the journaling decorator of the game
+     * @throws IllegalArgumentException if the id is taken, or the
+     *                                  dice of the game cannot be
+     *                                  journaled
+     */
+    public synchronized JournaledGame startGame(int id, GameImpl game) throws IOException {
+        if (live.containsKey(id)) {
+            throw new IllegalArgumentException("Game " + id + " is already journaled");
+        }
+        byte[] rules = rulesName(game);
+        diceKind(game.getDiceRoller());
+        ensureRoom(gameSize(rules) + STATE_SIZE);
+        live.put(id, game);
+        int start = segment.position();
+        putGame(id, rules, game);
+        endRecord(start);
+        start = segment.position();
+        putState(id, game);
+        endRecord(start);
+        return new JournaledGame(id, game, this);
+    }
+
+    // == changing and journaling, called by JournaledGame
+
+    synchronized void newGame(int id, GameImpl game) throws IOException {
+        ensureRoom(STATE_SIZE);
+        game.newGame();
+        int start = segment.position();
+        putState(id, game);
+        endRecord(start);
+    }
+
+    synchronized void nextTurn(int id, GameImpl game) throws IOException {
+        ensureRoom(STATE_SIZE);
+        game.nextTurn();
+        int start = segment.position();
+        putState(id, game);
+        endRecord(start);
+    }
+
+    synchronized boolean move(int id, GameImpl game, int from, int to) throws IOException {
+        ensureRoom(MOVE_SIZE);
+        if (!game.move(from, to)) return false;
+        int start = segment.position();
+        segment.put(MOVE).putInt(id).put((byte) from).put((byte) to);
+        endRecord(start);
+        return true;
+    }
+
+    synchronized void close(int id) throws IOException {
+        live.remove(id);
+        ensureRoom(1 + 4 + 4);
+        int start = segment.position();
+        segment.put(CLOSE).putInt(id);
+        endRecord(start);
+    }
+
+    private void endRecord(int start) {
+        segment.putInt(checksum(segment, start, segment.position()));
+        if (++uncommitted >= groupCommitSize) {
+            sync();
+        }
+    }
+
+    /**
+     * make room for records of the given size, if need be by starting
+     * a new segment; called before the game is changed, so the
+     * checkpoint holds its state without the change.
+     */
+    private void ensureRoom(int recordSize) throws IOException {
+        // always leave room for the zero byte that ends the segment
+        if (segment.remaining() <= recordSize) {
+            checkpoint();
+            if (segment.remaining() <= recordSize) {
+                throw new IOException("Segment size too small for " + live.size() + " games");
+            }
+        }
+    }
+
+    /**
+     * force all records written so far to disk.
+     */
+    public synchronized void sync() {
+        segment.force();
+        uncommitted = 0;
+    }
+
+    /**
+     * start a new segment with a checkpoint of all live games, and
+     * delete the older segments. Called automatically when a segment
+     * is full; calling it explicitly shortens the next recovery.
+     */
+    public synchronized void checkpoint() throws IOException {
+        int checkpointSize = 9 + 1;
+        for (GameImpl game : live.values()) {
+            checkpointSize += gameSize(rulesName(game)) + STATE_SIZE;
+        }
+        if (checkpointSize > segmentSize) {
+            throw new IOException("Segment size too small for " + live.size() + " games");
+        }
+        MappedByteBuffer previous = segment;
+        segmentNumber++;
+        segmentFile = segmentFile(segmentNumber);
+        RandomAccessFile file = new RandomAccessFile(segmentFile, "rw");
+        try {
+            file.setLength(0);
+            file.setLength(segmentSize);
+            segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } finally {
+            file.close();
+        }
+        if (previous != null) {
+            previous.force();
+        }
+        for (Map.Entry<Integer, GameImpl> e : live.entrySet()) {
+            int start = segment.position();
+            putGame(e.getKey(), rulesName(e.getValue()), e.getValue());
+            segment.putInt(checksum(segment, start, segment.position()));
+            start = segment.position();
+            putState(e.getKey(), e.getValue());
+            segment.putInt(checksum(segment, start, segment.position()));
+        }
+        int start = segment.position();
+        segment.put(CHECKPOINT).putInt(0);
+        segment.putInt(checksum(segment, start, segment.position()));
+        sync();
+        // the checkpoint is durable, older segments are obsolete
+        File[] files = segmentFiles();
+        for (int i = 0; i < files.length; i++) {
+            if (!files[i].equals(segmentFile)) {
+                files[i].delete();
+            }
+        }
+    }
+
+    // == recovery
+
+    /**
+     * rebuild the live games from the newest segment that has a
+     * complete checkpoint.
+     */
+    private void recover() throws IOException {
+        File[] files = segmentFiles();
+        for (int i = files.length - 1; i >= 0; i--) {
+            live.clear();
+            if (replay(files[i])) {
+                segmentNumber = numberOf(files[files.length - 1]);
+                return;
+            }
+        }
+        live.clear();
+        segmentNumber = files.length > 0 ? numberOf(files[files.length - 1]) : 0;
+    }
+
+    /**
+     * replay a segment into the live games.
+     *
+     * @return true if the segment started with a complete checkpoint.
+     */
+    private boolean replay(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        MappedByteBuffer in;
+        try {
+            in = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        } finally {
+            raf.close();
+        }
+        boolean checkpointed = false;
+        GameState state = new GameState();
+        while (in.remaining() > 5) {
+            int start = in.position();
+            byte type = in.get();
+            int id = in.getInt();
+            int from = 0, to = 0;
+            String rules = null;
+            byte dice = 0;
+            long seed = 0;
+            if (type == GAME) {
+                if (in.remaining() < 2) break;
+                int length = in.getShort();
+                if (length < 0 || in.remaining() < length + 1 + 8 + 4) break;
+                byte[] name = new byte[length];
+                in.get(name);
+                dice = in.get();
+                seed = in.getLong();
+                rules = new String(name, "UTF-8");
+            } else if (type == STATE) {
+                if (in.remaining() < GameStateCodec.RECORD_SIZE + 4) break;
+                GameStateCodec.decode(in, state);
+            } else if (type == MOVE) {
+                if (in.remaining() < 2 + 4) break;
+                from = in.get();
+                to = in.get();
+            } else if (type != CLOSE && type != CHECKPOINT) {
+                // the end of the journal
+                break;
+            }
+            if (in.remaining() < 4) break;
+            int sum = checksum(in, start, in.position());
+            if (in.getInt() != sum) {
+                // torn by a crash
+                break;
+            }
+
+            if (type == GAME) {
+                // resolved only once the checksum shows the name is
+                // what was journaled
+                MoveTable table;
+                try {
+                    table = MoveTable.forRules(rules);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Journal " + file + " names unknown rules " + rules);
+                }
+                DiceRoller roller = dice == SEEDED_DICE
+                        ? new SeededDiceRoller(seed) : new FixedDiceRoller();
+                live.put(id, new GameImpl(table, roller));
+            } else if (type == STATE) {
+                GameImpl game = live.get(id);
+                if (game != null) game.restore(state);
+            } else if (type == MOVE) {
+                GameImpl game = live.get(id);
+                if (game != null) game.move(from, to);
+            } else if (type == CLOSE) {
+                live.remove(id);
+            } else {
+                checkpointed = true;
+            }
+        }
+        return checkpointed;
+    }
+
+    // == helpers
+
+    private void putGame(int id, byte[] rules, GameImpl game) {
+        segment.put(GAME).putInt(id);
+        segment.putShort((short) rules.length).put(rules);
+        DiceRoller roller = game.getDiceRoller();
+        segment.put(diceKind(roller));
+        segment.putLong(roller instanceof SeededDiceRoller ? ((SeededDiceRoller) roller).getSeed() : 0);
+    }
+
+    private void putState(int id, GameImpl game) {
+        scratch.readFrom(game);
+        segment.put(STATE).putInt(id);
+        GameStateCodec.encode(scratch, segment);
+    }
+
+    private static int gameSize(byte[] rules) {
+        return 1 + 4 + 2 + rules.length + 1 + 8 + 4;
+    }
+
+    private static byte[] rulesName(GameImpl game) throws UnsupportedEncodingException {
+        return game.getRules().getRulesName().getBytes("UTF-8");
+    }
+
+    private static byte diceKind(DiceRoller roller) {
+        if (roller instanceof FixedDiceRoller) return FIXED_DICE;
+        if (roller instanceof SeededDiceRoller) return SEEDED_DICE;
+        throw new IllegalArgumentException("Cannot journal dice of " + roller.getClass().getName());
+    }
+
+    /**
+     * FNV-1a hash of the bytes [start;end) of a buffer.
+     */
+    private static int checksum(ByteBuffer buffer, int start, int end) {
+        int hash = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            hash ^= buffer.get(i) & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    private File segmentFile(int number) {
+        return new File(directory, PREFIX + String.format("%08d", number) + SUFFIX);
+    }
+
+    private static int numberOf(File segment) {
+        String name = segment.getName();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * return the segment files, oldest first.
+     */
+    private File[] segmentFiles() {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }
+        });
+        Arrays.sort(files);
+        return files;
+    }
+}
@@ -0,0 +1,86 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Measure the cost of journaling and the time to recover: journal
+ * 100,000 turns spread over 1,000 games, then recover them from the
+ * journal as after a crash. Fails if recovery takes BUDGET_MILLIS
+ * or more. Run with run-benchmark JournalBenchmark,
+ * optionally giving the journal directory as argument.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class JournalBenchmark {
+    private static final int GAMES = 1000;
+    private static final int TURNS = 100000;
+    private static final int SEGMENT_SIZE = 64 << 20;
+    private static final int GROUP_COMMIT = 1024;
+    /** the budget of recovering the games after TURNS turns */
+    public static final long BUDGET_MILLIS = 1000;
+
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0]
+                : System.getProperty("java.io.tmpdir") + File.separator + "hotgammon-journal");
+        deleteSegments(directory);
+
+        Journal journal = new Journal(directory, SEGMENT_SIZE, GROUP_COMMIT);
+        JournaledGame[] games = new JournaledGame[GAMES];
+        GerryAdapter[] players = new GerryAdapter[GAMES];
+        for (int i = 0; i < GAMES; i++) {
+            games[i] = journal.startGame(i, new GameImpl());
+            players[i] = new GerryAdapter(games[i]);
+        }
+        long start = System.nanoTime();
+        int moves = 0;
+        for (int t = 0; t < TURNS; t++) {
+            int i = t % GAMES;
+            if (games[i].winner() != Color.NONE) games[i].newGame();
+            games[i].nextTurn();
+            if (games[i].getPlayerInTurn() == Color.BLACK) moves += players[i].playTurn();
+        }
+        journal.sync();
+        long journaled = System.nanoTime();
+        System.out.printf("journaled %d turns, %d moves in %.0f ms%n",
+                TURNS, moves, (journaled - start) / 1e6);
+
+        // crash: the journal is abandoned and the directory recovered
+        long recoveryStart = System.nanoTime();
+        Journal recovered = new Journal(directory, SEGMENT_SIZE, GROUP_COMMIT);
+        long recoveryEnd = System.nanoTime();
+        Map<Integer, JournaledGame> games2 = recovered.getRecoveredGames();
+        GameState expected = new GameState(), actual = new GameState();
+        for (int i = 0; i < GAMES; i++) {
+            expected.readFrom(games[i]);
+            actual.readFrom(games2.get(i));
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("Game " + i + " not recovered: " + actual);
+            }
+        }
+        long recoveryMillis = (recoveryEnd - recoveryStart) / 1000000;
+        System.out.printf("recovered %d games in %d ms%n", games2.size(), recoveryMillis);
+        deleteSegments(directory);
+        if (recoveryMillis >= BUDGET_MILLIS) {
+            throw new IllegalStateException("Recovery took " + recoveryMillis
+                    + " ms, over the budget of " + BUDGET_MILLIS + " ms");
+        }
+    }
+
+    private static void deleteSegments(File directory) {
+        File[] files = directory.listFiles();
+        for (int i = 0; files != null && i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.IOException;
+
+/**
+ * A decorator that journals every change of a game to a Journal:
+ * its state after newGame and nextTurn, and every valid move. Thus
+ * the game can be recovered after a crash. The game is changed and
+ * the change journaled while holding the lock of the journal, so a
+ * checkpoint sees the game either before the change or after it is
+ * journaled. If the journal cannot be written, the change is not
+ * made, and an IllegalStateException tells the caller that the game
+ * is no longer crash safe.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class JournaledGame implements Game {
+    private final int id;
+    private final GameImpl game;
+    private final Journal journal;
+
+    JournaledGame(int id, GameImpl game, Journal journal) {
+        this.id = id;
+        this.game = game;
+        this.journal = journal;
+    }
+
+    /**
+     * return the id of this game in the journal.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * stop journaling this game; it will not be recovered.
+     */
+    public void close() {
+        try {
+            journal.close(id);
+        } catch (IOException e) {
+            throw new IllegalStateException("Journal failed", e);
+        }
+    }
+
+    // == mutators are journaled
+
+    public void newGame() {
+        try {
+            journal.newGame(id, game);
+        } catch (IOException e) {
+            throw new IllegalStateException("Journal failed", e);
+        }
+    }
+
+    public void nextTurn() {
+        try {
+            journal.nextTurn(id, game);
+        } catch (IOException e) {
+            throw new IllegalStateException("Journal failed", e);
+        }
+    }
+
+    public boolean move(Location from, Location to) {
+        return move(from.getIndex(), to.getIndex());
+    }
+
+    public boolean move(int from, int to) {
+        try {
+            return journal.move(id, game, from, to);
+        } catch (IOException e) {
+            throw new IllegalStateException("Journal failed", e);
+        }
+    }
+
+    // == accessors are simply delegated
+
+    public Color getPlayerInTurn() {
+        return game.getPlayerInTurn();
+    }
+
+    public int getNumberOfMovesLeft() {
+        return game.getNumberOfMovesLeft();
+    }
+
+    public int[] diceThrown() {
+        return game.diceThrown();
+    }
+
+    public int[] diceValuesLeft() {
+        return game.diceValuesLeft();
+    }
+
+    public Color winner() {
+        return game.winner();
+    }
+
+    public Color getColor(Location location) {
+        return game.getColor(location);
+    }
+
+    public int getCount(Location location) {
+        return game.getCount(location);
+    }
+
+    public void getBoard(int[] board) {
+        game.getBoard(board);
+    }
+
+    public void getDiceThrown(int[] dice) {
+        game.getDiceThrown(dice);
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        return game.getDiceValuesLeft(values);
+    }
+
+    public Color getColor(int index) {
+        return game.getColor(index);
+    }
+
+    public int getCount(int index) {
+        return game.getCount(index);
+    }
+
+    public long getPositionHash() {
+        return game.getPositionHash();
+    }
+
+    public int getPipCount(Color player) {
+        return game.getPipCount(player);
+    }
+
+    public int getBorneOff(Color player) {
+        return game.getBorneOff(player);
+    }
+
+    public boolean isRace() {
+        return game.isRace();
+    }
+}
@@ -1,4 +1,4 @@
-import java.util.Iterator;
+import java.util.*;
 
 /**
  * This enum represents an enumeration of board locations (the
@@ -22,6 +22,11 @@ import java.util.Iterator;
  * (process l)
  * }
  * <p/>
+ * As values() copies the array on every call, hot loops should use
+ * the primitive index instead: getIndex(), getLocationFromIndex(),
+ * the LOCATIONS_BY_INDEX table, and findLocationIndex() avoid both
+ * the copying and the branching of findLocation().
+ * <p/>
  * <p/>
  * This source code is from the book
  * "Flexible, Reliable Software:
@@ -95,6 +100,38 @@ public enum Location {
             B_BEAR_OFF,
             R_BEAR_OFF};
 
+    /**
+     * the number of locations, and thus of indices
+     */
+    public static final int NUMBER_OF_LOCATIONS = 28;
+
+    // the indices of the bear off locations, as constants
+    private static final int B_BEAR_OFF_INDEX = 26, R_BEAR_OFF_INDEX = 27;
+
+    /**
+     * an unmodifiable table of all locations, ordered by index
+     */
+    public static final List<Location> LOCATIONS_BY_INDEX =
+            Collections.unmodifiableList(Arrays.asList(indexToEnum));
+
+    /**
+     * the index of the location found by findLocation for every
+     * (color, from index, distance) combination, color being BLACK
+     * in the first half and RED in the second.
+     */
+    private final static int[] destinationTable = new int[2 * 26 * 7];
+
+    static {
+        for (int from = 0; from < 26; from++) {
+            for (int distance = 1; distance <= 6; distance++) {
+                destinationTable[from * 7 + distance] =
+                        findLocation(Color.BLACK, indexToEnum[from], distance).index;
+                destinationTable[26 * 7 + from * 7 + distance] =
+                        findLocation(Color.RED, indexToEnum[from], distance).index;
+            }
+        }
+    }
+
     /**
      * create the location with the given name and index
      */
@@ -107,6 +144,29 @@ public enum Location {
         return name;
     }
 
+    /**
+     * return the index of this location. B_BAR is 0, R1..R12 are
+     * 1..12, B12..B1 are 13..24, R_BAR is 25, B_BEAR_OFF is 26 and
+     * R_BEAR_OFF is 27. This is the layout of the board arrays
+     * used by Game.getBoard and by Gerry.
+     *
+     * @return the index of this location, in range 0..27.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * return the location that has a given index.
+     * PRECONDITION: index is in range 0..27.
+     *
+     * @param index the index of the location
+     * @return the location with this index
+     */
+    public static Location getLocationFromIndex(int index) {
+        return indexToEnum[index];
+    }
+
     /**
      * calculate the distance between two locations. The distance
      * function is signed to signal movement direction: it is POSITIVE
@@ -129,17 +189,30 @@ public enum Location {
      * @return the distance between from and to, the distance is signed.
      */
     public static int distance(Location from, Location to) {
-        if (to == Location.R_BEAR_OFF) {
+        return distance(from.index, to.index);
+    }
+
+    /**
+     * calculate the distance between two locations given by their
+     * indices, without looking up the locations; the result is that
+     * of distance(getLocationFromIndex(from), getLocationFromIndex(to)).
+     * PRECONDITION: from and to are in range 0..27.
+     *
+     * @param from the index of the location to move from
+     * @param to   the index of the location to move to
+     * @return the distance between from and to, the distance is signed.
+     */
+    public static int distance(int from, int to) {
+        if (to == R_BEAR_OFF_INDEX) {
             // R1 == 1; R2 == 2, etc.
             // Thus the distance from bear off to R2 is -2
             // as red moves away from black inner table
-            return -from.index;
+            return -from;
         }
-        if (to == Location.B_BEAR_OFF) {
-            return 25 - from.index;
+        if (to == B_BEAR_OFF_INDEX) {
+            return 25 - from;
         }
-        int _if = from.index, _it = to.index;
-        return _it - _if;
+        return to - from;
     }
 
     /**
@@ -173,4 +246,23 @@ public enum Location {
         Location to = indexToEnum[_to];
         return to;
     }
+
+    /**
+     * calculate the index of the destination location given the index
+     * of the from location and a distance, by a table lookup. The
+     * result is the index of findLocation(p, getLocationFromIndex(from),
+     * distance).
+     * PRECONDITION: p is BLACK or RED.
+     * PRECONDITION: distance is in range 1..6.
+     * PRECONDITION: from is in range 0..25, i.e. not a bear off location.
+     *
+     * @param p        the color of the player
+     * @param from     the index of the location to move from
+     * @param distance the distance to move
+     * @return the index of the location where a checker will land.
+     */
+    public static int findLocationIndex(Color p, int from, int distance) {
+        int offset = p == Color.BLACK ? 0 : 26 * 7;
+        return destinationTable[offset + from * 7 + distance];
+    }
 }
@@ -0,0 +1,136 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Gather MatchStatistics over an archive of match logs in parallel.
+ * Each log is split by its blocks into fork/join tasks, each of
+ * which replays its games with its own reader and GameImpl into its
+ * own statistics; the results are merged on the way back.
+ * <p/>
+ * Run with run-benchmark MatchLogAnalytics result.csv log... to
+ * write the statistics of the logs as CSV and report the throughput.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MatchLogAnalytics extends RecursiveTask<MatchStatistics> {
+    private static final long serialVersionUID = 1L;
+
+    /** the number of blocks replayed by a single task */
+    public static final int BLOCKS_PER_TASK = 16;
+
+    private final MatchLogReader log;
+    private final int firstBlock;
+    private final int endBlock;
+
+    /**
+     * create a task analysing the blocks [firstBlock;endBlock) of a
+     * log. The given reader is not used for replaying, so it may be
+     * shared by tasks.
+     */
+    public MatchLogAnalytics(MatchLogReader log, int firstBlock, int endBlock) {
+        this.log = log;
+        this.firstBlock = firstBlock;
+        this.endBlock = endBlock;
+    }
+
+    protected MatchStatistics compute() {
+        if (endBlock - firstBlock > BLOCKS_PER_TASK) {
+            int middle = (firstBlock + endBlock) >>> 1;
+            MatchLogAnalytics left = new MatchLogAnalytics(log, firstBlock, middle);
+            left.fork();
+            MatchStatistics statistics = new MatchLogAnalytics(log, middle, endBlock).compute();
+            statistics.merge(left.join());
+            return statistics;
+        }
+        MatchStatistics statistics = new MatchStatistics();
+        if (firstBlock >= endBlock) return statistics;
+        int first = log.getFirstGameOfBlock(firstBlock);
+        int end = endBlock < log.getNumberOfBlocks()
+                ? log.getFirstGameOfBlock(endBlock) : log.getNumberOfGames();
+        StatisticsCollector collector = new StatisticsCollector(statistics, log.getRules());
+        try {
+            MatchLogReader reader = log.duplicate();
+            try {
+                reader.replay(first, end - first, collector);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot replay blocks " + firstBlock
+                    + "-" + endBlock, e);
+        }
+        collector.finish();
+        return statistics;
+    }
+
+    /**
+     * gather the statistics of the given logs.
+     *
+     * @param pool the pool to run the tasks in
+     * @param logs the logs to analyse
+     */
+    public static MatchStatistics analyse(ForkJoinPool pool, List<File> logs) throws IOException {
+        List<MatchLogReader> readers = new ArrayList<MatchLogReader>();
+        List<ForkJoinTask<MatchStatistics>> tasks = new ArrayList<ForkJoinTask<MatchStatistics>>();
+        try {
+            for (File file : logs) {
+                MatchLogReader reader = new MatchLogReader(file);
+                readers.add(reader);
+                tasks.add(pool.submit(new MatchLogAnalytics(reader, 0, reader.getNumberOfBlocks())));
+            }
+            MatchStatistics statistics = new MatchStatistics();
+            for (ForkJoinTask<MatchStatistics> task : tasks) {
+                statistics.merge(task.join());
+            }
+            return statistics;
+        } finally {
+            for (MatchLogReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: MatchLogAnalytics result.csv log...");
+            return;
+        }
+        List<File> logs = new ArrayList<File>();
+        long bytes = 0;
+        for (int i = 1; i < args.length; i++) {
+            File file = new File(args[i]);
+            logs.add(file);
+            bytes += file.length();
+        }
+        ForkJoinPool pool = new ForkJoinPool();
+        long start = System.nanoTime();
+        MatchStatistics statistics = analyse(pool, logs);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        Writer out = new BufferedWriter(new FileWriter(args[0]));
+        try {
+            statistics.writeCsv(out);
+        } finally {
+            out.close();
+        }
+        System.out.printf("%d games, %d moves, %.1f MB in %.2f s on %d threads: "
+                + "%.1f M moves/s, %.1f MB/s%n",
+                statistics.getGames(), statistics.getMoves(), bytes / 1e6, seconds,
+                pool.getParallelism(), statistics.getMoves() / seconds / 1e6,
+                bytes / seconds / 1e6);
+    }
+}
@@ -0,0 +1,74 @@
+import java.io.*;
+
+/**
+ * Measure match log replay: record games played by Gerry, then
+ * replay the log repeatedly, both just decoding it and feeding it
+ * into a GameImpl. Run with run-benchmark MatchLogBenchmark.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MatchLogBenchmark {
+    private static final int GAMES = 2000;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws IOException {
+        File file = File.createTempFile("match", ".log");
+        file.deleteOnExit();
+        GameImpl played = new GameImpl();
+        MatchLogWriter log = new MatchLogWriter(new FileOutputStream(file), played.getRules());
+        RecordingGame game = new RecordingGame(played, log);
+        GerryAdapter gerry = new GerryAdapter(game);
+        long recorded = 0;
+        for (int g = 0; g < GAMES; g++) {
+            if (g > 0) game.newGame();
+            while (game.winner() == Color.NONE) {
+                game.nextTurn();
+                if (game.getPlayerInTurn() == Color.BLACK) recorded += gerry.playTurn();
+            }
+        }
+        log.close();
+        System.out.printf("%d games, %d moves in %d bytes: %.2f bytes per move%n",
+                GAMES, recorded, file.length(), (double) file.length() / recorded);
+
+        MatchLogReader reader = new MatchLogReader(file);
+        MatchLogReader.Handler decodeOnly = new MatchLogReader.Handler() {
+            public void newGame() {
+            }
+
+            public void turn(int die1, int die2) {
+            }
+
+            public void move(int from, int to) {
+            }
+        };
+        GameReplay replay = new GameReplay(reader.getRules());
+        for (int warmup = 0; warmup < 3; warmup++) {
+            long start = System.nanoTime();
+            long moves = 0;
+            for (int r = 0; r < ROUNDS; r++) {
+                moves += reader.replay(decodeOnly);
+            }
+            long decoded = System.nanoTime();
+            for (int r = 0; r < ROUNDS; r++) {
+                moves += reader.replay(replay);
+            }
+            long replayed = System.nanoTime();
+            System.out.printf("decode: %.1f M moves/s, replay into GameImpl: %.1f M moves/s%n",
+                    moves / 2.0 / (decoded - start) * 1e3,
+                    moves / 2.0 / (replayed - decoded) * 1e3);
+        }
+        reader.close();
+    }
+}
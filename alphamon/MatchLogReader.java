@@ -0,0 +1,220 @@
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.*;
+
+/**
+ * A reader of the match logs written by MatchLogWriter. The events
+ * of the games are handed to a Handler, most often a GameReplay that
+ * feeds them into a Game.
+ * <p/>
+ * Reading reuses its buffers and the Inflater, so replaying a log
+ * allocates nothing per block once the buffers have grown to the
+ * largest block.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MatchLogReader {
+    /**
+     * The receiver of the events of a match log.
+     */
+    public interface Handler {
+        void newGame();
+
+        void turn(int die1, int die2);
+
+        void move(int from, int to);
+    }
+
+    private final File log;
+    private final RandomAccessFile file;
+    private final MoveTable rules;
+    private final long[] offsets;
+    private final int[] firstGames;
+    private final int games;
+    private final Inflater inflater = new Inflater();
+    private byte[] raw = new byte[MatchLogWriter.DEFAULT_BLOCK_SIZE];
+    private byte[] compressed = new byte[MatchLogWriter.DEFAULT_BLOCK_SIZE];
+
+    public MatchLogReader(File log) throws IOException {
+        this.log = log;
+        file = new RandomAccessFile(log, "r");
+        if (file.length() < 24 || file.readInt() != MatchLogWriter.MAGIC) {
+            file.close();
+            throw new IOException(log + " is not a match log");
+        }
+        if (file.readInt() != MatchLogWriter.VERSION) {
+            file.close();
+            throw new IOException(log + " has an unknown version");
+        }
+        String rulesName = file.readUTF();
+        try {
+            rules = MoveTable.forRules(rulesName);
+        } catch (IllegalArgumentException e) {
+            file.close();
+            throw new IOException(log + " has unknown rules " + rulesName);
+        }
+        file.seek(file.length() - 16);
+        long indexOffset = file.readLong();
+        games = file.readInt();
+        if (file.readInt() != MatchLogWriter.MAGIC) {
+            file.close();
+            throw new IOException(log + " is truncated");
+        }
+        file.seek(indexOffset);
+        int blocks = file.readInt();
+        offsets = new long[blocks];
+        firstGames = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            offsets[i] = file.readLong();
+            firstGames[i] = file.readInt();
+        }
+    }
+
+    private MatchLogReader(MatchLogReader other) throws IOException {
+        log = other.log;
+        file = new RandomAccessFile(log, "r");
+        rules = other.rules;
+        offsets = other.offsets;
+        firstGames = other.firstGames;
+        games = other.games;
+    }
+
+    /**
+     * return a new reader of the same log that shares the index of
+     * this one, for replaying parts of the log in another thread.
+     */
+    public MatchLogReader duplicate() throws IOException {
+        return new MatchLogReader(this);
+    }
+
+    /**
+     * return the rules of the games in the log.
+     */
+    public MoveTable getRules() {
+        return rules;
+    }
+
+    /**
+     * return the number of games in the log.
+     */
+    public int getNumberOfGames() {
+        return games;
+    }
+
+    /**
+     * return the number of compressed blocks in the log.
+     */
+    public int getNumberOfBlocks() {
+        return offsets.length;
+    }
+
+    /**
+     * return the number of the first game of a block.
+     */
+    public int getFirstGameOfBlock(int block) {
+        return firstGames[block];
+    }
+
+    /**
+     * replay all games of the log.
+     *
+     * @return the number of moves replayed
+     */
+    public long replay(Handler handler) throws IOException {
+        return replay(0, games, handler);
+    }
+
+    /**
+     * replay some of the games of the log, seeking directly to the
+     * block holding the first of them.
+     *
+     * @param first   the number of the first game, counting from 0
+     * @param count   the number of games to replay
+     * @param handler the receiver of the events
+     * @return the number of moves replayed
+     */
+    public long replay(int first, int count, Handler handler) throws IOException {
+        int end = (int) Math.min((long) first + count, games);
+        if (first < 0 || first >= end) return 0;
+        int b = Arrays.binarySearch(firstGames, first);
+        if (b < 0) b = -b - 2;
+
+        long moves = 0;
+        int game = firstGames[b] - 1;
+        boolean replaying = false;
+        for (; b < offsets.length; b++) {
+            int length = readBlock(b);
+            int i = 0;
+            while (i < length) {
+                int value = raw[i] & 0xff;
+                if (value == MatchLogWriter.NEW_GAME) {
+                    game++;
+                    if (game >= end) return moves;
+                    replaying = game >= first;
+                    if (replaying) handler.newGame();
+                    i++;
+                } else if (value >= MatchLogWriter.TURN) {
+                    if (replaying) handler.turn(value >> 3 & 7, value & 7);
+                    i++;
+                } else {
+                    if (replaying) {
+                        handler.move(value, raw[i + 1]);
+                        moves++;
+                    }
+                    i += 2;
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * read and decompress a block into raw.
+     *
+     * @return the uncompressed length of the block
+     */
+    private int readBlock(int b) throws IOException {
+        file.seek(offsets[b]);
+        int length = file.readInt();
+        int compressedLength = file.readInt();
+        file.readInt();
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (raw.length < length) {
+            raw = new byte[length];
+        }
+        file.readFully(compressed, 0, compressedLength);
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                n += inflater.inflate(raw, n, length - n);
+            }
+            if (n != length) {
+                throw new IOException("Block " + b + " is damaged");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Block " + b + " is damaged: " + e.getMessage());
+        }
+        return length;
+    }
+
+    public void close() throws IOException {
+        inflater.end();
+        file.close();
+    }
+}
@@ -0,0 +1,193 @@
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * A streaming writer of match logs: the compact record of any
+ * number of games, read by MatchLogReader.
+ * <p/>
+ * Every event is encoded in one or two bytes: a new game as the byte
+ * NEW_GAME, a turn as TURN | die1 << 3 | die2, and a move as the
+ * location indices of from and to, both below 0x80. The events are
+ * gathered in blocks that always start with a new game, and each
+ * block is compressed by a Deflater. The log ends with an index of
+ * the blocks, by the number of their first game, so a reader can
+ * seek to any game.
+ * <p/>
+ * The header names the rules of the games, by the class name of
+ * their MoveRules, so they can be replayed by the same rules.
+ * <p/>
+ * The layout of the log is
+ * <pre>
+ *   header:  int MAGIC, int VERSION, UTF rules name
+ *   block:   int raw length, int compressed length, int first game,
+ *            compressed bytes
+ *   index:   int number of blocks, (long offset, int first game) per block
+ *   trailer: long index offset, int number of games, int MAGIC
+ * </pre>
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MatchLogWriter {
+    static final int MAGIC = 0x48474d4c;
+    static final int VERSION = 2;
+    static final int NEW_GAME = 0xc0;
+    static final int TURN = 0x80;
+
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    private final DataOutputStream out;
+    private final int blockSize;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private byte[] block;
+    private int length;
+    private byte[] compressed;
+
+    private long position;
+    private int games;
+    private int firstGameInBlock;
+    private long[] offsets = new long[16];
+    private int[] firstGames = new int[16];
+    private int blocks;
+
+    public MatchLogWriter(OutputStream out, MoveTable rules) throws IOException {
+        this(out, DEFAULT_BLOCK_SIZE, rules);
+    }
+
+    /**
+     * @param out       the stream to write the log to; it is closed
+     *                  when the writer is closed
+     * @param blockSize the number of uncompressed bytes gathered
+     *                  before a block is compressed and written
+     * @param rules     the rules of the games logged
+     */
+    public MatchLogWriter(OutputStream out, int blockSize, MoveTable rules) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.blockSize = blockSize;
+        block = new byte[blockSize + 64];
+        compressed = new byte[blockSize + 64];
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        this.out.writeUTF(rules.getRulesName());
+        position = this.out.size();
+    }
+
+    /**
+     * return the number of games written so far.
+     */
+    public int getNumberOfGames() {
+        return games;
+    }
+
+    /**
+     * start a new game; the following events belong to it.
+     */
+    public void newGame() throws IOException {
+        if (length >= blockSize) {
+            writeBlock();
+        }
+        if (length == 0) {
+            firstGameInBlock = games;
+        }
+        ensureRoom(1);
+        block[length++] = (byte) NEW_GAME;
+        games++;
+    }
+
+    /**
+     * record that the dice were rolled.
+     */
+    public void turn(int die1, int die2) {
+        if (die1 < 0 || die1 > 6 || die2 < 0 || die2 > 6) {
+            throw new IllegalArgumentException("Illegal dice " + die1 + ", " + die2);
+        }
+        ensureStarted();
+        ensureRoom(1);
+        block[length++] = (byte) (TURN | die1 << 3 | die2);
+    }
+
+    /**
+     * record a valid move between two location indices.
+     */
+    public void move(int from, int to) {
+        ensureStarted();
+        ensureRoom(2);
+        block[length++] = (byte) from;
+        block[length++] = (byte) to;
+    }
+
+    private void ensureStarted() {
+        if (games == 0) {
+            throw new IllegalStateException("No game started");
+        }
+    }
+
+    private void ensureRoom(int bytes) {
+        // a long game may make a block grow beyond the block size
+        if (length + bytes > block.length) {
+            block = Arrays.copyOf(block, block.length * 2);
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        deflater.reset();
+        deflater.setInput(block, 0, length);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength,
+                    compressed.length - compressedLength);
+        }
+
+        if (blocks == offsets.length) {
+            offsets = Arrays.copyOf(offsets, blocks * 2);
+            firstGames = Arrays.copyOf(firstGames, blocks * 2);
+        }
+        offsets[blocks] = position;
+        firstGames[blocks] = firstGameInBlock;
+        blocks++;
+
+        out.writeInt(length);
+        out.writeInt(compressedLength);
+        out.writeInt(firstGameInBlock);
+        out.write(compressed, 0, compressedLength);
+        position += 12 + compressedLength;
+        length = 0;
+    }
+
+    /**
+     * write the last block and the index, and close the stream.
+     */
+    public void close() throws IOException {
+        if (length > 0) {
+            writeBlock();
+        }
+        long indexOffset = position;
+        out.writeInt(blocks);
+        for (int i = 0; i < blocks; i++) {
+            out.writeLong(offsets[i]);
+            out.writeInt(firstGames[i]);
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(games);
+        out.writeInt(MAGIC);
+        out.close();
+        deflater.end();
+    }
+}
@@ -0,0 +1,132 @@
+import java.io.*;
+
+/**
+ * Aggregate statistics over archived games, kept in primitive
+ * arrays so they are gathered without boxing:
+ * <ul>
+ * <li>the average pip count of each player by turn number,</li>
+ * <li>the number of hits on each location,</li>
+ * <li>the gammon rate by opening roll,</li>
+ * <li>the average number of moves left unused at the end of a
+ * turn.</li>
+ * </ul>
+ * Statistics gathered in parallel are combined by merge.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MatchStatistics {
+    /** turns beyond this are not part of the pip count trajectories */
+    public static final int MAX_TURNS = 256;
+
+    long games;
+    long turns;
+    long moves;
+    long movesLeft;
+    // pip counts by turn number: black at 2t, red at 2t+1
+    final long[] pipSum = new long[2 * MAX_TURNS];
+    final long[] pipSamples = new long[MAX_TURNS];
+    // hits by location index
+    final long[] hits = new long[Location.NUMBER_OF_LOCATIONS];
+    // finished games and gammons by opening roll, (die1-1)*6 + die2-1
+    final long[] finishedGames = new long[36];
+    final long[] gammons = new long[36];
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getTurns() {
+        return turns;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getHits(Location location) {
+        return hits[location.getIndex()];
+    }
+
+    public double getAverageMovesLeft() {
+        return turns == 0 ? 0 : (double) movesLeft / turns;
+    }
+
+    /**
+     * return the average pip count of a player at the start of a
+     * turn, or NaN if no game lasted that many turns.
+     */
+    public double getAveragePipCount(Color player, int turn) {
+        if (turn >= MAX_TURNS || pipSamples[turn] == 0) return Double.NaN;
+        int i = 2 * turn + (player == Color.BLACK ? 0 : 1);
+        return (double) pipSum[i] / pipSamples[turn];
+    }
+
+    /**
+     * return the fraction of the finished games with the given
+     * opening roll that ended in a gammon, or NaN if there are none.
+     */
+    public double getGammonRate(int die1, int die2) {
+        int i = (die1 - 1) * 6 + die2 - 1;
+        return finishedGames[i] == 0 ? Double.NaN : (double) gammons[i] / finishedGames[i];
+    }
+
+    /**
+     * add the statistics of another part of the archive to these.
+     */
+    public void merge(MatchStatistics other) {
+        games += other.games;
+        turns += other.turns;
+        moves += other.moves;
+        movesLeft += other.movesLeft;
+        add(pipSum, other.pipSum);
+        add(pipSamples, other.pipSamples);
+        add(hits, other.hits);
+        add(finishedGames, other.finishedGames);
+        add(gammons, other.gammons);
+    }
+
+    private static void add(long[] sum, long[] term) {
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += term[i];
+        }
+    }
+
+    /**
+     * write the statistics as CSV with the columns
+     * metric,key,samples,value.
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("metric,key,samples,value");
+        out.println("games,all," + games + "," + games);
+        out.println("moves,all," + moves + "," + moves);
+        out.println("averageMovesLeft,all," + turns + "," + getAverageMovesLeft());
+        for (int t = 0; t < MAX_TURNS && pipSamples[t] > 0; t++) {
+            out.println("pipCountBlack," + t + "," + pipSamples[t] + ","
+                    + getAveragePipCount(Color.BLACK, t));
+            out.println("pipCountRed," + t + "," + pipSamples[t] + ","
+                    + getAveragePipCount(Color.RED, t));
+        }
+        for (int i = 0; i < hits.length; i++) {
+            out.println("hits," + Location.getLocationFromIndex(i) + "," + hits[i] + "," + hits[i]);
+        }
+        for (int i = 0; i < finishedGames.length; i++) {
+            if (finishedGames[i] == 0) continue;
+            out.println("gammonRate," + (i / 6 + 1) + "-" + (i % 6 + 1) + ","
+                    + finishedGames[i] + "," + (double) gammons[i] / finishedGames[i]);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A decorator that meters a game: the latency of move and nextTurn,
+ * and the number of valid and invalid moves. Use the undecorated
+ * game to play without metering and without any cost.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MeteredGame implements Game {
+    private final Game game;
+    private final LatencyHistogram moveTime;
+    private final LatencyHistogram nextTurnTime;
+    private final AtomicLong moves;
+    private final AtomicLong invalidMoves;
+
+    public MeteredGame(Game game, MetricsRegistry registry) {
+        this.game = game;
+        moveTime = registry.histogram("game_move_nanos");
+        nextTurnTime = registry.histogram("game_next_turn_nanos");
+        moves = registry.counter("game_moves_total");
+        invalidMoves = registry.counter("game_moves_invalid_total");
+    }
+
+    // == mutators are metered
+
+    public void newGame() {
+        game.newGame();
+    }
+
+    public void nextTurn() {
+        long start = System.nanoTime();
+        game.nextTurn();
+        nextTurnTime.record(System.nanoTime() - start);
+    }
+
+    public boolean move(Location from, Location to) {
+        return move(from.getIndex(), to.getIndex());
+    }
+
+    public boolean move(int from, int to) {
+        long start = System.nanoTime();
+        boolean valid = game.move(from, to);
+        moveTime.record(System.nanoTime() - start);
+        (valid ? moves : invalidMoves).incrementAndGet();
+        return valid;
+    }
+
+    // == accessors are simply delegated
+
+    public Color getPlayerInTurn() {
+        return game.getPlayerInTurn();
+    }
+
+    public int getNumberOfMovesLeft() {
+        return game.getNumberOfMovesLeft();
+    }
+
+    public int[] diceThrown() {
+        return game.diceThrown();
+    }
+
+    public int[] diceValuesLeft() {
+        return game.diceValuesLeft();
+    }
+
+    public Color winner() {
+        return game.winner();
+    }
+
+    public Color getColor(Location location) {
+        return game.getColor(location);
+    }
+
+    public int getCount(Location location) {
+        return game.getCount(location);
+    }
+
+    public void getBoard(int[] board) {
+        game.getBoard(board);
+    }
+
+    public void getDiceThrown(int[] dice) {
+        game.getDiceThrown(dice);
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        return game.getDiceValuesLeft(values);
+    }
+
+    public Color getColor(int index) {
+        return game.getColor(index);
+    }
+
+    public int getCount(int index) {
+        return game.getCount(index);
+    }
+
+    public long getPositionHash() {
+        return game.getPositionHash();
+    }
+
+    public int getPipCount(Color player) {
+        return game.getPipCount(player);
+    }
+
+    public int getBorneOff(Color player) {
+        return game.getBorneOff(player);
+    }
+
+    public boolean isRace() {
+        return game.isRace();
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Gerry that meters its work: the latency of play, the nodes
+ * generated by the move generation in recurse, the leaves evaluated
+ * by pubeval, the solitude moves evaluated where the dice could
+ * not both be used, and the plays taken from the opening book. Use
+ * a plain Gerry to play without metering and without any cost.
+ * <p/>
+ * A Gerry is used by one thread at a time, so the counts of a play
+ * are kept in plain fields and added to the shared counters once
+ * the play is done.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MeteredGerry extends Gerry {
+    private final LatencyHistogram playTime;
+    private final AtomicLong nodes;
+    private final AtomicLong leaves;
+    private final AtomicLong solitudes;
+    private final AtomicLong bookHits;
+    // counts of the play in progress
+    private long playNodes, playLeaves, playSolitudes;
+
+    public MeteredGerry(MetricsRegistry registry) {
+        this(registry, OpeningBook.getDefault());
+    }
+
+    public MeteredGerry(MetricsRegistry registry, OpeningBook book) {
+        super(book);
+        playTime = registry.histogram("gerry_play_nanos");
+        nodes = registry.counter("gerry_nodes_total");
+        leaves = registry.counter("gerry_leaves_total");
+        solitudes = registry.counter("gerry_solitude_total");
+        bookHits = registry.counter("gerry_book_hits_total");
+    }
+
+    public Move play(int[] boardstate, int[] dicestate) {
+        long start = System.nanoTime();
+        try {
+            return super.play(boardstate, dicestate);
+        } finally {
+            playTime.record(System.nanoTime() - start);
+            // a search always generates nodes; a book move none
+            if (playNodes == 0) {
+                bookHits.incrementAndGet();
+            }
+            nodes.addAndGet(playNodes);
+            leaves.addAndGet(playLeaves);
+            solitudes.addAndGet(playSolitudes);
+            playNodes = playLeaves = playSolitudes = 0;
+        }
+    }
+
+    void recurse(int[] board, int[] dice, int dieIndex, Move move) {
+        playNodes++;
+        super.recurse(board, dice, dieIndex, move);
+    }
+
+    void maybeEnterMove(int[] board, Move move) {
+        // every move entered is evaluated by pubeval
+        playLeaves++;
+        if (move.isSolitude()) {
+            playSolitudes++;
+        }
+        super.maybeEnterMove(board, move);
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Measure the cost of metering: play the same turns with a plain
+ * game and Gerry and with metered ones, then print the metrics
+ * snapshot. Run with run-benchmark MetricsBenchmark.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MetricsBenchmark {
+    private static final int TURNS = 200000;
+
+    public static void main(String[] args) {
+        MetricsRegistry registry = new MetricsRegistry();
+        for (int warmup = 0; warmup < 5; warmup++) {
+            Game plain = new GameImpl();
+            long plainNanos = play(plain, new GerryAdapter(plain, new Gerry()));
+            Game metered = new MeteredGame(new GameImpl(), registry);
+            long meteredNanos = play(metered, new GerryAdapter(metered, new MeteredGerry(registry)));
+            System.out.printf("plain: %.0f ns/turn, metered: %.0f ns/turn (%+.1f%%)%n",
+                    (double) plainNanos / TURNS, (double) meteredNanos / TURNS,
+                    100.0 * (meteredNanos - plainNanos) / plainNanos);
+        }
+        System.out.print(registry.toText());
+    }
+
+    private static long play(Game game, GerryAdapter gerry) {
+        long start = System.nanoTime();
+        for (int t = 0; t < TURNS; t++) {
+            if (game.winner() != Color.NONE) game.newGame();
+            game.nextTurn();
+            if (game.getPlayerInTurn() == Color.BLACK) gerry.playTurn();
+        }
+        return System.nanoTime() - start;
+    }
+}
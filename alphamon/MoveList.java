@@ -0,0 +1,101 @@
+/**
+ * The legal moves of a position and a roll, as listed by Gerry's
+ * move generator: one move for each different resulting board, and
+ * the one Gerry rates best, if it is legal. Moves are in Gerry's encoding, the
+ * player on roll playing black; see GerryAdapter.mirror for red.
+ * <p/>
+ * The moves are packed in a byte array, as lists are kept by the
+ * thousand in a MoveListCache; a Move is only made when asked for.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MoveList {
+    // the bytes of an object header, array length and reference
+    static final int OBJECT_BYTES = 16;
+
+    // for each move: the number of checkers moved, then from, to...
+    private final byte[] legs;
+    private final int[] offsets;
+    private final int best;
+
+    /**
+     * @param moves the legal moves
+     * @param best  the index of the best move, or -1 if none is known
+     */
+    public MoveList(java.util.List<Move> moves, int best) {
+        int size = 0;
+        for (Move move : moves) {
+            size += 1 + 2 * move.noOfMoves();
+        }
+        legs = new byte[size];
+        offsets = new int[moves.size()];
+        int at = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = moves.get(i);
+            offsets[i] = at;
+            legs[at++] = (byte) move.noOfMoves();
+            for (int c = 0; c < move.noOfMoves(); c++) {
+                legs[at++] = (byte) move.getFrom(c);
+                legs[at++] = (byte) move.getTo(c);
+            }
+        }
+        this.best = best;
+    }
+
+    /**
+     * return the number of legal moves; 0 if the player cannot move.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * return the number of checkers moved by a move.
+     */
+    public int getCheckers(int move) {
+        return legs[offsets[move]];
+    }
+
+    public int getFrom(int move, int checker) {
+        return legs[offsets[move] + 1 + 2 * checker];
+    }
+
+    public int getTo(int move, int checker) {
+        return legs[offsets[move] + 2 + 2 * checker];
+    }
+
+    public Move getMove(int move) {
+        Move result = new Move();
+        for (int c = 0; c < getCheckers(move); c++) {
+            result.add(getFrom(move, c), getTo(move, c));
+        }
+        return result;
+    }
+
+    /**
+     * return the index of the move Gerry rates best, or -1 if there
+     * are no moves or Gerry's choice is not among them.
+     */
+    public int getBestIndex() {
+        return best;
+    }
+
+    /**
+     * return the estimated bytes of memory the list takes.
+     */
+    public long getBytes() {
+        return 3 * OBJECT_BYTES + 8 + legs.length + 4 * offsets.length;
+    }
+}
@@ -0,0 +1,344 @@
+import java.util.*;
+
+/**
+ * A cache of the legal move lists of positions and rolls, shared by
+ * the threads of a server or a search, so a position that is seen
+ * again - asked for hints by several spectators, or reached by
+ * transposition - is not generated again.
+ * <p/>
+ * A position is keyed exactly by its 80 bit GNU Backgammon position
+ * key, see PositionId, and the roll. The key is seen from the player
+ * on roll, so a position of red and the same position of black with
+ * the colours swapped share an entry, and the lists are in Gerry's
+ * encoding, the player on roll playing black.
+ * <p/>
+ * The cache is striped: keys are spread over segments, each with its
+ * own lock and an equal share of the memory bound, so threads only
+ * contend when they use the same segment. A segment evicts its
+ * least recently used lists when its share is exceeded. Memory is
+ * accounted by estimates of the bytes of the keys, map entries and
+ * lists. Lists are generated outside the locks, so two threads
+ * missing the same key at once may both generate it.
+ * <p/>
+ * Gerry may choose a move using one die where a move using both is
+ * legal, as it rates single die moves alongside the others. Such a
+ * move is not listed, and the list then knows no best move even
+ * though it has legal moves; a client that should play as Gerry
+ * must search the position itself.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MoveListCache {
+    public static final int DEFAULT_SEGMENTS = 16;
+    // the bytes of a key and a map entry
+    private static final int ENTRY_BYTES = 2 * MoveList.OBJECT_BYTES + 16 + 40;
+
+    private final Segment[] segments;
+    private final int mask;
+
+    private final ThreadLocal<Lister> listers = new ThreadLocal<Lister>() {
+        protected Lister initialValue() {
+            return new Lister();
+        }
+    };
+
+    /**
+     * @param maxBytes the bound of the estimated memory of the cache
+     */
+    public MoveListCache(long maxBytes) {
+        this(maxBytes, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * @param maxBytes the bound of the estimated memory of the cache
+     * @param segments the number of segments, a power of two
+     */
+    public MoveListCache(long maxBytes, int segments) {
+        if (segments < 1 || Integer.bitCount(segments) != 1) {
+            throw new IllegalArgumentException("segments must be a power of two: " + segments);
+        }
+        this.segments = new Segment[segments];
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new Segment(maxBytes / segments);
+        }
+        mask = segments - 1;
+    }
+
+    /**
+     * return the legal moves of the player in turn of a game with the
+     * dice thrown.
+     */
+    public MoveList get(Game game) {
+        int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+        int[] dice = new int[2];
+        game.getBoard(board);
+        game.getDiceThrown(dice);
+        return get(board, game.getPlayerInTurn(), dice);
+    }
+
+    /**
+     * return the legal moves of a position and roll, from the cache
+     * or generated.
+     *
+     * @param board  the board in the layout of Game.getBoard
+     * @param onRoll the player on roll
+     * @param dice   the two die values
+     */
+    public MoveList get(int[] board, Color onRoll, int[] dice) {
+        Lister lister = listers.get();
+        Key key = lister.key(board, onRoll, dice);
+        // the high bits pick the segment, the low ones the bucket
+        Segment segment = segments[(int) (key.hash() >>> 48) & mask];
+        MoveList list = segment.get(key);
+        if (list == null) {
+            list = lister.list(board, onRoll, dice);
+            segment.put(key, list);
+        }
+        return list;
+    }
+
+    public long getHits() {
+        long sum = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                sum += s.hits;
+            }
+        }
+        return sum;
+    }
+
+    public long getMisses() {
+        long sum = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                sum += s.misses;
+            }
+        }
+        return sum;
+    }
+
+    public long getEvictions() {
+        long sum = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                sum += s.evictions;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * return the estimated bytes of memory of the cached lists.
+     */
+    public long getBytes() {
+        long sum = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                sum += s.bytes;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * return the number of cached lists.
+     */
+    public int size() {
+        int sum = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                sum += s.map.size();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The key of a position and roll: the 10 bytes of the position
+     * key and the roll, packed in a long and an int.
+     */
+    static final class Key {
+        final long high;
+        final int low;
+
+        Key(long high, int low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        long hash() {
+            long h = (high ^ (low * 0x9e3779b97f4a7c15L)) * 0xbf58476d1ce4e5b9L;
+            return h ^ (h >>> 31);
+        }
+
+        public int hashCode() {
+            return (int) hash();
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return high == other.high && low == other.low;
+        }
+    }
+
+    /**
+     * A segment: a map in least recently used order, bound in bytes.
+     */
+    private static final class Segment {
+        private final long maxBytes;
+        private final LinkedHashMap<Key, MoveList> map =
+                new LinkedHashMap<Key, MoveList>(64, 0.75f, true);
+        private long bytes, hits, misses, evictions;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized MoveList get(Key key) {
+            MoveList list = map.get(key);
+            if (list == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return list;
+        }
+
+        synchronized void put(Key key, MoveList list) {
+            MoveList old = map.put(key, list);
+            if (old != null) {
+                bytes -= ENTRY_BYTES + old.getBytes();
+            }
+            bytes += ENTRY_BYTES + list.getBytes();
+            Iterator<Map.Entry<Key, MoveList>> eldest = map.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= ENTRY_BYTES + eldest.next().getValue().getBytes();
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * A Gerry that lists the moves it considers, one per thread.
+     */
+    private static final class Lister extends Gerry {
+        private final byte[] positionKey = new byte[PositionId.KEY_SIZE];
+        private final int[] gerryBoard = new int[Location.NUMBER_OF_LOCATIONS];
+        private final int[] after = new int[Location.NUMBER_OF_LOCATIONS];
+        private final List<Move> full = new ArrayList<Move>();
+        private final List<Move> solitude = new ArrayList<Move>();
+        // the index of the move to each resulting board, by board hash
+        private final Map<Long, Integer> boards = new HashMap<Long, Integer>();
+        private final List<Move> moves = new ArrayList<Move>();
+        private Move lastBest;
+        private long bestBoard;
+
+        Lister() {
+            super(null);
+        }
+
+        Key key(int[] board, Color onRoll, int[] dice) {
+            PositionId.positionKey(board, onRoll, positionKey);
+            long high = 0;
+            for (int i = 0; i < 8; i++) {
+                high = (high << 8) | (positionKey[i] & 0xff);
+            }
+            int roll = (Math.min(dice[0], dice[1]) - 1) * 6 + Math.max(dice[0], dice[1]) - 1;
+            int low = ((positionKey[8] & 0xff) << 16) | ((positionKey[9] & 0xff) << 8) | roll;
+            return new Key(high, low);
+        }
+
+        MoveList list(int[] board, Color onRoll, int[] dice) {
+            if (onRoll == Color.RED) {
+                for (int i = 0; i < gerryBoard.length; i++) {
+                    gerryBoard[GerryAdapter.mirror(i)] = -board[i];
+                }
+            } else {
+                System.arraycopy(board, 0, gerryBoard, 0, gerryBoard.length);
+            }
+            full.clear();
+            solitude.clear();
+            boards.clear();
+            moves.clear();
+            lastBest = null;
+            play(gerryBoard, dice);
+
+            // moves using a single die are only legal if no move uses
+            // both, and then only those using the highest die
+            List<Move> legal = full;
+            if (full.isEmpty()) {
+                int highest = 0;
+                for (Move move : solitude) {
+                    highest = Math.max(highest, calcDie(move.getFrom(0), move.getTo(0)));
+                }
+                legal = new ArrayList<Move>();
+                for (Move move : solitude) {
+                    if (calcDie(move.getFrom(0), move.getTo(0)) == highest) legal.add(move);
+                }
+            }
+            int best = -1;
+            for (Move move : legal) {
+                Long resulting = hashAfter(move);
+                if (!boards.containsKey(resulting)) {
+                    boards.put(resulting, moves.size());
+                    moves.add(move);
+                }
+            }
+            // unless Gerry chose a single die move where both dice could
+            // be used, and no legal move reaches the same board
+            if (lastBest != null && boards.containsKey(bestBoard)) {
+                best = boards.get(bestBoard);
+            }
+            return new MoveList(moves, best);
+        }
+
+        private long hashAfter(Move move) {
+            System.arraycopy(gerryBoard, 0, after, 0, after.length);
+            for (int c = 0; c < move.noOfMoves(); c++) {
+                makeMove(after, move.getFrom(c), move.getTo(c));
+            }
+            return hash(after);
+        }
+
+        /**
+         * return a 64 bit hash of a board; boards of the moves of one
+         * position and roll are told apart by it.
+         */
+        private static long hash(int[] board) {
+            long h = 0;
+            for (int i = 0; i < board.length; i++) {
+                h = (h + board[i] + 16) * 0x9e3779b97f4a7c15L;
+                h ^= h >>> 32;
+            }
+            return h;
+        }
+
+        void maybeEnterMove(int[] board, Move move) {
+            Move listed = move.getClone();
+            if (move.isSolitude()) {
+                solitude.add(listed);
+            } else {
+                full.add(listed);
+            }
+            super.maybeEnterMove(board, move);
+            if (bestmove != lastBest) {
+                lastBest = bestmove;
+                bestBoard = hash(board);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measure the move list cache serving hint requests: the positions
+ * of some games played by Gerry are recorded, and threads then ask
+ * for the moves of positions drawn at random from them, as
+ * spectators of those games would. Requests per second, hit rate,
+ * memory and evictions are printed for an uncached run (a cache of
+ * 0 bytes), a single segment, and 16 segments, with a cache holding
+ * all the positions and one holding a quarter of them. Run with
+ * run-benchmark MoveListCacheBenchmark [threads [games]].
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MoveListCacheBenchmark {
+    private static final int REQUESTS = 200000;
+
+    private static final List<int[]> boards = new ArrayList<int[]>();
+    private static final List<Color> players = new ArrayList<Color>();
+    private static final List<int[]> rolls = new ArrayList<int[]>();
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        record(games);
+        MoveListCache all = new MoveListCache(Long.MAX_VALUE);
+        for (int i = 0; i < boards.size(); i++) {
+            all.get(boards.get(i), players.get(i), rolls.get(i));
+        }
+        long bytes = all.getBytes();
+        System.out.printf("%d positions of %d games, %.1f MB of move lists, %d threads%n",
+                boards.size(), games, bytes / 1048576.0, threads);
+        for (int round = 0; round < 3; round++) {
+            run("uncached", threads, new MoveListCache(0));
+            run("1 segment", threads, new MoveListCache(2 * bytes, 1));
+            run("16 segments", threads, new MoveListCache(2 * bytes, 16));
+            run("16 segments, 1/4", threads, new MoveListCache(bytes / 4, 16));
+        }
+    }
+
+    private static void record(int games) {
+        final Agent gerry = new GerryAdapter(new Gerry(null));
+        Agent recorder = new Agent() {
+            public int playTurn(Game game) {
+                int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+                int[] dice = new int[2];
+                game.getBoard(board);
+                game.getDiceThrown(dice);
+                boards.add(board);
+                players.add(game.getPlayerInTurn());
+                rolls.add(dice);
+                return gerry.playTurn(game);
+            }
+        };
+        Simulation simulation = new Simulation(recorder, recorder, new MoveTable(new AlphaMonRules()));
+        for (int g = 0; g < games; g++) {
+            simulation.play(g);
+        }
+    }
+
+    private static void run(String name, int threads, final MoveListCache cache) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<Future<?>>();
+        final int requests = REQUESTS / threads;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            done.add(pool.submit(new Runnable() {
+                public void run() {
+                    for (int r = 0; r < requests; r++) {
+                        int i = random.nextInt(boards.size());
+                        cache.get(boards.get(i), players.get(i), rolls.get(i));
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<?> f : done) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-18s %9.0f requests/s  hit rate %.3f, %6d lists, %5.1f MB, %6d evictions%n",
+                name, threads * requests / seconds,
+                (double) cache.getHits() / (cache.getHits() + cache.getMisses()),
+                cache.size(), cache.getBytes() / 1048576.0, cache.getEvictions());
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * The move rules of a HotGammon variant, such as AlphaMon or
+ * BetaMon. The rules are only consulted when a MoveTable is compiled
+ * from them at startup; games validate moves by the table alone, so
+ * all variants share one fast, table-driven validator.
+ * <p/>
+ * Rules common to all variants are not part of the strategy: a
+ * checker moves in the direction of its colour, never from a
+ * bear-off location or to a bar, never to a location held by two or
+ * more opponent checkers, and hits a single opponent checker.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public interface MoveRules {
+    /**
+     * return true if a move must use a die of exactly its distance;
+     * when bearing off a higher die may be used if no checker of the
+     * player is farther from home. If false, a checker may move any
+     * distance, using the die of that value if there is one, and the
+     * largest die otherwise.
+     */
+    public boolean isExactDistance();
+
+    /**
+     * return true if a player with checkers on the bar must move
+     * those before any other checker.
+     */
+    public boolean isBarFirst();
+
+    /**
+     * return true if a player may only bear off when all his/her
+     * checkers are home, see isHome.
+     */
+    public boolean isBearOffFromHomeOnly();
+
+    /**
+     * return true if a location is in the home board of a player.
+     * The player's bear-off location counts as home.
+     */
+    public boolean isHome(Color player, Location location);
+}
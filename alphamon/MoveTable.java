@@ -0,0 +1,171 @@
+import java.util.concurrent.*;
+
+/**
+ * The move rules of a variant compiled into lookup tables. For each
+ * player it holds the distance of every move between two locations
+ * (0 if the move is never valid), the mask of home locations, and
+ * for each location the mask of locations farther from home. The
+ * board is represented by a mask of the locations a player
+ * occupies, so the rules are checked with a few array lookups and
+ * bit operations, whatever the variant.
+ * <p/>
+ * A table is immutable; compile it once and share it among games.
+ * forRules compiles the table of a variant given by the class name
+ * of its rules once per JVM, for games restored from a journal or a
+ * log that names their variant.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public final class MoveTable {
+    private static final int N = Location.NUMBER_OF_LOCATIONS;
+    private static final int B_BAR = Location.B_BAR.getIndex();
+    private static final int R_BAR = Location.R_BAR.getIndex();
+    private static final int B_BEAR_OFF = Location.B_BEAR_OFF.getIndex();
+    private static final int R_BEAR_OFF = Location.R_BEAR_OFF.getIndex();
+
+    private static final ConcurrentMap<String, MoveTable> BY_RULES =
+            new ConcurrentHashMap<String, MoveTable>();
+
+    private final MoveRules rules;
+    private final boolean exactDistance;
+    private final boolean barFirst;
+    // by player (black 0, red 1) and from * N + to
+    private final int[][] distance = new int[2][N * N];
+    private final int[] homeMask = new int[2];
+    private final int[][] behindMask = new int[2][N];
+    private final int[] barMask = {1 << B_BAR, 1 << R_BAR};
+    private final int[] bearOffIndex = {B_BEAR_OFF, R_BEAR_OFF};
+
+    public MoveTable(MoveRules rules) {
+        this.rules = rules;
+        exactDistance = rules.isExactDistance();
+        barFirst = rules.isBarFirst();
+        Color[] players = {Color.BLACK, Color.RED};
+        for (int p = 0; p < 2; p++) {
+            Color player = players[p];
+            for (int f = 0; f < N; f++) {
+                for (int t = 0; t < N; t++) {
+                    int d = Location.distance(f, t) * player.getSign();
+                    boolean valid = d > 0 && f != B_BEAR_OFF && f != R_BEAR_OFF
+                            && t != B_BAR && t != R_BAR;
+                    distance[p][f * N + t] = valid ? d : 0;
+                }
+                if (!rules.isBearOffFromHomeOnly()
+                        || rules.isHome(player, Location.getLocationFromIndex(f))) {
+                    homeMask[p] |= 1 << f;
+                }
+            }
+            // the locations a checker of the player passes before f
+            for (int f = 0; f < N; f++) {
+                for (int b = 0; b < N; b++) {
+                    if (b != f && distance[p][b * N + f] > 0) {
+                        behindMask[p][f] |= 1 << b;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * return the table of the rules of a variant, compiled the first
+     * time it is asked for.
+     *
+     * @param rulesName the class name of the MoveRules of the variant,
+     *                  which must have a public no-argument constructor
+     * @throws IllegalArgumentException if there are no such rules; a
+     *                                  class that is not MoveRules is
+     *                                  neither initialized nor created
+     */
+    public static MoveTable forRules(String rulesName) {
+        MoveTable table = BY_RULES.get(rulesName);
+        if (table == null) {
+            Class<?> c;
+            try {
+                c = Class.forName(rulesName, false, MoveTable.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("No move rules named " + rulesName, e);
+            }
+            if (!MoveRules.class.isAssignableFrom(c)) {
+                throw new IllegalArgumentException(rulesName + " are not move rules");
+            }
+            MoveRules rules;
+            try {
+                rules = (MoveRules) c.getConstructor().newInstance();
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Cannot create move rules " + rulesName, e);
+            }
+            table = new MoveTable(rules);
+            MoveTable other = BY_RULES.putIfAbsent(rulesName, table);
+            if (other != null) table = other;
+        }
+        return table;
+    }
+
+    /**
+     * return the class name of the rules this table was compiled
+     * from, as accepted by forRules.
+     */
+    public String getRulesName() {
+        return rules.getClass().getName();
+    }
+
+    /**
+     * return the distance of a move of one of the player's checkers,
+     * or 0 if the move is never valid.
+     */
+    public int getDistance(Color player, int from, int to) {
+        return distance[player == Color.BLACK ? 0 : 1][from * N + to];
+    }
+
+    /**
+     * select the die to use for a move, given the board as the mask
+     * of the locations the player occupies (bit i set if location
+     * index i holds one of the player's checkers). Whether the
+     * destination is held by the opponent is not checked here.
+     *
+     * @param player           the player in turn, black or red
+     * @param from             the index of the location moved from
+     * @param to               the index of the location moved to
+     * @param occupied         the mask of the player's locations
+     * @param diceLeft         the unused die values, largest first
+     * @param numberOfDiceLeft the number of unused die values
+     * @return the index in diceLeft of the die to use, or -1 if the
+     *         move is not valid
+     */
+    public int selectDie(Color player, int from, int to, int occupied,
+                         int[] diceLeft, int numberOfDiceLeft) {
+        int p = player == Color.BLACK ? 0 : 1;
+        int d = distance[p][from * N + to];
+        if (d == 0 || numberOfDiceLeft == 0) return -1;
+        if (barFirst && (occupied & barMask[p]) != 0 && (1 << from) != barMask[p]) return -1;
+        boolean bearOff = to == bearOffIndex[p];
+        if (bearOff && (occupied & ~homeMask[p]) != 0) return -1;
+
+        for (int i = 0; i < numberOfDiceLeft; i++) {
+            if (diceLeft[i] == d) return i;
+        }
+        if (!exactDistance) {
+            // the largest die
+            return 0;
+        }
+        if (bearOff && diceLeft[0] > d && (occupied & behindMask[p][from]) == 0) {
+            // the smallest die larger than needed
+            int i = numberOfDiceLeft - 1;
+            while (diceLeft[i] < d) i--;
+            return i;
+        }
+        return -1;
+    }
+}
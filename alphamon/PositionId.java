@@ -0,0 +1,179 @@
+/**
+ * The position ID used by GNU Backgammon, for exchanging positions
+ * with other backgammon software. The ID encodes the checkers on the
+ * points and on the bar of both players in 80 bits (the checkers
+ * borne off are those missing from 15), which are written as 14
+ * base64 characters, e.g. "4HPwATDgc/ABMA" for the starting position.
+ * <p/>
+ * The key is seen from the player on roll: for each player, first
+ * the one NOT on roll, the points are visited from that player's
+ * own 1-point to 24-point and then the bar, writing as many 1 bits
+ * as there are checkers followed by a 0 bit; bits fill each byte
+ * from the least significant end. If no player is in turn, black
+ * is taken as the player on roll.
+ * <p/>
+ * The key methods work on caller-supplied arrays and do not
+ * allocate; only the String methods do.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class PositionId {
+    /**
+     * the number of bytes of a position key
+     */
+    public static final int KEY_SIZE = 10;
+
+    private static final String BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    private static final int BLACK_BAR = Location.B_BAR.getIndex();
+    private static final int RED_BAR = Location.R_BAR.getIndex();
+    private static final int BLACK_OFF = Location.B_BEAR_OFF.getIndex();
+    private static final int RED_OFF = Location.R_BEAR_OFF.getIndex();
+
+    /**
+     * return the board index of a player's point. Black's 1-point
+     * is B1 while red's is R1; point 25 is the bar.
+     */
+    private static int indexOf(Color player, int point) {
+        if (player == Color.RED) {
+            return point == 25 ? RED_BAR : point;
+        }
+        return point == 25 ? BLACK_BAR : 25 - point;
+    }
+
+    /**
+     * compute the position key of a board.
+     *
+     * @param board  the board in the layout of Game.getBoard
+     * @param onRoll the player on roll
+     * @param key    the array to fill, KEY_SIZE bytes
+     */
+    public static void positionKey(int[] board, Color onRoll, byte[] key) {
+        for (int i = 0; i < KEY_SIZE; i++) {
+            key[i] = 0;
+        }
+        Color roller = onRoll == Color.RED ? Color.RED : Color.BLACK;
+        Color opponent = roller == Color.RED ? Color.BLACK : Color.RED;
+        int bit = 0;
+        bit = addPlayer(board, opponent, key, bit);
+        addPlayer(board, roller, key, bit);
+    }
+
+    private static int addPlayer(int[] board, Color player, byte[] key, int bit) {
+        int sign = player.getSign();
+        for (int point = 1; point <= 25; point++) {
+            int count = board[indexOf(player, point)] * sign;
+            for (int c = 0; c < count; c++, bit++) {
+                key[bit >> 3] |= 1 << (bit & 7);
+            }
+            // the terminating 0 bit
+            bit++;
+        }
+        return bit;
+    }
+
+    /**
+     * fill in a board from a position key; the checkers not on the
+     * board are put on the bear off locations.
+     *
+     * @param key    the key, KEY_SIZE bytes
+     * @param onRoll the player on roll when the key was made
+     * @param board  the array to fill in, in the layout of Game.getBoard
+     */
+    public static void boardFromKey(byte[] key, Color onRoll, int[] board) {
+        for (int i = 0; i < board.length; i++) {
+            board[i] = 0;
+        }
+        Color roller = onRoll == Color.RED ? Color.RED : Color.BLACK;
+        Color opponent = roller == Color.RED ? Color.BLACK : Color.RED;
+        int bit = 0;
+        bit = readPlayer(key, opponent, board, bit);
+        readPlayer(key, roller, board, bit);
+        board[BLACK_OFF] = 15;
+        board[RED_OFF] = -15;
+        for (int i = 0; i <= RED_BAR; i++) {
+            if (board[i] > 0) board[BLACK_OFF] -= board[i];
+            if (board[i] < 0) board[RED_OFF] -= board[i];
+        }
+    }
+
+    private static int readPlayer(byte[] key, Color player, int[] board, int bit) {
+        int sign = player.getSign();
+        for (int point = 1; point <= 25; point++) {
+            int count = 0;
+            while ((key[bit >> 3] & (1 << (bit & 7))) != 0) {
+                count++;
+                bit++;
+            }
+            bit++;
+            board[indexOf(player, point)] += sign * count;
+        }
+        return bit;
+    }
+
+    /**
+     * return the GNU Backgammon position ID of a board.
+     *
+     * @param board  the board in the layout of Game.getBoard
+     * @param onRoll the player on roll
+     * @return the 14 character position ID
+     */
+    public static String positionId(int[] board, Color onRoll) {
+        byte[] key = new byte[KEY_SIZE];
+        positionKey(board, onRoll, key);
+        char[] id = new char[14];
+        int bits = 0, value = 0, c = 0;
+        for (int i = 0; i < KEY_SIZE; i++) {
+            value = (value << 8) | (key[i] & 0xff);
+            bits += 8;
+            while (bits >= 6) {
+                bits -= 6;
+                id[c++] = BASE64.charAt((value >> bits) & 63);
+            }
+        }
+        // the remaining 2 bits, padded with zeros
+        id[c] = BASE64.charAt((value << (6 - bits)) & 63);
+        return new String(id);
+    }
+
+    /**
+     * fill in a board from a GNU Backgammon position ID.
+     *
+     * @param id     the 14 character position ID
+     * @param onRoll the player on roll
+     * @param board  the array to fill in, in the layout of Game.getBoard
+     */
+    public static void boardFromPositionId(String id, Color onRoll, int[] board) {
+        if (id.length() != 14) {
+            throw new IllegalArgumentException("Not a position ID: " + id);
+        }
+        byte[] key = new byte[KEY_SIZE];
+        int bits = 0, value = 0, k = 0;
+        for (int i = 0; i < 14; i++) {
+            int sextet = BASE64.indexOf(id.charAt(i));
+            if (sextet < 0) {
+                throw new IllegalArgumentException("Not a position ID: " + id);
+            }
+            value = (value << 6) | sextet;
+            bits += 6;
+            if (bits >= 8 && k < KEY_SIZE) {
+                bits -= 8;
+                key[k++] = (byte) (value >> bits);
+            }
+        }
+        boardFromKey(key, onRoll, board);
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * An agent that plays random valid moves: it tries the checkers of
+ * the player in a random order with each die left, until it has
+ * made all its moves or no checker can move.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class RandomAgent implements Agent {
+    private final java.util.Random random;
+    private final int[] values = new int[4];
+
+    public RandomAgent(long seed) {
+        random = new java.util.Random(seed);
+    }
+
+    public int playTurn(Game game) {
+        Color player = game.getPlayerInTurn();
+        int made = 0;
+        while (game.getNumberOfMovesLeft() > 0 && moveSomeChecker(game, player)) {
+            made++;
+        }
+        return made;
+    }
+
+    private boolean moveSomeChecker(Game game, Color player) {
+        int n = game.getDiceValuesLeft(values);
+        // checkers are never moved from the bear-off locations
+        int locations = Location.R_BAR.getIndex() + 1;
+        int start = random.nextInt(locations);
+        for (int k = 0; k < locations; k++) {
+            int from = (start + k) % locations;
+            if (game.getColor(from) != player) continue;
+            for (int j = 0; j < n; j++) {
+                if (game.move(from, Location.findLocationIndex(player, from, values[j]))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
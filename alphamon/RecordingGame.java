@@ -0,0 +1,128 @@
+import java.io.IOException;
+
+/**
+ * A decorator that records the game played through it in a match
+ * log: new games, the dice of every turn, and every valid move.
+ * The decorated game must be at the start of a game when the
+ * decorator is created, as that is recorded as a new game.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class RecordingGame implements Game {
+    private final Game game;
+    private final MatchLogWriter log;
+    private final int[] dice = new int[2];
+
+    public RecordingGame(Game game, MatchLogWriter log) throws IOException {
+        this.game = game;
+        this.log = log;
+        log.newGame();
+    }
+
+    // == mutators are recorded
+
+    public void newGame() {
+        game.newGame();
+        try {
+            log.newGame();
+        } catch (IOException e) {
+            throw new IllegalStateException("Match log failed", e);
+        }
+    }
+
+    public void nextTurn() {
+        game.nextTurn();
+        game.getDiceThrown(dice);
+        log.turn(dice[0], dice[1]);
+    }
+
+    public boolean move(Location from, Location to) {
+        return move(from.getIndex(), to.getIndex());
+    }
+
+    public boolean move(int from, int to) {
+        boolean valid = game.move(from, to);
+        if (valid) {
+            log.move(from, to);
+        }
+        return valid;
+    }
+
+    // == accessors are simply delegated
+
+    public Color getPlayerInTurn() {
+        return game.getPlayerInTurn();
+    }
+
+    public int getNumberOfMovesLeft() {
+        return game.getNumberOfMovesLeft();
+    }
+
+    public int[] diceThrown() {
+        return game.diceThrown();
+    }
+
+    public int[] diceValuesLeft() {
+        return game.diceValuesLeft();
+    }
+
+    public Color winner() {
+        return game.winner();
+    }
+
+    public Color getColor(Location location) {
+        return game.getColor(location);
+    }
+
+    public int getCount(Location location) {
+        return game.getCount(location);
+    }
+
+    public void getBoard(int[] board) {
+        game.getBoard(board);
+    }
+
+    public void getDiceThrown(int[] dice) {
+        game.getDiceThrown(dice);
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        return game.getDiceValuesLeft(values);
+    }
+
+    public Color getColor(int index) {
+        return game.getColor(index);
+    }
+
+    public int getCount(int index) {
+        return game.getCount(index);
+    }
+
+    public long getPositionHash() {
+        return game.getPositionHash();
+    }
+
+    public int getPipCount(Color player) {
+        return game.getPipCount(player);
+    }
+
+    public int getBorneOff(Color player) {
+        return game.getBorneOff(player);
+    }
+
+    public boolean isRace() {
+        return game.isRace();
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Dice that roll what they are told: the dice of a logged game, so
+ * the game can be replayed whatever dice the logged game had. Tell
+ * the dice with setNext before each nextTurn of the game.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class ReplayDiceRoller implements DiceRoller {
+    private int die1, die2;
+
+    /**
+     * set the dice of the next roll.
+     */
+    public void setNext(int die1, int die2) {
+        this.die1 = die1;
+        this.die2 = die2;
+    }
+
+    public void roll(int roll, int[] dice) {
+        dice[0] = die1;
+        dice[1] = die2;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Random dice given by a seed: the dice of each roll are a hash of
+ * the seed and the number of the roll, so two games with the same
+ * seed get the same dice, whatever the players do.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class SeededDiceRoller implements DiceRoller {
+    private final long seed;
+
+    public SeededDiceRoller(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * return the seed of these dice.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void roll(int roll, int[] dice) {
+        long h = mix(seed + (roll + 1) * 0x9e3779b97f4a7c15L);
+        dice[0] = 1 + (int) ((h >>> 32) % 6);
+        dice[1] = 1 + (int) ((h & 0xffffffffL) % 6);
+    }
+
+    /**
+     * the SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,121 @@
+import java.io.*;
+
+/**
+ * The headless simulation runtime: play a number of games between
+ * two agents and write the result of each game as CSV. Only the
+ * game, its rules and the agents are loaded; no AWT or Swing class
+ * is touched, so a worker starts fast, see StartupBenchmark.
+ * <p/>
+ * Usage: Simulation games black red [seed [variant [results.csv]]]
+ * where black and red are gerry or random, the variant is alphamon
+ * or betamon, and game i uses the dice seeded by seed + i.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class Simulation {
+    /** games not won after this many turns are given up */
+    public static final int MAX_TURNS = 10000;
+
+    private final Agent black;
+    private final Agent red;
+    private final MoveTable rules;
+
+    public Simulation(Agent black, Agent red, MoveTable rules) {
+        this.black = black;
+        this.red = red;
+        this.rules = rules;
+    }
+
+    /**
+     * play a game to the end.
+     *
+     * @param seed the seed of the dice of the game
+     * @return the game, won unless it took more than MAX_TURNS turns
+     */
+    public Game play(long seed) {
+        Game game = new GameImpl(rules, new SeededDiceRoller(seed));
+        play(game, black, red);
+        return game;
+    }
+
+    /**
+     * play a game to the end, or until MAX_TURNS turns are played.
+     */
+    public static void play(Game game, Agent black, Agent red) {
+        for (int turn = 0; turn < MAX_TURNS && game.winner() == Color.NONE; turn++) {
+            game.nextTurn();
+            Color player = game.getPlayerInTurn();
+            if (player == Color.BLACK) {
+                black.playTurn(game);
+            } else if (player == Color.RED) {
+                red.playTurn(game);
+            }
+        }
+    }
+
+    static Agent agent(String name, long seed) {
+        if (name.equals("gerry")) return new GerryAdapter(new Gerry());
+        if (name.equals("random")) return new RandomAgent(seed);
+        throw new IllegalArgumentException("Unknown agent " + name);
+    }
+
+    static MoveTable variant(String name) {
+        if (name.equals("alphamon")) return new MoveTable(new AlphaMonRules());
+        if (name.equals("betamon")) return new MoveTable(new BetaMonRules());
+        throw new IllegalArgumentException("Unknown variant " + name);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: Simulation games black red [seed [variant [results.csv]]]");
+            return;
+        }
+        int games = Integer.parseInt(args[0]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        MoveTable rules = variant(args.length > 4 ? args[4] : "alphamon");
+        Simulation simulation = new Simulation(agent(args[1], seed), agent(args[2], ~seed), rules);
+        PrintWriter results = args.length > 5
+                ? new PrintWriter(new BufferedWriter(new FileWriter(args[5]))) : null;
+        if (results != null) {
+            results.println("game,winner,blackPips,redPips,blackOff,redOff");
+        }
+
+        long start = System.nanoTime();
+        int[] wins = new int[3];
+        for (int i = 0; i < games; i++) {
+            Game game = simulation.play(seed + i);
+            Color winner = game.winner();
+            wins[winner.ordinal()]++;
+            if (results != null) {
+                results.println(new StringBuilder().append(i).append(',').append(winner)
+                        .append(',').append(game.getPipCount(Color.BLACK))
+                        .append(',').append(game.getPipCount(Color.RED))
+                        .append(',').append(game.getBorneOff(Color.BLACK))
+                        .append(',').append(game.getBorneOff(Color.RED)));
+            }
+        }
+        if (results != null) {
+            results.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // string concatenation would bootstrap invokedynamic, which
+        // costs more than the rest of the startup
+        System.out.println(new StringBuilder().append(games).append(" games: black ")
+                .append(args[1]).append(" won ").append(wins[Color.BLACK.ordinal()])
+                .append(", red ").append(args[2]).append(" won ").append(wins[Color.RED.ordinal()])
+                .append(", unfinished ").append(wins[Color.NONE.ordinal()])
+                .append("; ").append(Math.round(games / seconds)).append(" games/s"));
+    }
+}
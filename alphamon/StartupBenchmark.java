@@ -0,0 +1,95 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Measure the startup of the headless simulation runtime: the wall
+ * time from process start to exit of a JVM that plays no game, of
+ * one that plays a single game of Gerry against Gerry, and of one
+ * that runs an empty main method, as the baseline. It fails if an
+ * AWT or Swing class is loaded, or if the median start of a worker,
+ * the run that plays no game, takes BUDGET_MILLIS or more. Run with
+ * run-benchmark StartupBenchmark.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class StartupBenchmark {
+    private static final int RUNS = 20;
+    /** the budget of the median start to exit of a worker playing no game */
+    public static final long BUDGET_MILLIS = 100;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            // the baseline
+            return;
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classpath = System.getProperty("java.class.path");
+
+        List<String> loaded = run(java, "-verbose:class", "-cp", classpath,
+                "Simulation", "1", "gerry", "gerry");
+        int classes = 0;
+        for (String line : loaded) {
+            if (!line.contains("[class,load]")) continue;
+            classes++;
+            if (line.contains(" java.awt.") || line.contains(" javax.swing.")
+                    || line.contains(" sun.awt.")) {
+                throw new IllegalStateException("Headless runtime loads " + line);
+            }
+        }
+        System.out.println("Classes loaded: " + classes + ", none from AWT or Swing");
+
+        measure("empty JVM", java, "-cp", classpath, "StartupBenchmark", "empty");
+        long start = measure("no game", java, "-cp", classpath, "Simulation", "0", "gerry", "gerry");
+        measure("one game", java, "-cp", classpath, "Simulation", "1", "gerry", "gerry");
+        if (start >= BUDGET_MILLIS) {
+            throw new IllegalStateException("Median start " + start + " ms is over the budget of "
+                    + BUDGET_MILLIS + " ms");
+        }
+        System.out.println("Median start " + start + " ms, within the budget of "
+                + BUDGET_MILLIS + " ms");
+    }
+
+    /**
+     * run a command RUNS times and print the times from start to exit.
+     *
+     * @return the median time in milliseconds
+     */
+    private static long measure(String name, String... command) throws Exception {
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            run(command);
+            millis[i] = (System.nanoTime() - start) / 1000000;
+        }
+        Arrays.sort(millis);
+        System.out.println(name + ", start to exit: min " + millis[0] + " ms, median "
+                + millis[RUNS / 2] + " ms, max " + millis[RUNS - 1] + " ms");
+        return millis[RUNS / 2];
+    }
+
+    private static List<String> run(String... command) throws Exception {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<String> lines = new ArrayList<String>();
+        BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        String line;
+        while ((line = in.readLine()) != null) {
+            lines.add(line);
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Simulation failed: " + lines);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * A match log handler that replays the games in a GameImpl of the
+ * rules of the log, rolling the logged dice, and gathers their
+ * MatchStatistics. Call finish after the replay, to count the last
+ * game.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class StatisticsCollector implements MatchLogReader.Handler {
+    private static final int B_BAR = Location.B_BAR.getIndex();
+    private static final int R_BAR = Location.R_BAR.getIndex();
+    private static final int B_BEAR_OFF = Location.B_BEAR_OFF.getIndex();
+    private static final int R_BEAR_OFF = Location.R_BEAR_OFF.getIndex();
+
+    private final MatchStatistics statistics;
+    private final ReplayDiceRoller replayed = new ReplayDiceRoller();
+    private final GameImpl game;
+    private final int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+    private final int[] dice = new int[2];
+
+    private boolean inGame;
+    private boolean inTurn;
+    private int turn;
+    private int opening;
+
+    /**
+     * @param statistics the statistics to add the games to
+     * @param rules      the rules of the log, see MatchLogReader.getRules
+     */
+    public StatisticsCollector(MatchStatistics statistics, MoveTable rules) {
+        this.statistics = statistics;
+        game = new GameImpl(rules, replayed);
+    }
+
+    public void newGame() {
+        finish();
+        game.newGame();
+        statistics.games++;
+        inGame = true;
+        turn = 0;
+        opening = -1;
+    }
+
+    public void turn(int die1, int die2) {
+        endTurn();
+        replayed.setNext(die1, die2);
+        game.nextTurn();
+        if (game.getPlayerInTurn() == Color.NONE) {
+            // still deciding who starts
+            return;
+        }
+        if (opening < 0) {
+            game.getDiceThrown(dice);
+            opening = (dice[0] - 1) * 6 + dice[1] - 1;
+        }
+        if (turn < MatchStatistics.MAX_TURNS) {
+            game.getBoard(board);
+            int black = 25 * board[B_BAR], red = -25 * board[R_BAR];
+            for (int i = 1; i <= 24; i++) {
+                if (board[i] > 0) black += board[i] * (25 - i);
+                else red -= board[i] * i;
+            }
+            statistics.pipSum[2 * turn] += black;
+            statistics.pipSum[2 * turn + 1] += red;
+            statistics.pipSamples[turn]++;
+        }
+        turn++;
+        inTurn = true;
+    }
+
+    public void move(int from, int to) {
+        int opponentBar = game.getPlayerInTurn() == Color.BLACK ? R_BAR : B_BAR;
+        int before = game.getCount(opponentBar);
+        if (!game.move(from, to)) {
+            throw new IllegalStateException("Invalid move in log: " + from + " to " + to);
+        }
+        if (game.getCount(opponentBar) > before) {
+            statistics.hits[to]++;
+        }
+        statistics.moves++;
+    }
+
+    private void endTurn() {
+        if (inTurn) {
+            statistics.movesLeft += game.getNumberOfMovesLeft();
+            statistics.turns++;
+            inTurn = false;
+        }
+    }
+
+    /**
+     * count the game being replayed.
+     */
+    public void finish() {
+        endTurn();
+        if (inGame && opening >= 0 && game.winner() != Color.NONE) {
+            statistics.finishedGames[opening]++;
+            int loserBorneOff = game.winner() == Color.BLACK
+                    ? game.getCount(R_BEAR_OFF) : game.getCount(B_BEAR_OFF);
+            if (loserBorneOff == 0) {
+                statistics.gammons[opening]++;
+            }
+        }
+        inGame = false;
+    }
+}
@@ -39,4 +39,69 @@ public class TestAlphamon {
         game.nextTurn(); // will throw [1,2] and thus black starts
         assertEquals(Color.BLACK, game.getPlayerInTurn());
     }
+
+    @Test
+    public void shouldFillBoardInGerryLayout() {
+        game.newGame();
+        int[] board = new int[28];
+        game.getBoard(board);
+        assertEquals(2, board[Location.R1.getIndex()]);
+        assertEquals(-5, board[Location.R6.getIndex()]);
+        assertEquals(5, board[Location.B6.getIndex()]);
+        assertEquals(-2, board[Location.B1.getIndex()]);
+        for (Location l : Location.values()) {
+            assertEquals(game.getCount(l) * game.getColor(l).getSign(),
+                    board[l.getIndex()]);
+        }
+    }
+
+    @Test
+    public void shouldFillDiceBuffers() {
+        game.newGame();
+        game.nextTurn();
+        int[] dice = new int[2];
+        game.getDiceThrown(dice);
+        assertArrayEquals(game.diceThrown(), dice);
+
+        int[] left = new int[4];
+        assertEquals(2, game.getDiceValuesLeft(left));
+        assertEquals(2, left[0]);
+        assertEquals(1, left[1]);
+    }
+
+    @Test
+    public void shouldReflectMovesInBoard() {
+        game.newGame();
+        game.nextTurn(); // black, [1,2]
+        assertTrue(game.move(Location.R1, Location.R2));
+        int[] board = new int[28];
+        game.getBoard(board);
+        assertEquals(1, board[Location.R1.getIndex()]);
+        assertEquals(1, board[Location.R2.getIndex()]);
+        int[] left = new int[4];
+        assertEquals(1, game.getDiceValuesLeft(left));
+        assertEquals(2, left[0]);
+    }
+
+    @Test
+    public void shouldAcceptIndicesForMovesAndBoard() {
+        game.newGame();
+        game.nextTurn(); // black, [1,2]
+        assertEquals(Color.BLACK, game.getColor(Location.R1.getIndex()));
+        assertEquals(2, game.getCount(Location.R1.getIndex()));
+        assertTrue(game.move(Location.R1.getIndex(), Location.R3.getIndex()));
+        assertEquals(1, game.getCount(Location.R3));
+        assertEquals(Color.NONE, game.getColor(Location.R2.getIndex()));
+        // red's point is blocked
+        assertFalse(game.move(Location.R1.getIndex(), Location.R6.getIndex()));
+    }
+
+    @Test
+    public void shouldLetGerryPlayBlack() {
+        game.newGame();
+        game.nextTurn(); // black, [1,2]
+        GerryAdapter gerry = new GerryAdapter(game);
+        assertEquals(2, gerry.playTurn());
+        assertEquals(0, game.getNumberOfMovesLeft());
+    }
 }
\ No newline at end of file
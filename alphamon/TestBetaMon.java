@@ -0,0 +1,114 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the BetaMon variant: GameImpl with a MoveTable compiled
+ * from the standard backgammon move rules.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestBetaMon {
+    private static final MoveTable BETAMON = new MoveTable(new BetaMonRules());
+    private Game game;
+
+    @Before
+    public void setup() {
+        game = new GameImpl(BETAMON);
+    }
+
+    /**
+     * create a game in a given position, black to move; red's 15
+     * checkers are on R6.
+     */
+    private Game blackToMove(int die1, int die2, Object... blackCheckers) {
+        GameState state = new GameState();
+        state.board[Location.R6.getIndex()] = -15;
+        for (int i = 0; i < blackCheckers.length; i += 2) {
+            state.board[((Location) blackCheckers[i]).getIndex()] += (Integer) blackCheckers[i + 1];
+        }
+        state.playerInTurn = Color.BLACK;
+        state.dice[0] = die1;
+        state.dice[1] = die2;
+        state.diceLeft[0] = Math.max(die1, die2);
+        state.diceLeft[1] = Math.min(die1, die2);
+        state.numberOfDiceLeft = state.movesLeft = 2;
+        GameImpl game = new GameImpl(BETAMON);
+        game.restore(state);
+        return game;
+    }
+
+    @Test
+    public void shouldOnlyMoveExactDieValues() {
+        game.nextTurn();
+        assertEquals(Color.BLACK, game.getPlayerInTurn());
+        assertFalse(game.move(Location.B6, Location.B3));
+        assertTrue(game.move(Location.B6, Location.B5));
+        assertFalse(game.move(Location.R1, Location.R2));
+        assertTrue(game.move(Location.R1, Location.R3));
+        assertEquals(0, game.getNumberOfMovesLeft());
+    }
+
+    @Test
+    public void shouldEnterFromBarFirst() {
+        game = blackToMove(3, 4, Location.B_BAR, 1, Location.B6, 14);
+        assertFalse(game.move(Location.B6, Location.B2));
+        assertTrue(game.move(Location.B_BAR, Location.R3));
+        assertTrue(game.move(Location.B6, Location.B2));
+    }
+
+    @Test
+    public void shouldOnlyBearOffWhenAllHome() {
+        game = blackToMove(4, 3, Location.B7, 1, Location.B3, 14);
+        assertFalse(game.move(Location.B3, Location.B_BEAR_OFF));
+        assertTrue(game.move(Location.B7, Location.B3));
+        assertTrue(game.move(Location.B3, Location.B_BEAR_OFF));
+        assertEquals(1, game.getBorneOff(Color.BLACK));
+    }
+
+    @Test
+    public void shouldBearOffWithHigherDieWhenNothingBehind() {
+        game = blackToMove(6, 5, Location.B2, 2, Location.B1, 13);
+        assertTrue(game.move(Location.B2, Location.B_BEAR_OFF));
+        // the 5 was used, being the smallest die high enough
+        assertArrayEquals(new int[]{6}, game.diceValuesLeft());
+        assertTrue(game.move(Location.B2, Location.B_BEAR_OFF));
+    }
+
+    @Test
+    public void shouldNotBearOffWithHigherDieWhenCheckerBehind() {
+        game = blackToMove(6, 5, Location.B3, 1, Location.B2, 14);
+        assertFalse(game.move(Location.B2, Location.B_BEAR_OFF));
+        assertTrue(game.move(Location.B3, Location.B_BEAR_OFF));
+    }
+
+    @Test
+    public void shouldCompileAlphaMonToTheSimpleRules() {
+        MoveTable alphamon = new MoveTable(new AlphaMonRules());
+        int[] dice = {2, 1};
+        int occupied = 1 << Location.B_BAR.getIndex();
+        // any distance, with the largest die
+        assertEquals(0, alphamon.selectDie(Color.BLACK, Location.B6.getIndex(),
+                Location.B2.getIndex(), occupied, dice, 2));
+        assertEquals(1, alphamon.selectDie(Color.BLACK, Location.B6.getIndex(),
+                Location.B5.getIndex(), occupied, dice, 2));
+        assertEquals(-1, alphamon.selectDie(Color.BLACK, Location.B6.getIndex(),
+                Location.B8.getIndex(), occupied, dice, 2));
+        assertEquals(-1, alphamon.selectDie(Color.RED, Location.R6.getIndex(),
+                Location.R_BAR.getIndex(), occupied, dice, 2));
+        assertEquals(4, alphamon.getDistance(Color.RED, Location.R6.getIndex(),
+                Location.R2.getIndex()));
+    }
+}
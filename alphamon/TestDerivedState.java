@@ -0,0 +1,124 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+/**
+ * Testing the position hash, pip counts, borne off counts and race
+ * flag that GameImpl maintains incrementally, against values
+ * computed from scratch over random games. Run with -ea, so GameImpl
+ * also checks itself on every move.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestDerivedState {
+    private Game game;
+
+    @Before
+    public void setup() {
+        game = new GameImpl();
+    }
+
+    @Test
+    public void shouldHaveDerivedStateOfStartingPosition() {
+        assertEquals(167, game.getPipCount(Color.BLACK));
+        assertEquals(167, game.getPipCount(Color.RED));
+        assertEquals(0, game.getBorneOff(Color.BLACK));
+        assertEquals(0, game.getBorneOff(Color.RED));
+        assertFalse(game.isRace());
+    }
+
+    @Test
+    public void shouldHashEqualPositionsEqually() {
+        Game other = new GameImpl();
+        assertEquals(game.getPositionHash(), other.getPositionHash());
+        game.nextTurn();
+        assertFalse(game.getPositionHash() == other.getPositionHash());
+        other.nextTurn();
+        assertEquals(game.getPositionHash(), other.getPositionHash());
+
+        long before = game.getPositionHash();
+        assertTrue(game.move(Location.B6, Location.B5));
+        assertFalse(before == game.getPositionHash());
+        // the same position reached by other moves
+        assertTrue(other.move(Location.B6, Location.B4));
+        assertTrue(game.move(Location.B5, Location.B3));
+        assertTrue(other.move(Location.B4, Location.B3));
+        assertEquals(game.getPositionHash(), other.getPositionHash());
+        game.newGame();
+        other.newGame();
+        assertEquals(game.getPositionHash(), other.getPositionHash());
+    }
+
+    @Test
+    public void shouldUpdatePipCountsOnHit() {
+        game.nextTurn();
+        // black 1-2 leaves a blot on B5
+        assertTrue(game.move(Location.B6, Location.B5));
+        assertTrue(game.move(Location.B8, Location.B6));
+        assertEquals(164, game.getPipCount(Color.BLACK));
+        game.nextTurn();
+        // red 3-4 hits it
+        assertTrue(game.move(Location.B1, Location.B5));
+        assertEquals(163, game.getPipCount(Color.RED));
+        assertEquals(164 - 5 + 25, game.getPipCount(Color.BLACK));
+        assertFalse(game.isRace());
+    }
+
+    @Test
+    public void shouldMatchRecomputeOverRandomGames() {
+        Random random = new Random(7);
+        int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+        Map<Long, String> positions = new HashMap<Long, String>();
+        boolean sawRace = false;
+        for (int g = 0; g < 200; g++) {
+            game.newGame();
+            for (int turn = 0; turn < 400 && game.winner() == Color.NONE; turn++) {
+                game.nextTurn();
+                for (int attempt = 0; attempt < 40 && game.getNumberOfMovesLeft() > 0; attempt++) {
+                    game.move(random.nextInt(28), random.nextInt(28));
+                    game.getBoard(board);
+                    assertDerivedState(board);
+                    sawRace |= game.isRace();
+                    String position = Arrays.toString(board) + game.getPlayerInTurn();
+                    String earlier = positions.put(game.getPositionHash(), position);
+                    assertTrue(earlier == null || earlier.equals(position));
+                }
+            }
+        }
+        assertTrue(sawRace);
+    }
+
+    private void assertDerivedState(int[] board) {
+        int black = 0, red = 0;
+        boolean contact = false;
+        for (int i = 0; i < 26; i++) {
+            if (board[i] > 0) {
+                black += board[i] * (i == 0 ? 25 : 25 - i);
+                for (int j = i + 1; j < 26; j++) {
+                    contact |= board[j] < 0;
+                }
+            } else if (board[i] < 0) {
+                red -= board[i] * i;
+            }
+        }
+        assertEquals(black, game.getPipCount(Color.BLACK));
+        assertEquals(red, game.getPipCount(Color.RED));
+        assertEquals(board[26], game.getBorneOff(Color.BLACK));
+        assertEquals(-board[27], game.getBorneOff(Color.RED));
+        assertEquals(!contact, game.isRace());
+    }
+}
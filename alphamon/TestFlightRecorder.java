@@ -0,0 +1,105 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Testing the Flight Recorder events of Gerry and the game, and the
+ * analyzer of recordings.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestFlightRecorder {
+    private static final int TURNS = 10;
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("hotgammon", ".jfr");
+        // the settings that enable the turn and move events
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.create(new File("hotgammon.jfc").toPath()));
+        } catch (java.text.ParseException e) {
+            throw new IOException(e);
+        }
+        recording.start();
+        Game game = new FlightRecordedGame(new GameImpl());
+        GerryAdapter gerry = new GerryAdapter(game, new FlightRecordedGerry());
+        for (int t = 0; t < TURNS; t++) {
+            game.nextTurn();
+            if (game.getPlayerInTurn() == Color.BLACK) gerry.playTurn();
+        }
+        recording.stop();
+        recording.dump(file.toPath());
+        recording.close();
+    }
+
+    @After
+    public void teardown() {
+        file.delete();
+    }
+
+    private List<RecordedEvent> events(String name) throws IOException {
+        List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            if (event.getEventType().getName().equals(name)) events.add(event);
+        }
+        return events;
+    }
+
+    @Test
+    public void shouldRecordGerryPlays() throws IOException {
+        List<RecordedEvent> plays = events("hotgammon.GerryPlay");
+        // black plays every other turn
+        assertEquals(TURNS / 2, plays.size());
+        RecordedEvent first = plays.get(0);
+        assertEquals(1, first.getInt("die1"));
+        assertEquals(2, first.getInt("die2"));
+        assertFalse(first.getBoolean("doubles"));
+        // the opening is played from the book
+        assertTrue(first.getBoolean("fromBook"));
+        assertEquals(0, first.getLong("candidates"));
+        assertEquals(2, first.getInt("checkersMoved"));
+        assertNull(first.getStackTrace());
+        // red does not move here, so later positions are not in the book
+        RecordedEvent third = plays.get(2);
+        assertFalse(third.getBoolean("fromBook"));
+        assertTrue(third.getLong("candidates") > third.getLong("evaluated"));
+    }
+
+    @Test
+    public void shouldRecordTurnsAndMoves() throws IOException {
+        List<RecordedEvent> turns = events("hotgammon.GameTurn");
+        assertEquals(TURNS, turns.size());
+        assertEquals("BLACK", turns.get(0).getString("player"));
+        assertEquals(TURNS / 2 * 2, events("hotgammon.GameMove").size());
+    }
+
+    @Test
+    public void shouldSummariseByRollType() throws IOException {
+        GerryFlightAnalyzer analyzer = new GerryFlightAnalyzer();
+        analyzer.read(file);
+        // the dice of GameImpl are never doubles
+        assertEquals(0, analyzer.getPlays(true));
+        assertEquals(TURNS / 2, analyzer.getPlays(false));
+    }
+}
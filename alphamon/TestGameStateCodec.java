@@ -0,0 +1,180 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Testing the binary state codec and the position ID, mostly by
+ * round trips over random positions.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestGameStateCodec {
+    private static final int ROUNDS = 10000;
+    private Random random;
+    private ByteBuffer buffer;
+
+    @Before
+    public void setup() {
+        random = new Random(42);
+        buffer = ByteBuffer.allocate(GameStateCodec.RECORD_SIZE);
+    }
+
+    /**
+     * fill in a random position: 15 checkers of each colour spread
+     * over the locations, never two colours on one location.
+     */
+    private void randomBoard(int[] board) {
+        Arrays.fill(board, 0);
+        placeRandomly(board, Color.BLACK, Location.R_BAR.getIndex(), Location.B_BEAR_OFF.getIndex());
+        placeRandomly(board, Color.RED, Location.B_BAR.getIndex(), Location.R_BEAR_OFF.getIndex());
+    }
+
+    private void placeRandomly(int[] board, Color color, int opponentBar, int bearOff) {
+        int sign = color.getSign();
+        for (int c = 0; c < 15; c++) {
+            int i;
+            do {
+                i = random.nextInt(28);
+            } while (board[i] * sign < 0 || i == opponentBar
+                    || (i >= 26 && i != bearOff));
+            board[i] += sign;
+        }
+    }
+
+    private void randomState(GameState state) {
+        randomBoard(state.board);
+        state.playerInTurn = Color.values()[random.nextInt(3)];
+        state.dice[0] = 1 + random.nextInt(6);
+        state.dice[1] = 1 + random.nextInt(6);
+        state.numberOfDiceLeft = random.nextInt(5);
+        for (int i = 0; i < state.numberOfDiceLeft; i++) {
+            state.diceLeft[i] = 1 + random.nextInt(6);
+        }
+        state.movesLeft = random.nextInt(5);
+        state.rolls = random.nextInt(1000);
+    }
+
+    @Test
+    public void shouldRoundTripRandomStates() {
+        GameState state = new GameState();
+        GameState decoded = new GameState();
+        for (int r = 0; r < ROUNDS; r++) {
+            randomState(state);
+            buffer.clear();
+            GameStateCodec.encode(state, buffer);
+            assertEquals(GameStateCodec.RECORD_SIZE, buffer.position());
+            buffer.flip();
+            GameStateCodec.decode(buffer, decoded);
+            assertEquals(state, decoded);
+            assertEquals(state.rolls, decoded.rolls);
+        }
+    }
+
+    @Test
+    public void shouldEncodeAndRestoreAGame() {
+        GameImpl game = new GameImpl();
+        game.nextTurn();
+        game.move(Location.R1, Location.R2);
+        new GameStateCodec().encode(game, buffer);
+        buffer.flip();
+        GameState state = new GameState();
+        GameStateCodec.decode(buffer, state);
+
+        GameImpl restored = new GameImpl();
+        restored.restore(state);
+        GameState original = new GameState();
+        original.readFrom(game);
+        GameState copy = new GameState();
+        copy.readFrom(restored);
+        assertEquals(original, copy);
+
+        // both continue the same way
+        game.move(Location.B6, Location.B4);
+        restored.move(Location.B6, Location.B4);
+        game.nextTurn();
+        restored.nextTurn();
+        original.readFrom(game);
+        copy.readFrom(restored);
+        assertEquals(original, copy);
+    }
+
+    @Test
+    public void shouldContinueTheDiceOfARestoredGame() {
+        MoveTable rules = new MoveTable(new BetaMonRules());
+        GameImpl game = new GameImpl(rules, new SeededDiceRoller(7));
+        for (int t = 0; t < 5; t++) {
+            game.nextTurn();
+        }
+        new GameStateCodec().encode(game, buffer);
+        buffer.flip();
+        GameState state = new GameState();
+        GameStateCodec.decode(buffer, state);
+
+        // a game of the same dice continues them after the restore
+        GameImpl restored = new GameImpl(rules, new SeededDiceRoller(7));
+        restored.restore(state);
+        int[] dice = new int[2], restoredDice = new int[2];
+        for (int t = 0; t < 5; t++) {
+            game.nextTurn();
+            restored.nextTurn();
+            game.getDiceThrown(dice);
+            restored.getDiceThrown(restoredDice);
+            assertArrayEquals(dice, restoredDice);
+        }
+        assertEquals(game.getRolls(), restored.getRolls());
+    }
+
+    @Test
+    public void shouldComputeGnuBackgammonIdOfStartingPosition() {
+        int[] board = new int[28];
+        new GameImpl().getBoard(board);
+        assertEquals("4HPwATDgc/ABMA", PositionId.positionId(board, Color.BLACK));
+        assertEquals("4HPwATDgc/ABMA", PositionId.positionId(board, Color.RED));
+    }
+
+    @Test
+    public void shouldRoundTripRandomPositionIds() {
+        int[] board = new int[28];
+        int[] decoded = new int[28];
+        byte[] key = new byte[PositionId.KEY_SIZE];
+        for (int r = 0; r < ROUNDS; r++) {
+            randomBoard(board);
+            Color onRoll = random.nextBoolean() ? Color.BLACK : Color.RED;
+            PositionId.positionKey(board, onRoll, key);
+            PositionId.boardFromKey(key, onRoll, decoded);
+            assertArrayEquals(board, decoded);
+
+            String id = PositionId.positionId(board, onRoll);
+            assertEquals(14, id.length());
+            PositionId.boardFromPositionId(id, onRoll, decoded);
+            assertArrayEquals(board, decoded);
+        }
+    }
+
+    @Test
+    public void shouldSwapPerspectiveWithPlayerOnRoll() {
+        // a black checker on the bar is the bar of the player on
+        // roll if black is on roll, of the opponent otherwise
+        int[] board = new int[28];
+        board[Location.B_BAR.getIndex()] = 1;
+        board[Location.B_BEAR_OFF.getIndex()] = 14;
+        board[Location.R_BEAR_OFF.getIndex()] = -15;
+        assertFalse(PositionId.positionId(board, Color.BLACK)
+                .equals(PositionId.positionId(board, Color.RED)));
+    }
+}
@@ -0,0 +1,224 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Testing that journaled games are recovered after a crash, which
+ * is simulated by opening a new journal on the directory without
+ * closing or syncing the old one.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestJournal {
+    private static final int SEGMENT_SIZE = 1 << 20;
+    private File directory;
+    private Journal journal;
+
+    @Before
+    public void setup() throws IOException {
+        directory = File.createTempFile("journal", "");
+        directory.delete();
+        journal = new Journal(directory, SEGMENT_SIZE, 64);
+    }
+
+    @After
+    public void teardown() {
+        File[] files = directory.listFiles();
+        for (int i = 0; files != null && i < files.length; i++) {
+            files[i].delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * play some turns; Gerry plays black, red just passes.
+     */
+    private void play(Game game, int turns) {
+        GerryAdapter gerry = new GerryAdapter(game);
+        for (int t = 0; t < turns && game.winner() == Color.NONE; t++) {
+            game.nextTurn();
+            if (game.getPlayerInTurn() == Color.BLACK) gerry.playTurn();
+        }
+    }
+
+    private GameState stateOf(Game game) {
+        GameState state = new GameState();
+        state.readFrom(game);
+        return state;
+    }
+
+    @Test
+    public void shouldStartWithoutGames() {
+        assertTrue(journal.getRecoveredGames().isEmpty());
+    }
+
+    @Test
+    public void shouldRecoverGamesAfterCrash() throws IOException {
+        JournaledGame one = journal.startGame(1, new GameImpl());
+        JournaledGame two = journal.startGame(2, new GameImpl());
+        play(one, 7);
+        play(two, 4);
+        // a move that leaves moves left is journaled too
+        two.nextTurn();
+        assertEquals(Color.BLACK, two.getPlayerInTurn());
+        assertTrue(two.move(Location.B6, Location.B3));
+
+        Map<Integer, JournaledGame> recovered =
+                new Journal(directory, SEGMENT_SIZE, 64).getRecoveredGames();
+        assertEquals(2, recovered.size());
+        assertEquals(stateOf(one), stateOf(recovered.get(1)));
+        assertEquals(stateOf(two), stateOf(recovered.get(2)));
+    }
+
+    @Test
+    public void shouldContinueRecoveredGames() throws IOException {
+        JournaledGame game = journal.startGame(1, new GameImpl());
+        play(game, 5);
+        Journal reopened = new Journal(directory, SEGMENT_SIZE, 64);
+        JournaledGame recovered = reopened.getRecoveredGames().get(1);
+        // both continue the same dice sequence
+        play(game, 3);
+        play(recovered, 3);
+        assertEquals(stateOf(game), stateOf(recovered));
+        // and the recovered game is journaled again
+        assertEquals(stateOf(recovered),
+                stateOf(new Journal(directory, SEGMENT_SIZE, 64).getRecoveredGames().get(1)));
+    }
+
+    @Test
+    public void shouldRecoverRulesAndDiceOfGames() throws IOException {
+        JournaledGame game = journal.startGame(1,
+                new GameImpl(new MoveTable(new AlphaMonRules()), new SeededDiceRoller(7)));
+        play(game, 5);
+        JournaledGame recovered =
+                new Journal(directory, SEGMENT_SIZE, 64).getRecoveredGames().get(1);
+        assertEquals(stateOf(game), stateOf(recovered));
+        // both continue the same seeded dice by the same rules
+        play(game, 6);
+        play(recovered, 6);
+        assertEquals(stateOf(game), stateOf(recovered));
+    }
+
+    @Test
+    public void shouldRecoverWhenTheSegmentFillsInATurn() throws IOException {
+        // one checkpoint and a state record fit in the smallest segment;
+        // the sizes put the rollover at every record of the turns. The
+        // relaxed rules would accept a move replayed twice.
+        MoveTable rules = new MoveTable(new AlphaMonRules());
+        for (int size = 140; size < 340; size++) {
+            File dir = new File(directory, "segments-" + size);
+            JournaledGame game = new Journal(dir, size, 64).startGame(1,
+                    new GameImpl(rules, new FixedDiceRoller()));
+            play(game, 3);
+            assertEquals("segment size " + size, stateOf(game),
+                    stateOf(new Journal(dir, size, 64).getRecoveredGames().get(1)));
+            File[] files = dir.listFiles();
+            for (int i = 0; i < files.length; i++) {
+                files[i].delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void shouldNotRecoverClosedGames() throws IOException {
+        journal.startGame(1, new GameImpl());
+        journal.startGame(2, new GameImpl()).close();
+        Map<Integer, JournaledGame> recovered =
+                new Journal(directory, SEGMENT_SIZE, 64).getRecoveredGames();
+        assertEquals(Collections.singleton(1), recovered.keySet());
+    }
+
+    @Test
+    public void shouldStopReplayAtTornRecord() throws IOException {
+        JournaledGame game = journal.startGame(1, new GameImpl());
+        play(game, 4);
+        game.nextTurn();
+        GameState beforeMove = stateOf(game);
+        assertTrue(game.move(Location.B6, Location.B3));
+        journal.sync();
+
+        // damage the last byte written, the checksum of the move
+        File[] files = directory.listFiles();
+        assertEquals(1, files.length);
+        RandomAccessFile file = new RandomAccessFile(files[0], "rw");
+        try {
+            long last = file.length() - 1;
+            file.seek(last);
+            while (file.read() == 0) {
+                file.seek(--last);
+            }
+            file.seek(last);
+            file.write(0x5a);
+        } finally {
+            file.close();
+        }
+
+        assertEquals(beforeMove,
+                stateOf(new Journal(directory, SEGMENT_SIZE, 64).getRecoveredGames().get(1)));
+    }
+
+    @Test
+    public void shouldNotResolveRulesOfATornRecord() throws IOException {
+        journal.startGame(1, new GameImpl());
+        journal.sync();
+        // damage the rules name of the checkpoint into that of a class
+        // that is not move rules, leaving the checksum as it was
+        File[] files = directory.listFiles();
+        RandomAccessFile file = new RandomAccessFile(files[0], "rw");
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            file.readFully(bytes);
+            int at = new String(bytes, "ISO-8859-1").indexOf(BetaMonRules.class.getName());
+            assertTrue(at > 0);
+            file.seek(at);
+            file.write(GerryAdapter.class.getName().getBytes("ISO-8859-1"));
+        } finally {
+            file.close();
+        }
+        assertTrue(new Journal(directory, SEGMENT_SIZE, 64).getRecoveredGames().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldResolveOnlyMoveRules() {
+        MoveTable.forRules(GerryAdapter.class.getName());
+    }
+
+    @Test
+    public void shouldCheckpointWhenSegmentIsFull() throws IOException {
+        journal = new Journal(directory, 4096, 64);
+        JournaledGame[] games = new JournaledGame[10];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = journal.startGame(i, new GameImpl());
+        }
+        // far more than 4 KB of records
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < games.length; i++) {
+                if (games[i].winner() != Color.NONE) games[i].newGame();
+                play(games[i], 1);
+            }
+        }
+        assertEquals(1, directory.listFiles().length);
+        Map<Integer, JournaledGame> recovered =
+                new Journal(directory, 4096, 64).getRecoveredGames();
+        assertEquals(games.length, recovered.size());
+        for (int i = 0; i < games.length; i++) {
+            assertEquals(stateOf(games[i]), stateOf(recovered.get(i)));
+        }
+    }
+}
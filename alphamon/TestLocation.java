@@ -113,4 +113,53 @@ public class TestLocation {
         assertEquals(28, count);
     }
 
+    @Test
+    public void shouldMapBetweenIndexAndLocation() {
+        assertEquals(0, Location.B_BAR.getIndex());
+        assertEquals(1, Location.R1.getIndex());
+        assertEquals(24, Location.B1.getIndex());
+        assertEquals(26, Location.B_BEAR_OFF.getIndex());
+        for (Location l : Location.values()) {
+            assertSame(l, Location.getLocationFromIndex(l.getIndex()));
+        }
+    }
+
+    @Test
+    public void shouldCalculateDistanceOfIndices() {
+        assertEquals(6, Location.distance(Location.B8.getIndex(), Location.B2.getIndex()));
+        assertEquals(-5, Location.distance(Location.B11.getIndex(), Location.R9.getIndex()));
+        assertEquals(-3, Location.distance(Location.R_BAR.getIndex(), Location.B3.getIndex()));
+        assertEquals(4, Location.distance(Location.B_BAR.getIndex(), Location.R4.getIndex()));
+        assertEquals(4, Location.distance(Location.B4.getIndex(), Location.B_BEAR_OFF.getIndex()));
+        assertEquals(-6, Location.distance(Location.R6.getIndex(), Location.R_BEAR_OFF.getIndex()));
+    }
+
+    @Test
+    public void shouldProvideIndexTable() {
+        assertEquals(Location.NUMBER_OF_LOCATIONS, Location.LOCATIONS_BY_INDEX.size());
+        for (int i = 0; i < Location.NUMBER_OF_LOCATIONS; i++) {
+            assertEquals(i, Location.LOCATIONS_BY_INDEX.get(i).getIndex());
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowChangingIndexTable() {
+        Location.LOCATIONS_BY_INDEX.set(0, Location.B1);
+    }
+
+    @Test
+    public void shouldFindSameLocationIndexAsFindLocation() {
+        Color[] colors = {Color.BLACK, Color.RED};
+        for (Color c : colors) {
+            for (int from = 0; from <= 25; from++) {
+                for (int die = 1; die <= 6; die++) {
+                    Location expected = Location.findLocation(c,
+                            Location.getLocationFromIndex(from), die);
+                    assertEquals(expected.getIndex(),
+                            Location.findLocationIndex(c, from, die));
+                }
+            }
+        }
+    }
+
 }
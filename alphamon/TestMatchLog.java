@@ -0,0 +1,138 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+/**
+ * Testing that games recorded in a match log are replayed exactly,
+ * also when seeking to games in the middle of the log.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestMatchLog {
+    private static final int GAMES = 30;
+    private File file;
+    private GameState[] finalStates;
+    private int moves;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("match", ".log");
+        // small blocks, to have many of them
+        GameImpl played = new GameImpl();
+        MatchLogWriter log = new MatchLogWriter(new FileOutputStream(file), 256, played.getRules());
+        RecordingGame game = new RecordingGame(played, log);
+        GerryAdapter gerry = new GerryAdapter(game);
+        finalStates = new GameState[GAMES];
+        for (int g = 0; g < GAMES; g++) {
+            if (g > 0) game.newGame();
+            // Gerry plays black, red passes, and black wins
+            while (game.winner() == Color.NONE) {
+                game.nextTurn();
+                if (game.getPlayerInTurn() == Color.BLACK) moves += gerry.playTurn();
+            }
+            finalStates[g] = new GameState();
+            finalStates[g].readFrom(game);
+        }
+        log.close();
+    }
+
+    @After
+    public void teardown() {
+        file.delete();
+    }
+
+    private GameState stateOf(Game game) {
+        GameState state = new GameState();
+        state.readFrom(game);
+        return state;
+    }
+
+    @Test
+    public void shouldReplayAllGames() throws IOException {
+        MatchLogReader reader = new MatchLogReader(file);
+        assertEquals(GAMES, reader.getNumberOfGames());
+        assertTrue(reader.getNumberOfBlocks() > 1);
+        Game game = new GameImpl();
+        assertEquals(moves, reader.replay(new GameReplay(game, true)));
+        assertEquals(finalStates[GAMES - 1], stateOf(game));
+        reader.close();
+    }
+
+    @Test
+    public void shouldSeekToEachGame() throws IOException {
+        MatchLogReader reader = new MatchLogReader(file);
+        for (int g = GAMES - 1; g >= 0; g--) {
+            Game game = new GameImpl();
+            assertTrue(reader.replay(g, 1, new GameReplay(game, true)) > 0);
+            assertEquals(finalStates[g], stateOf(game));
+        }
+        reader.close();
+    }
+
+    @Test
+    public void shouldReplayNothingOutsideLog() throws IOException {
+        MatchLogReader reader = new MatchLogReader(file);
+        assertEquals(0, reader.replay(GAMES, 5, new GameReplay(new GameImpl(), true)));
+        reader.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldDetectOtherDice() throws IOException {
+        MatchLogReader reader = new MatchLogReader(file);
+        Game game = new GameImpl();
+        // out of step with the dice sequence of the log
+        game.nextTurn();
+        reader.replay(0, 1, new GameReplay(game, true) {
+            public void newGame() {
+            }
+        });
+    }
+
+    @Test
+    public void shouldReplayLogsOfOtherRulesAndDice() throws IOException {
+        File other = File.createTempFile("match", ".log");
+        try {
+            GameImpl played = new GameImpl(new MoveTable(new AlphaMonRules()),
+                    new SeededDiceRoller(7));
+            MatchLogWriter log = new MatchLogWriter(new FileOutputStream(other), played.getRules());
+            RecordingGame game = new RecordingGame(played, log);
+            GerryAdapter gerry = new GerryAdapter(game);
+            int logged = 0;
+            while (game.winner() == Color.NONE) {
+                game.nextTurn();
+                logged += gerry.playTurn();
+            }
+            log.close();
+
+            MatchLogReader reader = new MatchLogReader(other);
+            assertEquals(AlphaMonRules.class.getName(), reader.getRules().getRulesName());
+            GameReplay replay = new GameReplay(reader.getRules());
+            assertEquals(logged, reader.replay(replay));
+            assertEquals(stateOf(game), stateOf(replay.getGame()));
+            reader.close();
+        } finally {
+            other.delete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIllegalDice() throws IOException {
+        MatchLogWriter log = new MatchLogWriter(new ByteArrayOutputStream(), new GameImpl().getRules());
+        log.newGame();
+        log.turn(7, 1);
+    }
+}
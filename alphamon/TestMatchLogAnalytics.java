@@ -0,0 +1,144 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Testing the statistics gathered over match logs, and that
+ * gathering them in parallel gives the same result as replaying
+ * the logs in sequence.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestMatchLogAnalytics {
+    private static final int GAMES = 40;
+    private List<File> logs;
+    private ForkJoinPool pool;
+
+    @Before
+    public void setup() throws IOException {
+        logs = new ArrayList<File>();
+        for (int l = 0; l < 2; l++) {
+            File file = File.createTempFile("match", ".log");
+            logs.add(file);
+            // small blocks, to have many tasks
+            GameImpl played = new GameImpl();
+            MatchLogWriter log = new MatchLogWriter(new FileOutputStream(file), 256,
+                    played.getRules());
+            RecordingGame game = new RecordingGame(played, log);
+            GerryAdapter gerry = new GerryAdapter(game);
+            for (int g = 0; g < GAMES; g++) {
+                if (g > 0) game.newGame();
+                // Gerry plays black, red passes, and black wins
+                while (game.winner() == Color.NONE) {
+                    game.nextTurn();
+                    if (game.getPlayerInTurn() == Color.BLACK) gerry.playTurn();
+                }
+            }
+            log.close();
+        }
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void teardown() {
+        pool.shutdown();
+        for (File file : logs) {
+            file.delete();
+        }
+    }
+
+    private MatchStatistics sequentially() throws IOException {
+        MatchStatistics statistics = new MatchStatistics();
+        for (File file : logs) {
+            MatchLogReader reader = new MatchLogReader(file);
+            StatisticsCollector collector = new StatisticsCollector(statistics, reader.getRules());
+            reader.replay(collector);
+            collector.finish();
+            reader.close();
+        }
+        return statistics;
+    }
+
+    @Test
+    public void shouldCountGamesAndGammons() throws IOException {
+        MatchStatistics statistics = MatchLogAnalytics.analyse(pool, logs);
+        assertEquals(2 * GAMES, statistics.getGames());
+        assertTrue(statistics.getMoves() > 0);
+        // black starts with 1-2 and red never bears off
+        assertEquals(1.0, statistics.getGammonRate(1, 2), 0.0);
+        assertTrue(Double.isNaN(statistics.getGammonRate(6, 5)));
+        // the pip count of the starting position
+        assertEquals(167.0, statistics.getAveragePipCount(Color.BLACK, 0), 0.0);
+        assertEquals(167.0, statistics.getAveragePipCount(Color.RED, 0), 0.0);
+        // red never moves
+        assertEquals(167.0, statistics.getAveragePipCount(Color.RED, 5), 0.0);
+        assertTrue(statistics.getAveragePipCount(Color.BLACK, 5) < 167.0);
+    }
+
+    @Test
+    public void shouldGatherSameStatisticsInParallel() throws IOException {
+        MatchStatistics parallel = MatchLogAnalytics.analyse(pool, logs);
+        MatchStatistics sequential = sequentially();
+        assertEquals(sequential.getGames(), parallel.getGames());
+        assertEquals(sequential.getTurns(), parallel.getTurns());
+        assertEquals(sequential.getMoves(), parallel.getMoves());
+        assertEquals(sequential.getAverageMovesLeft(), parallel.getAverageMovesLeft(), 0.0);
+        assertArrayEquals(sequential.pipSum, parallel.pipSum);
+        assertArrayEquals(sequential.pipSamples, parallel.pipSamples);
+        assertArrayEquals(sequential.hits, parallel.hits);
+        assertArrayEquals(sequential.finishedGames, parallel.finishedGames);
+        assertArrayEquals(sequential.gammons, parallel.gammons);
+    }
+
+    @Test
+    public void shouldAnalyseLogsOfOtherRulesAndDice() throws IOException {
+        File file = File.createTempFile("match", ".log");
+        logs.add(file);
+        GameImpl played = new GameImpl(new MoveTable(new AlphaMonRules()),
+                new SeededDiceRoller(7));
+        MatchLogWriter log = new MatchLogWriter(new FileOutputStream(file), played.getRules());
+        RecordingGame game = new RecordingGame(played, log);
+        GerryAdapter gerry = new GerryAdapter(game);
+        int moves = 0;
+        for (int g = 0; g < 3; g++) {
+            if (g > 0) game.newGame();
+            // Gerry plays both players
+            while (game.winner() == Color.NONE) {
+                game.nextTurn();
+                moves += gerry.playTurn();
+            }
+        }
+        log.close();
+
+        MatchStatistics statistics = MatchLogAnalytics.analyse(pool,
+                Collections.singletonList(file));
+        assertEquals(3, statistics.getGames());
+        assertEquals(moves, statistics.getMoves());
+    }
+
+    @Test
+    public void shouldWriteCsv() throws IOException {
+        StringWriter csv = new StringWriter();
+        MatchLogAnalytics.analyse(pool, logs).writeCsv(csv);
+        String[] lines = csv.toString().split("\\r?\\n");
+        assertEquals("metric,key,samples,value", lines[0]);
+        assertEquals("games,all," + 2 * GAMES + "," + 2 * GAMES, lines[1]);
+        assertTrue(csv.toString().contains("gammonRate,1-2," + 2 * GAMES + ",1.0"));
+    }
+}
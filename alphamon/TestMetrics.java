@@ -0,0 +1,102 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the latency histogram and the metered game and Gerry.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestMetrics {
+    private MetricsRegistry registry;
+
+    @Before
+    public void setup() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    public void shouldCountSmallValuesExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 20; v++) {
+            histogram.record(v);
+        }
+        assertEquals(20, histogram.getCount());
+        assertEquals(210, histogram.getSum());
+        assertEquals(20, histogram.getMax());
+        assertEquals(10, histogram.getValueAtPercentile(50));
+        assertEquals(19, histogram.getValueAtPercentile(95));
+        assertEquals(20, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void shouldKeepLargeValuesWithinSixPercent() {
+        for (long v = 32; v < 1L << 40; v = v * 3 / 2 + 7) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(v);
+            histogram.record(2 * v);
+            long median = histogram.getValueAtPercentile(50);
+            assertTrue(median + " for " + v, median >= v && median <= v + v / 16);
+        }
+    }
+
+    @Test
+    public void shouldMeterMovesAndTurns() {
+        Game game = new MeteredGame(new GameImpl(), registry);
+        game.nextTurn();
+        assertTrue(game.move(Location.B6, Location.B5));
+        assertFalse(game.move(Location.B6, Location.B8));
+        assertEquals(1, registry.counter("game_moves_total").get());
+        assertEquals(1, registry.counter("game_moves_invalid_total").get());
+        assertEquals(2, registry.histogram("game_move_nanos").getCount());
+        assertEquals(1, registry.histogram("game_next_turn_nanos").getCount());
+    }
+
+    @Test
+    public void shouldMeterGerry() {
+        Game game = new GameImpl();
+        GerryAdapter gerry = new GerryAdapter(game, new MeteredGerry(registry, null));
+        game.nextTurn();
+        gerry.playTurn();
+        assertEquals(1, registry.histogram("gerry_play_nanos").getCount());
+        long nodes = registry.counter("gerry_nodes_total").get();
+        long leaves = registry.counter("gerry_leaves_total").get();
+        assertTrue(leaves > 0);
+        assertTrue(nodes > leaves);
+        assertEquals(0, registry.counter("gerry_book_hits_total").get());
+    }
+
+    @Test
+    public void shouldMeterOpeningBookHits() {
+        Game game = new GameImpl();
+        GerryAdapter gerry = new GerryAdapter(game, new MeteredGerry(registry));
+        game.nextTurn();
+        gerry.playTurn();
+        assertEquals(1, registry.histogram("gerry_play_nanos").getCount());
+        assertEquals(1, registry.counter("gerry_book_hits_total").get());
+        assertEquals(0, registry.counter("gerry_nodes_total").get());
+    }
+
+    @Test
+    public void shouldExportText() {
+        registry.counter("gerry_nodes_total").addAndGet(42);
+        registry.histogram("game_move_nanos").record(100);
+        String text = registry.toText();
+        assertTrue(text.contains("# TYPE gerry_nodes_total counter"));
+        assertTrue(text.contains("gerry_nodes_total 42"));
+        assertTrue(text.contains("game_move_nanos{quantile=\"0.99\"} 100"));
+        assertTrue(text.contains("game_move_nanos_count 1"));
+    }
+}
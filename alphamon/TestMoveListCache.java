@@ -0,0 +1,191 @@
+import org.junit.*;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the move list cache: the listed moves, keys shared by the
+ * colours, and eviction within the memory bound.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestMoveListCache {
+    private static final int N = Location.NUMBER_OF_LOCATIONS;
+    private MoveListCache cache;
+    private int[] start;
+
+    @Before
+    public void setUp() {
+        cache = new MoveListCache(1 << 20);
+        start = new int[N];
+        new GameImpl().getBoard(start);
+    }
+
+    private static Game gameRolling(final int d1, final int d2) {
+        Game game = new GameImpl(new MoveTable(new BetaMonRules()), new DiceRoller() {
+            public void roll(int roll, int[] dice) {
+                dice[0] = d1;
+                dice[1] = d2;
+            }
+        });
+        game.nextTurn();
+        return game;
+    }
+
+    @Test
+    public void shouldListDistinctLegalMoves() {
+        // red is first in turn; the starting position is the same seen from red
+        MoveList moves = cache.get(start, Color.RED, new int[]{6, 1});
+        assertTrue(moves.size() > 1);
+        Set<String> boards = new HashSet<String>();
+        int[] board = new int[N];
+        for (int m = 0; m < moves.size(); m++) {
+            Game game = gameRolling(6, 1);
+            assertEquals(Color.RED, game.getPlayerInTurn());
+            assertEquals(2, moves.getCheckers(m));
+            for (int c = 0; c < 2; c++) {
+                assertTrue(game.move(GerryAdapter.mirror(moves.getFrom(m, c)),
+                        GerryAdapter.mirror(moves.getTo(m, c))));
+            }
+            game.getBoard(board);
+            assertTrue(boards.add(Arrays.toString(board)));
+        }
+    }
+
+    @Test
+    public void shouldKnowGerrysBestMove() {
+        MoveList moves = cache.get(start, Color.BLACK, new int[]{1, 6});
+        Move best = moves.getMove(moves.getBestIndex());
+        // 6-1 -> B8-B7 + R12-B7, in either order
+        Set<String> legs = new HashSet<String>();
+        for (int c = 0; c < best.noOfMoves(); c++) {
+            legs.add(best.getFrom(c) + "-" + best.getTo(c));
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("17-18", "12-18")), legs);
+    }
+
+    @Test
+    public void shouldShareListsOfBothColoursAndRollOrders() {
+        MoveList black = cache.get(start, Color.BLACK, new int[]{4, 2});
+        // the starting position is the same seen from red
+        assertSame(black, cache.get(start, Color.RED, new int[]{2, 4}));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldPlayAsGerryForBothColours() {
+        Agent cached = new CachedGerryAgent(cache);
+        Simulation simulation = new Simulation(cached, cached, new MoveTable(new AlphaMonRules()));
+        Game game = simulation.play(5);
+        assertTrue(game.winner() != Color.NONE);
+
+        Agent gerry = new GerryAdapter(new Gerry(null));
+        Game same = new Simulation(gerry, gerry, new MoveTable(new AlphaMonRules())).play(5);
+        int[] board = new int[N], sameBoard = new int[N];
+        game.getBoard(board);
+        same.getBoard(sameBoard);
+        assertArrayEquals(sameBoard, board);
+    }
+
+    @Test
+    public void shouldListNoMovesWhenBlocked() {
+        int[] board = new int[N];
+        // black on the bar, red holding all of black's entry points
+        board[Location.B_BAR.getIndex()] = 1;
+        board[Location.R_BEAR_OFF.getIndex()] = -3;
+        for (int i = Location.R1.getIndex(); i <= Location.R6.getIndex(); i++) {
+            board[i] = -2;
+        }
+        board[Location.B6.getIndex()] = 14;
+        MoveList moves = cache.get(board, Color.BLACK, new int[]{3, 5});
+        assertEquals(0, moves.size());
+        assertEquals(-1, moves.getBestIndex());
+    }
+
+    @Test
+    public void shouldKnowNoBestMoveWhereGerryUsesOneDieOfTwo() {
+        // black bearing in; with 3-6 Gerry rates B7-B1 with the 6 best,
+        // though B11-B5 with the 6 and B7-B4 with the 3 is legal
+        int[] board = new int[N];
+        board[Location.B11.getIndex()] = 1;
+        board[Location.B7.getIndex()] = 1;
+        board[Location.B_BEAR_OFF.getIndex()] = 13;
+        board[Location.B9.getIndex()] = -1;
+        board[Location.B8.getIndex()] = -2;
+        board[Location.B3.getIndex()] = -2;
+        board[Location.R_BEAR_OFF.getIndex()] = -10;
+        int[] dice = {3, 6};
+        Move gerrys = new Gerry(null).play(board.clone(), dice);
+        assertTrue(gerrys.isSolitude());
+
+        MoveList moves = cache.get(board, Color.BLACK, dice);
+        assertTrue(moves.size() > 0);
+        assertEquals(-1, moves.getBestIndex());
+        for (int m = 0; m < moves.size(); m++) {
+            assertEquals(2, moves.getCheckers(m));
+        }
+
+        // the agent searches the position instead, and plays as Gerry
+        Game cached = gameAt(board, dice), searched = gameAt(board, dice);
+        new CachedGerryAgent(cache).playTurn(cached);
+        new GerryAdapter(new Gerry(null)).playTurn(searched);
+        int[] cachedBoard = new int[N], searchedBoard = new int[N];
+        cached.getBoard(cachedBoard);
+        searched.getBoard(searchedBoard);
+        assertArrayEquals(searchedBoard, cachedBoard);
+    }
+
+    private static Game gameAt(int[] board, int[] dice) {
+        GameState state = new GameState();
+        System.arraycopy(board, 0, state.board, 0, N);
+        state.playerInTurn = Color.BLACK;
+        System.arraycopy(dice, 0, state.dice, 0, 2);
+        state.diceLeft[0] = Math.max(dice[0], dice[1]);
+        state.diceLeft[1] = Math.min(dice[0], dice[1]);
+        state.numberOfDiceLeft = 2;
+        state.movesLeft = 2;
+        GameImpl game = new GameImpl(new MoveTable(new BetaMonRules()));
+        game.restore(state);
+        return game;
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedWithinBound() {
+        int[] a = {1, 2}, b = {3, 4}, c = {5, 6};
+        long bytes = new MoveListCache(Long.MAX_VALUE).get(start, Color.BLACK, a).getBytes();
+        // room for about two lists of the opening, in one segment
+        long bound = 3 * bytes;
+        cache = new MoveListCache(bound, 1);
+        cache.get(start, Color.BLACK, a);
+        cache.get(start, Color.BLACK, b);
+        cache.get(start, Color.BLACK, a);
+        cache.get(start, Color.BLACK, c);
+        assertTrue(cache.getEvictions() > 0);
+        assertTrue(cache.getBytes() <= bound);
+        long misses = cache.getMisses();
+        cache.get(start, Color.BLACK, c);
+        assertEquals(misses, cache.getMisses());
+        cache.get(start, Color.BLACK, b);
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePowerOfTwoSegments() {
+        new MoveListCache(1 << 20, 12);
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the headless simulation runtime: seeded dice, Gerry
+ * playing red, and games played to the end between agents.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestSimulation {
+    @Test
+    public void shouldRollReproducibleDice() {
+        DiceRoller one = new SeededDiceRoller(17), two = new SeededDiceRoller(17);
+        int[] a = new int[2], b = new int[2];
+        boolean[] seen = new boolean[36];
+        for (int roll = 0; roll < 1000; roll++) {
+            one.roll(roll, a);
+            two.roll(roll, b);
+            assertArrayEquals(a, b);
+            assertTrue(a[0] >= 1 && a[0] <= 6 && a[1] >= 1 && a[1] <= 6);
+            seen[(a[0] - 1) * 6 + a[1] - 1] = true;
+        }
+        for (int i = 0; i < 36; i++) {
+            assertTrue(seen[i]);
+        }
+    }
+
+    private GameImpl startingPosition(Color player, int die1, int die2) {
+        GameImpl game = new GameImpl();
+        GameState state = new GameState();
+        state.readFrom(game);
+        state.playerInTurn = player;
+        state.dice[0] = die1;
+        state.dice[1] = die2;
+        state.diceLeft[0] = Math.max(die1, die2);
+        state.diceLeft[1] = Math.min(die1, die2);
+        state.numberOfDiceLeft = state.movesLeft = 2;
+        game.restore(state);
+        return game;
+    }
+
+    @Test
+    public void shouldLetGerryPlayRedAsMirroredBlack() {
+        GameImpl black = startingPosition(Color.BLACK, 6, 4);
+        GameImpl red = startingPosition(Color.RED, 6, 4);
+        GerryAdapter gerry = new GerryAdapter(new Gerry());
+        assertEquals(2, gerry.playTurn(black));
+        assertEquals(2, gerry.playTurn(red));
+        // the start is symmetric, so red's result mirrors black's
+        for (int i = 1; i <= 24; i++) {
+            assertEquals(black.getCount(i), red.getCount(25 - i));
+            assertEquals(black.getColor(i) == Color.BLACK, red.getColor(25 - i) == Color.RED);
+        }
+    }
+
+    @Test
+    public void shouldPlayGamesToTheEnd() {
+        MoveTable[] variants = {new MoveTable(new AlphaMonRules()), new MoveTable(new BetaMonRules())};
+        for (int v = 0; v < variants.length; v++) {
+            Simulation simulation = new Simulation(new GerryAdapter(new Gerry()),
+                    new RandomAgent(3), variants[v]);
+            for (int seed = 0; seed < 10; seed++) {
+                Game game = simulation.play(seed);
+                assertFalse(game.winner() == Color.NONE);
+                assertEquals(15, game.getBorneOff(game.winner()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldPlaySameGameWithSameSeed() {
+        Simulation simulation = new Simulation(new GerryAdapter(new Gerry()),
+                new GerryAdapter(new Gerry()), new MoveTable(new BetaMonRules()));
+        assertEquals(simulation.play(5).getPositionHash(), simulation.play(5).getPositionHash());
+    }
+}
@@ -0,0 +1,124 @@
+import org.junit.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing tournaments between agents: duplicate games, pairings and
+ * the Elo ratings of the standings.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestTournament {
+    private ForkJoinPool pool;
+    private Tournament tournament;
+
+    private static final AgentFactory GERRY = new AgentFactory() {
+        public Agent createAgent() {
+            return new GerryAdapter(new Gerry());
+        }
+    };
+    private static final AgentFactory RANDOM = new AgentFactory() {
+        public Agent createAgent() {
+            return new RandomAgent(42);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        tournament = new Tournament(new MoveTable(new BetaMonRules()), pool, 3);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldPlayEveryPairingAsDuplicateGames() {
+        tournament.addEntrant("a", RANDOM);
+        tournament.addEntrant("b", RANDOM);
+        tournament.addEntrant("c", RANDOM);
+        tournament.playRoundRobin(5);
+        // 3 pairings, 5 duplicates of 2 games each
+        assertEquals(30, tournament.getGamesPlayed());
+        for (Tournament.Standing s : tournament.getStandings()) {
+            assertEquals(20, s.games);
+        }
+    }
+
+    @Test
+    public void shouldCancelLuckBetweenEqualAgents() {
+        // the same agent on the same dice wins exactly one game of
+        // each duplicate pair, as it plays the same moves
+        tournament.addEntrant("gerry", GERRY);
+        tournament.addEntrant("gerry too", GERRY);
+        tournament.playRoundRobin(5);
+        for (Tournament.Standing s : tournament.getStandings()) {
+            assertEquals(10, s.games);
+            assertEquals(5, s.wins);
+            assertEquals(0, s.elo, 1e-6);
+        }
+    }
+
+    @Test
+    public void shouldRateGerryAboveRandomPlay() {
+        tournament.addEntrant("random", RANDOM);
+        tournament.addEntrant("gerry", GERRY);
+        tournament.playRoundRobin(40);
+        List<Tournament.Standing> standings = tournament.getStandings();
+        Tournament.Standing best = standings.get(0), worst = standings.get(1);
+        assertEquals("gerry", best.name);
+        assertTrue(best.elo > 0);
+        assertEquals(-best.elo, worst.elo, 1e-6);
+        assertTrue(best.elo - best.margin > worst.elo + worst.margin);
+    }
+
+    @Test
+    public void shouldTakeMarginsFromTheFisherInformation() {
+        tournament.addEntrant("random", RANDOM);
+        tournament.addEntrant("gerry", GERRY);
+        tournament.playRoundRobin(10);
+        List<Tournament.Standing> standings = tournament.getStandings();
+        Tournament.Standing best = standings.get(0), worst = standings.get(1);
+        // two entrants: the log strengths are d/2 and -d/2, and the
+        // variance of d is 1 over the information of the games played
+        double p = 1 / (1 + Math.pow(10, (worst.elo - best.elo) / 400));
+        double variance = 1 / ((best.games + 1) * p * (1 - p)) / 4;
+        double margin = 1.96 * 400 / Math.log(10) * Math.sqrt(variance);
+        assertEquals(margin, best.margin, 1e-6);
+        assertEquals(margin, worst.margin, 1e-6);
+    }
+
+    @Test
+    public void shouldPairSwissRoundsByScore() {
+        tournament.addEntrant("random 1", RANDOM);
+        tournament.addEntrant("gerry 1", GERRY);
+        tournament.addEntrant("random 2", RANDOM);
+        tournament.addEntrant("gerry 2", GERRY);
+        tournament.addEntrant("sits out", RANDOM);
+        tournament.playSwiss(3, 2);
+        // 2 pairings a round, 2 duplicates of 2 games each
+        assertEquals(24, tournament.getGamesPlayed());
+        int games = 0;
+        for (Tournament.Standing s : tournament.getStandings()) {
+            games += s.games;
+        }
+        assertEquals(48, games);
+    }
+}
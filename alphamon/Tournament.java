@@ -0,0 +1,381 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A tournament between agents, played on a work-stealing pool. Each
+ * pairing is played as duplicate games: two games with the same
+ * seeded dice, each agent playing black in one of them, which
+ * cancels much of the luck of the dice.
+ * <p/>
+ * Agents are paired round-robin, all against all, or in Swiss
+ * rounds, where agents with similar scores meet. Results are
+ * recorded as games finish, and the standings rate the agents on the
+ * Elo scale by a Bradley-Terry fit of all results, with a 95%
+ * confidence interval from the Fisher information of the fit.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class Tournament {
+    private final MoveTable rules;
+    private final ForkJoinPool pool;
+    private final long seed;
+    private final List<String> names = new ArrayList<String>();
+    private final List<AgentFactory> factories = new ArrayList<AgentFactory>();
+
+    // results[i][j]: wins of entrant i against j; games[i][j] played
+    private int[][] wins = new int[0][0];
+    private int[][] games = new int[0][0];
+    private final AtomicLong gamesPlayed = new AtomicLong();
+    private long nextSeed;
+
+    private final ThreadLocal<List<Agent>> agents = new ThreadLocal<List<Agent>>() {
+        protected List<Agent> initialValue() {
+            return new ArrayList<Agent>();
+        }
+    };
+
+    /**
+     * @param rules the move rules of the games
+     * @param pool  the pool to play games in
+     * @param seed  the seed the dice of all games are derived from
+     */
+    public Tournament(MoveTable rules, ForkJoinPool pool, long seed) {
+        this.rules = rules;
+        this.pool = pool;
+        this.seed = seed;
+    }
+
+    /**
+     * enter an agent in the tournament; before any game is played.
+     */
+    public synchronized void addEntrant(String name, AgentFactory factory) {
+        names.add(name);
+        factories.add(factory);
+        wins = new int[names.size()][names.size()];
+        games = new int[names.size()][names.size()];
+    }
+
+    public long getGamesPlayed() {
+        return gamesPlayed.get();
+    }
+
+    /**
+     * play every entrant against every other.
+     *
+     * @param duplicates the number of duplicate game pairs per pairing
+     */
+    public void playRoundRobin(int duplicates) {
+        List<int[]> pairings = new ArrayList<int[]>();
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = i + 1; j < names.size(); j++) {
+                pairings.add(new int[]{i, j});
+            }
+        }
+        play(pairings, duplicates);
+    }
+
+    /**
+     * play Swiss rounds: in each round the entrants are ranked by
+     * score and paired with their neighbours in the ranking; with an
+     * odd number of entrants the lowest ranked of those who sat out
+     * the fewest rounds sits out.
+     *
+     * @param rounds     the number of rounds
+     * @param duplicates the number of duplicate game pairs per pairing
+     */
+    public void playSwiss(int rounds, int duplicates) {
+        int[] byes = new int[names.size()];
+        for (int round = 0; round < rounds; round++) {
+            final double[] score = scores();
+            List<Integer> ranking = new ArrayList<Integer>();
+            for (int i = 0; i < names.size(); i++) {
+                ranking.add(i);
+            }
+            // shuffle first, so equal scores are paired at random
+            Collections.shuffle(ranking, new Random(seed + round));
+            Collections.sort(ranking, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return Double.compare(score[b], score[a]);
+                }
+            });
+            if (ranking.size() % 2 == 1) {
+                int bye = ranking.size() - 1;
+                for (int k = bye - 1; k >= 0; k--) {
+                    if (byes[ranking.get(k)] < byes[ranking.get(bye)]) bye = k;
+                }
+                byes[ranking.remove(bye)]++;
+            }
+            List<int[]> pairings = new ArrayList<int[]>();
+            for (int k = 0; k + 1 < ranking.size(); k += 2) {
+                pairings.add(new int[]{ranking.get(k), ranking.get(k + 1)});
+            }
+            play(pairings, duplicates);
+        }
+    }
+
+    /**
+     * play the duplicate games of some pairings on the pool and wait
+     * for them to finish.
+     */
+    private void play(List<int[]> pairings, int duplicates) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+        for (int[] pairing : pairings) {
+            for (int d = 0; d < duplicates; d++) {
+                final int a = pairing[0], b = pairing[1];
+                final long gameSeed = seed + nextSeed++;
+                tasks.add(pool.submit(new Runnable() {
+                    public void run() {
+                        playDuplicate(a, b, gameSeed);
+                    }
+                }));
+            }
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private void playDuplicate(int a, int b, long gameSeed) {
+        playGame(a, b, gameSeed);
+        playGame(b, a, gameSeed);
+    }
+
+    private void playGame(int black, int red, long gameSeed) {
+        Game game = new GameImpl(rules, new SeededDiceRoller(gameSeed));
+        Simulation.play(game, agent(black), agent(red));
+        Color winner = game.winner();
+        if (winner == Color.BLACK) {
+            record(black, red);
+        } else if (winner == Color.RED) {
+            record(red, black);
+        }
+        gamesPlayed.incrementAndGet();
+    }
+
+    private Agent agent(int entrant) {
+        List<Agent> mine = agents.get();
+        while (mine.size() <= entrant) {
+            mine.add(null);
+        }
+        Agent agent = mine.get(entrant);
+        if (agent == null) {
+            agent = factories.get(entrant).createAgent();
+            mine.set(entrant, agent);
+        }
+        return agent;
+    }
+
+    private synchronized void record(int winner, int loser) {
+        wins[winner][loser]++;
+        games[winner][loser]++;
+        games[loser][winner]++;
+    }
+
+    private synchronized double[] scores() {
+        double[] score = new double[names.size()];
+        for (int i = 0; i < score.length; i++) {
+            for (int j = 0; j < score.length; j++) {
+                score[i] += wins[i][j];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The standing of an entrant.
+     */
+    public static class Standing {
+        public final String name;
+        public final int games;
+        public final int wins;
+        /** the rating, the mean of all entrants being 0 */
+        public final double elo;
+        /** the half width of the 95% confidence interval of elo */
+        public final double margin;
+
+        Standing(String name, int games, int wins, double elo, double margin) {
+            this.name = name;
+            this.games = games;
+            this.wins = wins;
+            this.elo = elo;
+            this.margin = margin;
+        }
+    }
+
+    /**
+     * return the standings so far, best rated first.
+     */
+    public synchronized List<Standing> getStandings() {
+        int n = names.size();
+        // Bradley-Terry strengths by the minorization-maximization
+        // iteration; every pairing played counts an extra half win
+        // for each side, so no strength is 0 or infinite
+        double[] gamma = new double[n];
+        Arrays.fill(gamma, 1);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            double logSum = 0;
+            for (int i = 0; i < n; i++) {
+                double w = 0, denominator = 0;
+                for (int j = 0; j < n; j++) {
+                    if (games[i][j] == 0) continue;
+                    w += wins[i][j] + 0.5;
+                    denominator += (games[i][j] + 1) / (gamma[i] + gamma[j]);
+                }
+                if (denominator > 0) gamma[i] = w / denominator;
+                logSum += Math.log(gamma[i]);
+            }
+            double mean = Math.exp(logSum / n);
+            for (int i = 0; i < n; i++) {
+                gamma[i] /= mean;
+            }
+        }
+
+        double[] variance = variances(gamma);
+        List<Standing> standings = new ArrayList<Standing>();
+        for (int i = 0; i < n; i++) {
+            int played = 0, won = 0;
+            for (int j = 0; j < n; j++) {
+                played += games[i][j];
+                won += wins[i][j];
+            }
+            double margin = 1.96 * 400 / Math.log(10) * Math.sqrt(variance[i]);
+            standings.add(new Standing(names.get(i), played, won,
+                    400 * Math.log10(gamma[i]), margin));
+        }
+        Collections.sort(standings, new Comparator<Standing>() {
+            public int compare(Standing a, Standing b) {
+                return Double.compare(b.elo, a.elo);
+            }
+        });
+        return standings;
+    }
+
+    /**
+     * return the variances of the fitted log strengths, the diagonal
+     * of the inverse of the Fisher information at gamma under the
+     * constraint that the log strengths sum to 0. The information is
+     * a Laplacian, so with J the matrix of all 1/n its constrained
+     * inverse is (I + J)^-1 - J. If some entrants are not connected
+     * by games to the others, no variance is finite.
+     */
+    private double[] variances(double[] gamma) {
+        int n = gamma.length;
+        // the matrix is augmented by the identity, which becomes the inverse
+        double[][] m = new double[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j || games[i][j] == 0) continue;
+                // the pseudo games of the fit count here too
+                double p = gamma[i] / (gamma[i] + gamma[j]);
+                double information = (games[i][j] + 1) * p * (1 - p);
+                m[i][i] += information;
+                m[i][j] -= information;
+            }
+            for (int j = 0; j < n; j++) {
+                m[i][j] += 1.0 / n;
+            }
+            m[i][n + i] = 1;
+        }
+        double[] variance = new double[n];
+        // Gauss-Jordan elimination; the matrix is symmetric positive
+        // definite when connected, so no pivoting is needed
+        for (int k = 0; k < n; k++) {
+            double pivot = m[k][k];
+            if (pivot < 1e-12) {
+                Arrays.fill(variance, Double.POSITIVE_INFINITY);
+                return variance;
+            }
+            for (int j = 0; j < 2 * n; j++) {
+                m[k][j] /= pivot;
+            }
+            for (int i = 0; i < n; i++) {
+                if (i == k || m[i][k] == 0) continue;
+                double factor = m[i][k];
+                for (int j = 0; j < 2 * n; j++) {
+                    m[i][j] -= factor * m[k][j];
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            variance[i] = m[i][n + i] - 1.0 / n;
+        }
+        return variance;
+    }
+
+    public void writeStandings(PrintStream out) {
+        out.println("entrant          games    wins     elo    95% ci");
+        for (Standing s : getStandings()) {
+            out.printf("%-14s %7d %7d %7.0f  +/- %4.0f%n", s.name, s.games, s.wins, s.elo, s.margin);
+        }
+    }
+
+    /**
+     * play a round-robin tournament between Gerry, Gerry with noisy
+     * weights, and random play, and print the standings every
+     * second. Usage: Tournament [duplicates [swissRounds]]
+     */
+    public static void main(String[] args) throws Exception {
+        final int duplicates = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final int swissRounds = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        ForkJoinPool pool = new ForkJoinPool();
+        final Tournament tournament = new Tournament(new MoveTable(new BetaMonRules()), pool, 1);
+        tournament.addEntrant("gerry", new AgentFactory() {
+            public Agent createAgent() {
+                return new GerryAdapter(new Gerry());
+            }
+        });
+        tournament.addEntrant("gerry-noisy", new AgentFactory() {
+            public Agent createAgent() {
+                // another weight set: Gerry's weights with 30% noise
+                Gerry gerry = new Gerry();
+                Random random = new Random(7);
+                for (int i = 0; i < gerry.wr.length; i++) {
+                    gerry.wr[i] *= 1 + 0.3 * random.nextGaussian();
+                    gerry.wc[i] *= 1 + 0.3 * random.nextGaussian();
+                }
+                return new GerryAdapter(gerry);
+            }
+        });
+        final AtomicLong randomSeeds = new AtomicLong();
+        tournament.addEntrant("random", new AgentFactory() {
+            public Agent createAgent() {
+                // each worker thread gets its own agent; seed them in turn
+                return new RandomAgent(randomSeeds.incrementAndGet());
+            }
+        });
+
+        long start = System.nanoTime();
+        Thread runner = new Thread() {
+            public void run() {
+                if (swissRounds > 0) {
+                    tournament.playSwiss(swissRounds, duplicates);
+                } else {
+                    tournament.playRoundRobin(duplicates);
+                }
+            }
+        };
+        runner.start();
+        while (runner.isAlive()) {
+            runner.join(1000);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d games, %.0f games/s on %d threads%n", tournament.getGamesPlayed(),
+                    tournament.getGamesPlayed() / seconds, pool.getParallelism());
+            tournament.writeStandings(System.out);
+        }
+        pool.shutdown();
+    }
+}
@@ -1 +1,2 @@
-javac -classpath .:junit-4.4.jar *.java
+# Requires JDK 11 or later: the flight recorder events use jdk.jfr.
+javac -classpath .:../patterns/gerry:junit-4.4.jar *.java
@@ -0,0 +1,2 @@
+# Requires JDK 11 or later: the flight recorder events use jdk.jfr.
+java -classpath .:../patterns/gerry:junit-4.4.jar "$@"
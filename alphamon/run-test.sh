@@ -1,2 +1,3 @@
-java -classpath .:junit-4.4.jar org.junit.runner.JUnitCore TestLocation TestAlphamon
+# Requires JDK 11 or later: the flight recorder events use jdk.jfr.
+java -ea -classpath .:../patterns/gerry:junit-4.4.jar org.junit.runner.JUnitCore TestLocation TestAlphamon TestGameStateCodec TestJournal TestMatchLog TestMatchLogAnalytics TestDerivedState TestMetrics TestFlightRecorder TestBetaMon TestSimulation TestTournament TestMoveListCache
 
@@ -0,0 +1,149 @@
+import hotgammon.benchmark.Workloads;
+
+import java.util.*;
+
+/**
+ * The work of the benchmarks of Gerry and AlphaMon, which must be set
+ * up from the unnamed package; see Workloads.
+ * <p/>
+ * The corpus of Gerry is a few positions of each kind, as Gerry sees
+ * them: indexed as the Location enum, black's checkers positive, and
+ * black to move from the black bar (0) towards the black bear off
+ * (26). Each position is played with every roll of its kind.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class AlphaMonWorkloads implements Workloads {
+    private static final int[] START = board(
+            1, 2, 12, 5, 17, 3, 19, 5,
+            24, -2, 13, -5, 8, -3, 6, -5);
+    // black has two checkers back and builds a prime
+    private static final int[] PRIME = board(
+            1, 2, 12, 3, 17, 3, 19, 4, 20, 2, 22, 1,
+            24, -2, 13, -4, 8, -3, 6, -4, 5, -2);
+    // black is on the bar against a four point board
+    private static final int[] BLITZ = board(
+            0, 1, 12, 4, 17, 2, 19, 3, 20, 3, 21, 2,
+            1, -2, 2, -2, 4, -3, 6, -3, 8, -2, 13, -3);
+    // all of black's checkers are past all of red's
+    private static final int[] HOME = board(
+            19, 3, 20, 3, 21, 3, 22, 2, 23, 2, 24, 2,
+            1, -3, 2, -3, 3, -2, 4, -3, 5, -2, 6, -2);
+    private static final int[] BEARING_OFF = board(
+            16, 2, 18, 3, 20, 4, 22, 3, 24, 1, 26, 2,
+            2, -4, 3, -3, 5, -3, 7, -2, 9, -1, 27, -2);
+
+    /**
+     * return a board of pairs of location index and count.
+     */
+    private static int[] board(int... pairs) {
+        int[] board = new int[28];
+        for (int i = 0; i < pairs.length; i += 2) {
+            board[pairs[i]] = pairs[i + 1];
+        }
+        return board;
+    }
+
+    private static int[][] positions(String corpus) {
+        if (corpus.equals(OPENING)) return new int[][]{START};
+        if (corpus.equals(CONTACT)) return new int[][]{PRIME, BLITZ};
+        if (corpus.equals(RACE)) return new int[][]{HOME, BEARING_OFF};
+        if (corpus.equals(DOUBLES)) return new int[][]{START, PRIME, BLITZ, HOME, BEARING_OFF};
+        throw new IllegalArgumentException("Unknown corpus " + corpus);
+    }
+
+    /**
+     * return the rolls of a corpus: doubles for the doubles, all
+     * others for the rest.
+     */
+    private static int[][] rolls(String corpus) {
+        List<int[]> rolls = new ArrayList<int[]>();
+        for (int d1 = 1; d1 <= 6; d1++) {
+            for (int d2 = 1; d2 <= d1; d2++) {
+                if ((d1 == d2) == corpus.equals(DOUBLES)) rolls.add(new int[]{d1, d2});
+            }
+        }
+        return rolls.toArray(new int[rolls.size()][]);
+    }
+
+    public Work gerryPlay(String corpus) {
+        final Gerry gerry = new Gerry(null);
+        final int[][] positions = positions(corpus), rolls = rolls(corpus);
+        return new Work() {
+            int next;
+
+            public int run() {
+                int i = next++ % (positions.length * rolls.length);
+                Move move = gerry.play(positions[i / rolls.length], rolls[i % rolls.length]);
+                return move.noOfMoves() == 0 ? 0 : move.noOfMoves() * 32 + move.getFrom(0);
+            }
+        };
+    }
+
+    public Work pubeval(String corpus) {
+        final Gerry gerry = new Gerry(null);
+        final int[][] positions = positions(corpus);
+        final boolean[] race = new boolean[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            race[i] = gerry.isRacing(positions[i]);
+        }
+        return new Work() {
+            int next;
+
+            public int run() {
+                int i = next++ % positions.length;
+                return Float.floatToIntBits(gerry.pubeval(race[i], positions[i]));
+            }
+        };
+    }
+
+    public Work setx(String corpus) {
+        final Gerry gerry = new Gerry(null);
+        final int[][] positions = positions(corpus);
+        return new Work() {
+            int next;
+
+            public int run() {
+                int i = next++ % positions.length;
+                // the input vector is a field of Gerry, so this is
+                // not dead code
+                gerry.setx(positions[i]);
+                return i;
+            }
+        };
+    }
+
+    public Work gameLoop(String players) {
+        Agent black, red;
+        if (players.equals("random")) {
+            black = new RandomAgent(1);
+            red = new RandomAgent(2);
+        } else if (players.equals("gerry")) {
+            black = new GerryAdapter(new Gerry());
+            red = new GerryAdapter(new Gerry());
+        } else {
+            throw new IllegalArgumentException("Unknown players " + players);
+        }
+        final Simulation simulation = new Simulation(black, red,
+                new MoveTable(new BetaMonRules()));
+        return new Work() {
+            long seed;
+
+            public int run() {
+                return (int) simulation.play(seed++).getPositionHash();
+            }
+        };
+    }
+}
@@ -0,0 +1,265 @@
+package hotgammon.benchmark;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compare two JMH result files in JSON, a baseline and a current run,
+ * benchmark by benchmark: the score of each with its error, the
+ * change, and the bytes allocated per operation as measured by the
+ * GC profiler. A change is a regression when the confidence
+ * intervals of the scores do not overlap and the current score is
+ * worse; the exit status is then 1. Run as
+ * <pre>
+ * CompareBaselines baseline.json current.json
+ * </pre>
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class CompareBaselines {
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: CompareBaselines baseline.json current.json");
+            System.exit(2);
+        }
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+        int regressions = 0;
+        System.out.printf("%-60s %22s %22s %8s %18s%n", "benchmark", "baseline", "current",
+                "change", "bytes/op");
+        for (Map.Entry<String, Result> e : current.entrySet()) {
+            Result now = e.getValue(), then = baseline.get(e.getKey());
+            if (then == null) {
+                System.out.printf("%-60s %22s %22s%n", e.getKey(), "-", now);
+                continue;
+            }
+            double change = 100.0 * (now.score - then.score) / then.score;
+            boolean worse = now.higherIsBetter ? now.high() < then.low() : now.low() > then.high();
+            if (worse) regressions++;
+            System.out.printf("%-60s %22s %22s %+7.1f%% %8s -> %-7s%s%n", e.getKey(), then, now,
+                    change, bytes(then.allocation), bytes(now.allocation),
+                    worse ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-60s %22s %22s%n", name, baseline.get(name), "-");
+            }
+        }
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static String bytes(double allocation) {
+        return Double.isNaN(allocation) ? "-" : String.format("%.0f", allocation);
+    }
+
+    /**
+     * return the results of a JMH JSON file, by benchmark name and
+     * parameters.
+     */
+    static Map<String, Result> read(File file) throws IOException {
+        StringBuilder text = new StringBuilder();
+        Reader in = new InputStreamReader(new FileInputStream(file), "UTF-8");
+        try {
+            char[] buffer = new char[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                text.append(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        Map<String, Result> results = new TreeMap<String, Result>();
+        for (Object o : (List<?>) new Json(text.toString()).value()) {
+            Map<?, ?> run = (Map<?, ?>) o;
+            StringBuilder name = new StringBuilder(shorten((String) run.get("benchmark")));
+            Map<?, ?> params = (Map<?, ?>) run.get("params");
+            if (params != null) {
+                for (Map.Entry<?, ?> p : new TreeMap<Object, Object>(params).entrySet()) {
+                    name.append(' ').append(p.getKey()).append('=').append(p.getValue());
+                }
+            }
+            Map<?, ?> primary = (Map<?, ?>) run.get("primaryMetric");
+            double allocation = Double.NaN;
+            Map<?, ?> secondary = (Map<?, ?>) run.get("secondaryMetrics");
+            if (secondary != null) {
+                for (Map.Entry<?, ?> m : secondary.entrySet()) {
+                    // older versions of JMH prefix the profiler's metrics with a dot
+                    String key = ((String) m.getKey()).replace("\u00b7", "");
+                    if (key.equals(ALLOCATION)) {
+                        allocation = number(((Map<?, ?>) m.getValue()).get("score"));
+                    }
+                }
+            }
+            results.put(name.toString(), new Result(number(primary.get("score")),
+                    number(primary.get("scoreError")), (String) primary.get("scoreUnit"),
+                    "thrpt".equals(run.get("mode")), allocation));
+        }
+        return results;
+    }
+
+    /**
+     * return the class and method of a benchmark name, without the
+     * package.
+     */
+    private static String shorten(String benchmark) {
+        String[] parts = benchmark.split("\\.");
+        return parts.length < 2 ? benchmark : parts[parts.length - 2] + "." + parts[parts.length - 1];
+    }
+
+    private static double number(Object value) {
+        // JMH writes NaN and infinities as strings
+        if (value instanceof String) return Double.parseDouble((String) value);
+        return value == null ? Double.NaN : (Double) value;
+    }
+
+    /**
+     * the score of one benchmark with one set of parameters.
+     */
+    static class Result {
+        final double score, error, allocation;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Result(double score, double error, String unit, boolean higherIsBetter, double allocation) {
+            this.score = score;
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+            this.allocation = allocation;
+        }
+
+        double low() {
+            return score - error;
+        }
+
+        double high() {
+            return score + error;
+        }
+
+        public String toString() {
+            return String.format("%.3f +- %.3f %s", score, error, unit);
+        }
+    }
+
+    /**
+     * A reader of JSON text into maps, lists, strings, doubles,
+     * booleans and null; enough for the result files of JMH.
+     */
+    static class Json {
+        private final String text;
+        private int at;
+
+        Json(String text) {
+            this.text = text;
+        }
+
+        Object value() {
+            skipSpace();
+            char c = text.charAt(at);
+            if (c == '{') return object();
+            if (c == '[') return array();
+            if (c == '"') return string();
+            if (text.startsWith("true", at)) {
+                at += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", at)) {
+                at += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", at)) {
+                at += 4;
+                return null;
+            }
+            int start = at;
+            while (at < text.length() && "+-.0123456789eE".indexOf(text.charAt(at)) >= 0) at++;
+            if (start == at) throw new IllegalArgumentException("JSON: unexpected '" + c + "' at " + at);
+            return Double.valueOf(text.substring(start, at));
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<String, Object>();
+            at++;
+            skipSpace();
+            if (text.charAt(at) == '}') {
+                at++;
+                return map;
+            }
+            while (true) {
+                skipSpace();
+                String key = string();
+                skipSpace();
+                expect(':');
+                map.put(key, value());
+                skipSpace();
+                if (text.charAt(at++) == '}') return map;
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<Object>();
+            at++;
+            skipSpace();
+            if (text.charAt(at) == ']') {
+                at++;
+                return list;
+            }
+            while (true) {
+                list.add(value());
+                skipSpace();
+                if (text.charAt(at++) == ']') return list;
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder s = new StringBuilder();
+            char c;
+            while ((c = text.charAt(at++)) != '"') {
+                if (c == '\\') {
+                    c = text.charAt(at++);
+                    switch (c) {
+                        case 'n': s.append('\n'); break;
+                        case 't': s.append('\t'); break;
+                        case 'r': s.append('\r'); break;
+                        case 'b': s.append('\b'); break;
+                        case 'f': s.append('\f'); break;
+                        case 'u':
+                            s.append((char) Integer.parseInt(text.substring(at, at + 4), 16));
+                            at += 4;
+                            break;
+                        default: s.append(c);
+                    }
+                } else {
+                    s.append(c);
+                }
+            }
+            return s.toString();
+        }
+
+        private void expect(char c) {
+            if (text.charAt(at) != c) {
+                throw new IllegalArgumentException("JSON: expected '" + c + "' at " + at);
+            }
+            at++;
+        }
+
+        private void skipSpace() {
+            while (at < text.length() && Character.isWhitespace(text.charAt(at))) at++;
+        }
+    }
+}
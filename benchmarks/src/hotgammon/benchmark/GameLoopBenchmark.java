@@ -0,0 +1,49 @@
+package hotgammon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole games of AlphaMon's GameImpl, from the first roll to the
+ * last checker borne off, each with the dice of a new seed. With
+ * random players most of the time is the game's; with Gerry it is
+ * his.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameLoopBenchmark {
+    @Param({"random", "gerry"})
+    public String players;
+
+    private Workloads.Work game;
+
+    @Setup
+    public void setup() {
+        game = Workloads.Loader.load().gameLoop(players);
+    }
+
+    @Benchmark
+    public int game() {
+        return game.run();
+    }
+}
@@ -0,0 +1,47 @@
+package hotgammon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gerry choosing a move, without the opening book, for each kind of
+ * position of the corpus; see AlphaMonWorkloads.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GerryBenchmark {
+    @Param({Workloads.OPENING, Workloads.CONTACT, Workloads.RACE, Workloads.DOUBLES})
+    public String corpus;
+
+    private Workloads.Work play;
+
+    @Setup
+    public void setup() {
+        play = Workloads.Loader.load().gerryPlay(corpus);
+    }
+
+    @Benchmark
+    public int play() {
+        return play.run();
+    }
+}
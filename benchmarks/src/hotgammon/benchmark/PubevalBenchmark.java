@@ -0,0 +1,54 @@
+package hotgammon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gerry's evaluation of a position, and the encoding of the position
+ * it starts with, alone.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PubevalBenchmark {
+    @Param({Workloads.CONTACT, Workloads.RACE})
+    public String corpus;
+
+    private Workloads.Work pubeval, setx;
+
+    @Setup
+    public void setup() {
+        Workloads workloads = Workloads.Loader.load();
+        pubeval = workloads.pubeval(corpus);
+        setx = workloads.setx(corpus);
+    }
+
+    @Benchmark
+    public int pubeval() {
+        return pubeval.run();
+    }
+
+    @Benchmark
+    public int setx() {
+        return setx.run();
+    }
+}
@@ -0,0 +1,84 @@
+package hotgammon.benchmark;
+
+/**
+ * The work of the benchmarks of Gerry and AlphaMon. Their classes are
+ * in the unnamed package, which a class in a package cannot import
+ * and JMH cannot generate benchmarks for. So the work is set up by
+ * AlphaMonWorkloads, a class in the unnamed package that implements
+ * this interface, and the benchmarks call it through the interface;
+ * the JIT inlines the calls as there is one implementation.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public interface Workloads {
+    /** the positions of the corpus of Gerry */
+    public static final String OPENING = "opening", CONTACT = "contact",
+            RACE = "race", DOUBLES = "doubles";
+
+    /**
+     * A unit of work that is done again and again by one benchmark
+     * thread; each run takes the next position of its corpus.
+     */
+    public interface Work {
+        /**
+         * do the work once.
+         *
+         * @return a value that depends on the work, for the benchmark
+         *         to consume
+         */
+        public int run();
+    }
+
+    /**
+     * return Gerry playing the positions and rolls of a corpus.
+     */
+    public Work gerryPlay(String corpus);
+
+    /**
+     * return Gerry's evaluation of the positions of a corpus.
+     */
+    public Work pubeval(String corpus);
+
+    /**
+     * return the encoding of the positions of a corpus as the input
+     * of the evaluation.
+     */
+    public Work setx(String corpus);
+
+    /**
+     * return whole games of AlphaMon's GameImpl, by the BetaMon rules.
+     *
+     * @param players "random" for two random players, which measures
+     *                the game, or "gerry" for Gerry against himself
+     */
+    public Work gameLoop(String players);
+
+    /**
+     * The instance, loaded from the unnamed package.
+     */
+    public static final class Loader {
+        private Loader() {
+        }
+
+        public static Workloads load() {
+            try {
+                return (Workloads) Class.forName("AlphaMonWorkloads")
+                        .getDeclaredConstructor().newInstance();
+            } catch (Exception e) {
+                throw new RuntimeException("Workloads: cannot load AlphaMonWorkloads: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package hotgammon.framework;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The distance between locations and the location a distance away,
+ * by the enum and by index, for every location a checker can move
+ * from, every die and both colours.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LocationBenchmark {
+    private static final int MOVES = 2 * 26 * 6;
+
+    private final Color[] colors = new Color[MOVES];
+    private final Location[] from = new Location[MOVES], to = new Location[MOVES];
+    private final int[] fromIndex = new int[MOVES], distances = new int[MOVES];
+
+    @Setup
+    public void setup() {
+        int m = 0;
+        for (Color color : new Color[]{Color.BLACK, Color.RED}) {
+            for (int f = 0; f < 26; f++) {
+                for (int d = 1; d <= 6; d++, m++) {
+                    colors[m] = color;
+                    fromIndex[m] = f;
+                    from[m] = Location.getLocationFromIndex(f);
+                    distances[m] = d;
+                    to[m] = Location.findLocation(color, from[m], d);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int distance() {
+        int sum = 0;
+        for (int m = 0; m < MOVES; m++) {
+            sum = 31 * sum + Location.distance(from[m], to[m]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int findLocation() {
+        int sum = 0;
+        for (int m = 0; m < MOVES; m++) {
+            sum += Location.findLocation(colors[m], from[m], distances[m]).getIndex();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int findLocationIndex() {
+        int sum = 0;
+        for (int m = 0; m < MOVES; m++) {
+            sum += Location.findLocationIndex(colors[m], fromIndex[m], distances[m]);
+        }
+        return sum;
+    }
+}
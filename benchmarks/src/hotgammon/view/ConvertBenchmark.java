@@ -0,0 +1,100 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hit testing on a grid of points on and around the board, by the
+ * precomputed bands of Convert, by searching the rectangles of the
+ * layout the bands are precomputed from, and by
+ * the layout of the board at twice the size; and the positions of
+ * the checkers of every location.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ConvertBenchmark {
+    // every 7th x and 5th y from 10 pixels outside the board
+    private static final int COLUMNS = 89, ROWS = 92, POINTS = COLUMNS * ROWS;
+    private static final int CHECKERS = Location.NUMBER_OF_LOCATIONS * 15;
+
+    private final int[] xs = new int[POINTS], ys = new int[POINTS];
+    private final Point point = new Point();
+    private BoardLayout layout;
+    private BoardLayout doubleSize;
+
+    @Setup
+    public void setup() {
+        for (int c = 0; c < COLUMNS; c++) {
+            for (int r = 0; r < ROWS; r++) {
+                xs[c * ROWS + r] = -10 + 7 * c;
+                ys[c * ROWS + r] = -10 + 5 * r;
+            }
+        }
+        layout = BoardLayout.forScale(1.0);
+        doubleSize = BoardLayout.forScale(2.0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int xy2Location() {
+        int found = 0;
+        for (int p = 0; p < POINTS; p++) {
+            if (Convert.xy2Location(xs[p], ys[p]) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int scanXy2Location() {
+        int found = 0;
+        for (int p = 0; p < POINTS; p++) {
+            if (layout.scanXy2Location(xs[p], ys[p]) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int xy2LocationDoubleSize() {
+        int found = 0;
+        for (int p = 0; p < POINTS; p++) {
+            if (doubleSize.xy2Location(2 * xs[p], 2 * ys[p]) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKERS)
+    public int locationAndCount2xy() {
+        int sum = 0;
+        for (Location l : Location.LOCATIONS_BY_INDEX) {
+            for (int count = 0; count < 15; count++) {
+                sum += Convert.locationAndCount2xy(l, count, point).y;
+            }
+        }
+        return sum;
+    }
+}
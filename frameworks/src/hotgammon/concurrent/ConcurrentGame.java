@@ -0,0 +1,198 @@
+package hotgammon.concurrent;
+
+import hotgammon.framework.*;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe decorator of a Game for many reading threads: the
+ * UI, spectators and AI workers. Mutators take the write lock.
+ * Accessors first read optimistically, without locking, and only
+ * if a write interfered do they read again under the read lock.
+ * Readers thus never block each other, and rarely block at all.
+ * <p/>
+ * An optimistic read may see the decorated game in the middle of a
+ * write; any result or exception of it is discarded unless the
+ * read is validated. Observers are notified while the write lock is
+ * held; the notifying thread may call back into this decorator,
+ * which it does without locking, but observers should not wait for
+ * other threads that use it.
+ * <p/>
+ * Requires Java 8 for StampedLock and the lambdas of the reads.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+
+public class ConcurrentGame implements Game {
+    private final Game game;
+    private final StampedLock lock = new StampedLock();
+    // the thread holding the write lock, allowed to call back in
+    private volatile Thread writer;
+
+    public ConcurrentGame(Game game) {
+        this.game = game;
+    }
+
+    // == mutators take the write lock
+
+    public void newGame() {
+        long stamp = writeLock();
+        try {
+            game.newGame();
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    public void nextTurn() {
+        long stamp = writeLock();
+        try {
+            game.nextTurn();
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    public boolean move(Location from, Location to) {
+        long stamp = writeLock();
+        try {
+            return game.move(from, to);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    public boolean move(int from, int to) {
+        long stamp = writeLock();
+        try {
+            return game.move(from, to);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    public void addObserver(GameObserver observer) {
+        long stamp = writeLock();
+        try {
+            game.addObserver(observer);
+        } finally {
+            unlockWrite(stamp);
+        }
+    }
+
+    // == accessors read optimistically
+
+    public Color getPlayerInTurn() {
+        return read(() -> game.getPlayerInTurn());
+    }
+
+    public int getNumberOfMovesLeft() {
+        return read(() -> game.getNumberOfMovesLeft());
+    }
+
+    public int[] diceThrown() {
+        return read(() -> game.diceThrown());
+    }
+
+    public int[] diceValuesLeft() {
+        return read(() -> game.diceValuesLeft());
+    }
+
+    public Color winner() {
+        return read(() -> game.winner());
+    }
+
+    public Color getColor(Location location) {
+        return read(() -> game.getColor(location));
+    }
+
+    public int getCount(Location location) {
+        return read(() -> game.getCount(location));
+    }
+
+    public void getBoard(int[] board) {
+        read(() -> {
+            game.getBoard(board);
+            return null;
+        });
+    }
+
+    public void getDiceThrown(int[] dice) {
+        read(() -> {
+            game.getDiceThrown(dice);
+            return null;
+        });
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        return read(() -> game.getDiceValuesLeft(values));
+    }
+
+    public Color getColor(int index) {
+        return read(() -> game.getColor(index));
+    }
+
+    public int getCount(int index) {
+        return read(() -> game.getCount(index));
+    }
+
+    /**
+     * read the game optimistically, and again under the read lock if
+     * a write interfered.
+     */
+    private <T> T read(Supplier<T> read) {
+        long stamp = lock.tryOptimisticRead();
+        try {
+            T result = read.get();
+            if (lock.validate(stamp)) return result;
+        } catch (RuntimeException e) {
+            if (lock.validate(stamp)) throw e;
+        }
+        stamp = readLock();
+        try {
+            return read.get();
+        } finally {
+            unlockRead(stamp);
+        }
+    }
+
+    // == locking that lets the writing thread call back in
+
+    private long writeLock() {
+        if (writer == Thread.currentThread()) return 0;
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        return stamp;
+    }
+
+    private void unlockWrite(long stamp) {
+        if (stamp != 0) {
+            writer = null;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private long readLock() {
+        if (writer == Thread.currentThread()) return 0;
+        return lock.readLock();
+    }
+
+    private void unlockRead(long stamp) {
+        if (stamp != 0) {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package hotgammon.concurrent;
+
+import hotgammon.framework.*;
+
+/**
+ * A thread-safe decorator of a Game that simply synchronizes every
+ * call; the baseline that ConcurrentGame is measured against.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+
+public class SynchronizedGame implements Game {
+    private final Game game;
+
+    public SynchronizedGame(Game game) {
+        this.game = game;
+    }
+
+    public synchronized void newGame() {
+        game.newGame();
+    }
+
+    public synchronized void nextTurn() {
+        game.nextTurn();
+    }
+
+    public synchronized boolean move(Location from, Location to) {
+        return game.move(from, to);
+    }
+
+    public synchronized boolean move(int from, int to) {
+        return game.move(from, to);
+    }
+
+    public synchronized void addObserver(GameObserver observer) {
+        game.addObserver(observer);
+    }
+
+    public synchronized Color getPlayerInTurn() {
+        return game.getPlayerInTurn();
+    }
+
+    public synchronized int getNumberOfMovesLeft() {
+        return game.getNumberOfMovesLeft();
+    }
+
+    public synchronized int[] diceThrown() {
+        return game.diceThrown();
+    }
+
+    public synchronized int[] diceValuesLeft() {
+        return game.diceValuesLeft();
+    }
+
+    public synchronized Color winner() {
+        return game.winner();
+    }
+
+    public synchronized Color getColor(Location location) {
+        return game.getColor(location);
+    }
+
+    public synchronized int getCount(Location location) {
+        return game.getCount(location);
+    }
+
+    public synchronized void getBoard(int[] board) {
+        game.getBoard(board);
+    }
+
+    public synchronized void getDiceThrown(int[] dice) {
+        game.getDiceThrown(dice);
+    }
+
+    public synchronized int getDiceValuesLeft(int[] values) {
+        return game.getDiceValuesLeft(values);
+    }
+
+    public synchronized Color getColor(int index) {
+        return game.getColor(index);
+    }
+
+    public synchronized int getCount(int index) {
+        return game.getCount(index);
+    }
+}
@@ -0,0 +1,248 @@
+package hotgammon.event;
+
+import hotgammon.framework.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A decorator for a GameObserver that delivers events
+ * asynchronously. The game thread only puts the event into a bounded
+ * queue; the decorated observer is invoked by a task running on the
+ * given executor. Thus a slow observer, like the Swing view or a
+ * network spectator, does not stall the game.
+ * <p/>
+ * Events are coalesced: at most one delivery task is pending at any
+ * time, and it delivers every event queued when it runs. A burst of
+ * events, like the four checker moves of a double, is therefore
+ * handled as one batch. If the queue is full, the BackPressurePolicy
+ * decides whether to drop the new event, block the game thread, or
+ * replace the queued events by a snapshot of the game, read on the
+ * game thread.
+ * <p/>
+ * The executor may be any executor, for instance a shared thread
+ * pool; on Java 21 a virtual thread per task executor works too. The
+ * decorated observer is never invoked by two threads at the same time.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class AsyncGameObserver implements GameObserver {
+    private final GameObserver observer;
+    private final Game game;
+    private final Executor executor;
+    private final BlockingQueue<Event> queue;
+    private final BackPressurePolicy policy;
+
+    // true while a delivery task is submitted but has not yet
+    // finished draining the queue
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    // metrics
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int peakDepth;
+
+    private final Runnable drainer = new Runnable() {
+        public void run() {
+            drain();
+        }
+    };
+
+    /**
+     * create an asynchronous observer with the DROP or BLOCK policy.
+     *
+     * @param observer the observer to deliver events to
+     * @param executor the executor that runs the deliveries
+     * @param capacity the maximal number of undelivered events
+     * @param policy   what to do when capacity is reached
+     */
+    public AsyncGameObserver(GameObserver observer, Executor executor,
+                             int capacity, BackPressurePolicy policy) {
+        this(observer, null, executor, capacity, policy);
+    }
+
+    /**
+     * create an asynchronous observer.
+     *
+     * @param observer the observer to deliver events to; a
+     *                 SnapshotObserver for the KEEP_LATEST policy
+     * @param game     the game observed, read for snapshots; may be
+     *                 null unless the policy is KEEP_LATEST
+     * @param executor the executor that runs the deliveries
+     * @param capacity the maximal number of undelivered events
+     * @param policy   what to do when capacity is reached
+     */
+    public AsyncGameObserver(GameObserver observer, Game game, Executor executor,
+                             int capacity, BackPressurePolicy policy) {
+        if (policy == BackPressurePolicy.KEEP_LATEST
+                && (game == null || !(observer instanceof SnapshotObserver))) {
+            throw new IllegalArgumentException(
+                    "KEEP_LATEST needs the game and a SnapshotObserver");
+        }
+        this.observer = observer;
+        this.game = game;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<Event>(capacity);
+        this.policy = policy;
+    }
+
+    public void checkerMove(Location from, Location to) {
+        enqueue(new Event(from, to, null));
+    }
+
+    public void diceRolled(int[] values) {
+        // copy, the game may reuse its array before we deliver
+        enqueue(new Event(null, null, values.clone()));
+    }
+
+    private void enqueue(Event event) {
+        switch (policy) {
+            case DROP:
+                if (!queue.offer(event)) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                break;
+            case BLOCK:
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                    return;
+                }
+                break;
+            case KEEP_LATEST:
+                if (!queue.offer(event)) {
+                    // the game already includes the new event, and
+                    // the snapshot replaces every event queued
+                    Event snapshot = snapshot();
+                    do {
+                        while (queue.poll() != null) {
+                            dropped.incrementAndGet();
+                        }
+                    } while (!queue.offer(snapshot));
+                }
+                break;
+        }
+        int depth = queue.size();
+        if (depth > peakDepth) {
+            peakDepth = depth;
+        }
+        schedule();
+    }
+
+    private Event snapshot() {
+        int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+        int[] dice = new int[2];
+        game.getBoard(board);
+        game.getDiceThrown(dice);
+        return new Event(board, dice);
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(drainer);
+        }
+    }
+
+    private void drain() {
+        try {
+            Event event;
+            while ((event = queue.poll()) != null) {
+                if (event.board != null) {
+                    ((SnapshotObserver) observer).snapshot(event.board, event.values);
+                } else if (event.values == null) {
+                    observer.checkerMove(event.from, event.to);
+                } else {
+                    observer.diceRolled(event.values);
+                }
+                delivered.incrementAndGet();
+            }
+            batches.incrementAndGet();
+        } finally {
+            scheduled.set(false);
+            // an event may have arrived after the last poll but before
+            // the flag was cleared, and its enqueue did not schedule a
+            // task; so may the events behind one the observer failed on.
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    // == metrics
+
+    /**
+     * return the number of events waiting to be delivered.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * return the highest queue depth seen so far.
+     */
+    public int getPeakQueueDepth() {
+        return peakDepth;
+    }
+
+    /**
+     * return the number of events delivered to the observer.
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * return the number of events lost due to the back pressure
+     * policy; with KEEP_LATEST, those replaced by a snapshot.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * return the number of delivery tasks run; delivered count
+     * divided by this is the average batch size.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * an undelivered event: a checker move, a dice roll, or a
+     * snapshot of the board and dice.
+     */
+    private static final class Event {
+        final Location from, to;
+        final int[] values;
+        final int[] board;
+
+        Event(Location from, Location to, int[] values) {
+            this.from = from;
+            this.to = to;
+            this.values = values;
+            this.board = null;
+        }
+
+        Event(int[] board, int[] dice) {
+            this.from = this.to = null;
+            this.values = dice;
+            this.board = board;
+        }
+    }
+}
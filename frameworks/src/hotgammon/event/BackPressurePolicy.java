@@ -0,0 +1,40 @@
+package hotgammon.event;
+
+/**
+ * The policies available for an AsyncGameObserver whose event queue
+ * is full, i.e. the observer is not keeping up with the game.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public enum BackPressurePolicy {
+    /**
+     * the new event is thrown away; the observer sees the older
+     * events only.
+     */
+    DROP,
+    /**
+     * the game thread waits until the observer has made room in the
+     * queue. No events are lost, but the game runs at the pace of
+     * the observer once the queue is full.
+     */
+    BLOCK,
+    /**
+     * the queued events and the new one are collapsed into a snapshot
+     * of the game as it is now, so the observer always ends up with
+     * the latest state of the game. The observer must be a
+     * SnapshotObserver.
+     */
+    KEEP_LATEST
+}
@@ -0,0 +1,120 @@
+package hotgammon.event;
+
+import hotgammon.framework.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * An event bus between a Game and its observers. The bus is added
+ * as the only observer of the game, and every observer subscribed
+ * to the bus gets its own bounded queue and is served
+ * asynchronously by the bus' executor, see AsyncGameObserver. The
+ * game thread thus never waits for an observer unless that observer
+ * was subscribed with the BLOCK policy.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GameEventBus implements GameObserver {
+    private final Game game;
+    private final Executor executor;
+    private final List<AsyncGameObserver> subscribers =
+            new CopyOnWriteArrayList<AsyncGameObserver>();
+
+    /**
+     * create a bus for observers with the DROP or BLOCK policy.
+     *
+     * @param executor the executor that delivers events to all
+     *                 subscribed observers.
+     */
+    public GameEventBus(Executor executor) {
+        this(null, executor);
+    }
+
+    /**
+     * create a bus.
+     *
+     * @param game     the game observed, read for the snapshots of
+     *                 KEEP_LATEST observers
+     * @param executor the executor that delivers events to all
+     *                 subscribed observers.
+     */
+    public GameEventBus(Game game, Executor executor) {
+        this.game = game;
+        this.executor = executor;
+    }
+
+    /**
+     * subscribe an observer to the events of the game.
+     *
+     * @param observer the observer
+     * @param capacity the number of events that may be queued for it
+     * @param policy   what to do if its queue is full
+     * @return the asynchronous decorator that serves the observer;
+     *         use it to read the queue metrics or to unsubscribe.
+     */
+    public AsyncGameObserver subscribe(GameObserver observer, int capacity,
+                                       BackPressurePolicy policy) {
+        AsyncGameObserver async =
+                new AsyncGameObserver(observer, game, executor, capacity, policy);
+        subscribers.add(async);
+        return async;
+    }
+
+    /**
+     * unsubscribe an observer; events already queued for it are
+     * still delivered.
+     *
+     * @param subscription the value returned by subscribe
+     */
+    public void unsubscribe(AsyncGameObserver subscription) {
+        subscribers.remove(subscription);
+    }
+
+    public void checkerMove(Location from, Location to) {
+        for (AsyncGameObserver o : subscribers) {
+            o.checkerMove(from, to);
+        }
+    }
+
+    public void diceRolled(int[] values) {
+        for (AsyncGameObserver o : subscribers) {
+            o.diceRolled(values);
+        }
+    }
+
+    /**
+     * return the total number of events waiting to be delivered to
+     * all subscribers.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (AsyncGameObserver o : subscribers) {
+            depth += o.getQueueDepth();
+        }
+        return depth;
+    }
+
+    /**
+     * return the total number of events lost by all subscribers.
+     */
+    public long getDroppedCount() {
+        long count = 0;
+        for (AsyncGameObserver o : subscribers) {
+            count += o.getDroppedCount();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,196 @@
+package hotgammon.event;
+
+import hotgammon.framework.*;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * A single producer, multiple consumer ring buffer that fans out the
+ * events of one Game to a large number of spectators. The ring is
+ * added as an observer of the game; each spectator attaches a Cursor
+ * and polls it from its own thread, at its own pace.
+ * <p/>
+ * All slots are allocated up front and an event is encoded into a
+ * single long, so publishing an event neither allocates nor locks:
+ * it is two ordered writes no matter how many spectators are
+ * attached. Each slot also stores the sequence number of its event,
+ * so a cursor that has fallen more than a full ring behind detects
+ * that its slot was overwritten. Such a slow spectator is moved to
+ * the head of the ring and must resynchronize by reading a snapshot
+ * of the board from the game, see Cursor.poll.
+ * <p/>
+ * The game must notify the ring from one thread only.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GameEventRing implements GameObserver {
+    /**
+     * value returned by Cursor.poll when the spectator has been
+     * overrun and must resynchronize from a snapshot of the game.
+     */
+    public static final int RESYNC = -1;
+
+    private static final int CHECKER_MOVE = 1;
+    private static final int DICE_ROLLED = 2;
+
+    // Location.values() copies the array on each call
+    private static final Location[] LOCATIONS = Location.values();
+
+    // slot layout: sequence number in the high 40 bits, then 8 bits
+    // each for the event type and its two arguments.
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final int capacity;
+    // the sequence number of the next event to publish
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * create a ring.
+     *
+     * @param capacity the number of events a spectator may lag behind
+     *                 before it is overrun; must be a power of two.
+     */
+    public GameEventRing(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException(
+                    "capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        mask = capacity - 1;
+        slots = new AtomicLongArray(capacity);
+        // no slot holds event 0 until it is published
+        for (int i = 0; i < capacity; i++) {
+            slots.set(i, -1L);
+        }
+    }
+
+    public void checkerMove(Location from, Location to) {
+        publish(CHECKER_MOVE, from.ordinal(), to.ordinal());
+    }
+
+    public void diceRolled(int[] values) {
+        publish(DICE_ROLLED, values[0], values[1]);
+    }
+
+    private void publish(int type, int a, int b) {
+        long seq = head.get();
+        slots.lazySet((int) seq & mask, (seq << 24) | (type << 16) | (a << 8) | b);
+        head.lazySet(seq + 1);
+    }
+
+    /**
+     * attach a new spectator; it will see the events published from
+     * now on.
+     *
+     * @return the cursor of the spectator
+     */
+    public Cursor attach() {
+        return new Cursor(head.get());
+    }
+
+    /**
+     * return the number of events published so far.
+     */
+    public long getPublishedCount() {
+        return head.get();
+    }
+
+    /**
+     * return the capacity of the ring.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The read position of a single spectator. A cursor must only be
+     * polled by one thread at a time.
+     */
+    public class Cursor {
+        private long next;
+        private long overruns;
+        // reused for every dice event, observers must not keep it
+        private final int[] dice = new int[2];
+
+        private Cursor(long start) {
+            next = start;
+        }
+
+        /**
+         * deliver the events published since the last poll to the
+         * given observer, at most max of them.
+         * <p/>
+         * If the spectator has fallen so far behind that events were
+         * overwritten before it read them, no events are delivered,
+         * the cursor is moved to the head of the ring, and RESYNC is
+         * returned. The spectator must then rebuild its view of the
+         * board from the game itself.
+         *
+         * @param observer the observer to deliver the events to
+         * @param max      the maximal number of events to deliver
+         * @return the number of events delivered, or RESYNC.
+         */
+        public int poll(GameObserver observer, int max) {
+            long available = head.get();
+            int delivered = 0;
+            while (next < available && delivered < max) {
+                long slot = slots.get((int) next & mask);
+                if ((slot >>> 24) != next) {
+                    // overwritten by a later lap of the producer
+                    overruns++;
+                    next = head.get();
+                    return RESYNC;
+                }
+                int a = (int) (slot >>> 8) & 0xff;
+                int b = (int) slot & 0xff;
+                if (((int) (slot >>> 16) & 0xff) == CHECKER_MOVE) {
+                    observer.checkerMove(LOCATIONS[a], LOCATIONS[b]);
+                } else {
+                    dice[0] = a;
+                    dice[1] = b;
+                    observer.diceRolled(dice);
+                }
+                next++;
+                delivered++;
+            }
+            return delivered;
+        }
+
+        /**
+         * return the number of published events this spectator has
+         * not yet read.
+         */
+        public long getLag() {
+            return head.get() - next;
+        }
+
+        /**
+         * return true if this spectator has fallen more than a full
+         * ring behind, i.e. its oldest unread event was overwritten
+         * and the next poll returns RESYNC. At a lag of exactly the
+         * capacity the oldest unread event is still in the ring.
+         */
+        public boolean isOverrun() {
+            return getLag() > capacity;
+        }
+
+        /**
+         * return the number of times this spectator was overrun.
+         */
+        public long getOverrunCount() {
+            return overruns;
+        }
+    }
+}
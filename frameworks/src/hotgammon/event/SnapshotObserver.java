@@ -0,0 +1,37 @@
+package hotgammon.event;
+
+import hotgammon.framework.*;
+
+/**
+ * An observer that can be brought up to date with a snapshot of the
+ * game instead of the events it missed. An AsyncGameObserver with
+ * the KEEP_LATEST policy collapses its queue into a snapshot when
+ * the observer falls behind; the events that follow the snapshot are
+ * delivered as usual.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public interface SnapshotObserver extends GameObserver {
+    /**
+     * this method is invoked instead of the events that were
+     * dropped; the observer should forget what it knows of the game
+     * and take over the state given.
+     *
+     * @param board the checkers per location index, in the layout of
+     *              Game.getBoard
+     * @param dice  the values of the two dice last thrown
+     */
+    public void snapshot(int[] board, int[] dice);
+}
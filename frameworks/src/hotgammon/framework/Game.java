@@ -136,6 +136,67 @@ public interface Game {
      */
     public int getCount(Location location);
 
+    // == bulk ACCESSORS, for clients that read the whole state often
+
+    /**
+     * get the state of the entire board in one call. The array is
+     * filled so that board[l.getIndex()] holds the checkers on
+     * location l: 0 for none, positive for black and negative for red
+     * (-2 = 2 red checkers). This is the convention of Color's
+     * numerical value, and the board format Gerry expects.
+     *
+     * @param board the array to fill, at least 28 integers long.
+     */
+    public void getBoard(int[] board);
+
+    /**
+     * get the values of the dice thrown without allocating a new
+     * array, see diceThrown().
+     *
+     * @param dice the array to fill, at least 2 integers long.
+     */
+    public void getDiceThrown(int[] dice);
+
+    /**
+     * get the die values not yet used without allocating a new
+     * array, see diceValuesLeft(). The values are put first in the
+     * array, largest value first.
+     *
+     * @param values the array to fill, at least 4 integers long.
+     * @return the number of values filled in, in range [0;4].
+     */
+    public int getDiceValuesLeft(int[] values);
+
+    // == primitive versions, using location indices, for hot loops
+
+    /**
+     * move one checker, like move(Location, Location), but given the
+     * indices of the locations, see Location.getIndex().
+     *
+     * @param from the index of the location to move the checker from
+     * @param to   the index of the location to move the checker to
+     * @return false if the indicated move is illegal
+     */
+    public boolean move(int from, int to);
+
+    /**
+     * get the colour of the checkers on the location with a given
+     * index, see Location.getIndex().
+     *
+     * @param index the index of the location to access
+     * @return the color of the checkers on this location
+     */
+    public Color getColor(int index);
+
+    /**
+     * get the count of checkers on the location with a given index,
+     * see Location.getIndex().
+     *
+     * @param index the index of the location to inspect
+     * @return the number of checkers on this location.
+     */
+    public int getCount(int index);
+
 
     /**
      * add an observer to this game
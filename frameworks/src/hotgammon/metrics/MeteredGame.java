@@ -0,0 +1,145 @@
+package hotgammon.metrics;
+
+import hotgammon.framework.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A decorator that meters a game: the latency of move and nextTurn,
+ * the number of valid and invalid moves, and the time spent
+ * dispatching each event to the observers added through it. Use the
+ * undecorated game to play without metering and without any cost.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MeteredGame implements Game {
+    private final Game game;
+    private final LatencyHistogram moveTime;
+    private final LatencyHistogram nextTurnTime;
+    private final LatencyHistogram dispatchTime;
+    private final AtomicLong moves;
+    private final AtomicLong invalidMoves;
+    private final AtomicLong events;
+
+    public MeteredGame(Game game, MetricsRegistry registry) {
+        this.game = game;
+        moveTime = registry.histogram("game_move_nanos");
+        nextTurnTime = registry.histogram("game_next_turn_nanos");
+        dispatchTime = registry.histogram("game_observer_dispatch_nanos");
+        moves = registry.counter("game_moves_total");
+        invalidMoves = registry.counter("game_moves_invalid_total");
+        events = registry.counter("game_observer_events_total");
+    }
+
+    // == mutators are metered
+
+    public void newGame() {
+        game.newGame();
+    }
+
+    public void nextTurn() {
+        long start = System.nanoTime();
+        game.nextTurn();
+        nextTurnTime.record(System.nanoTime() - start);
+    }
+
+    public boolean move(Location from, Location to) {
+        long start = System.nanoTime();
+        boolean valid = game.move(from, to);
+        moveTime.record(System.nanoTime() - start);
+        (valid ? moves : invalidMoves).incrementAndGet();
+        return valid;
+    }
+
+    public boolean move(int from, int to) {
+        long start = System.nanoTime();
+        boolean valid = game.move(from, to);
+        moveTime.record(System.nanoTime() - start);
+        (valid ? moves : invalidMoves).incrementAndGet();
+        return valid;
+    }
+
+    /**
+     * add an observer; the time it takes to handle each event is
+     * metered.
+     */
+    public void addObserver(final GameObserver observer) {
+        game.addObserver(new GameObserver() {
+            public void checkerMove(Location from, Location to) {
+                long start = System.nanoTime();
+                observer.checkerMove(from, to);
+                dispatchTime.record(System.nanoTime() - start);
+                events.incrementAndGet();
+            }
+
+            public void diceRolled(int[] values) {
+                long start = System.nanoTime();
+                observer.diceRolled(values);
+                dispatchTime.record(System.nanoTime() - start);
+                events.incrementAndGet();
+            }
+        });
+    }
+
+    // == accessors are simply delegated
+
+    public Color getPlayerInTurn() {
+        return game.getPlayerInTurn();
+    }
+
+    public int getNumberOfMovesLeft() {
+        return game.getNumberOfMovesLeft();
+    }
+
+    public int[] diceThrown() {
+        return game.diceThrown();
+    }
+
+    public int[] diceValuesLeft() {
+        return game.diceValuesLeft();
+    }
+
+    public Color winner() {
+        return game.winner();
+    }
+
+    public Color getColor(Location location) {
+        return game.getColor(location);
+    }
+
+    public int getCount(Location location) {
+        return game.getCount(location);
+    }
+
+    public void getBoard(int[] board) {
+        game.getBoard(board);
+    }
+
+    public void getDiceThrown(int[] dice) {
+        game.getDiceThrown(dice);
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        return game.getDiceValuesLeft(values);
+    }
+
+    public Color getColor(int index) {
+        return game.getColor(index);
+    }
+
+    public int getCount(int index) {
+        return game.getCount(index);
+    }
+}
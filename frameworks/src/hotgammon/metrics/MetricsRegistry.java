@@ -0,0 +1,104 @@
+package hotgammon.metrics;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A registry of named counters and latency histograms, and the
+ * exporter of their snapshots in the Prometheus text format, so a
+ * local scraper can read them:
+ * <pre>
+ *   game_moves_total 123456
+ *   game_move_nanos{quantile="0.99"} 311
+ *   game_move_nanos_sum 2512334
+ *   game_move_nanos_count 8120
+ * </pre>
+ * Metrics are looked up once, when an instrumented object is
+ * created; the hot paths only touch the counter or histogram
+ * itself. Metering is disabled simply by not instrumenting, see
+ * MeteredGame.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, AtomicLong> counters = new TreeMap<String, AtomicLong>();
+    private final Map<String, LatencyHistogram> histograms =
+            new TreeMap<String, LatencyHistogram>();
+
+    /**
+     * return the counter of the given name, creating it if needed.
+     */
+    public synchronized AtomicLong counter(String name) {
+        AtomicLong counter = counters.get(name);
+        if (counter == null) {
+            counter = new AtomicLong();
+            counters.put(name, counter);
+        }
+        return counter;
+    }
+
+    /**
+     * return the histogram of the given name, creating it if needed.
+     */
+    public synchronized LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            histograms.put(name, histogram);
+        }
+        return histogram;
+    }
+
+    /**
+     * write a snapshot of all metrics in the Prometheus text format.
+     */
+    public synchronized void writeText(Writer writer) throws IOException {
+        PrintWriter out = new PrintWriter(writer);
+        for (Map.Entry<String, AtomicLong> e : counters.entrySet()) {
+            out.println("# TYPE " + e.getKey() + " counter");
+            out.println(e.getKey() + " " + e.getValue().get());
+        }
+        for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+            String name = e.getKey();
+            LatencyHistogram histogram = e.getValue();
+            out.println("# TYPE " + name + " summary");
+            for (int i = 0; i < QUANTILES.length; i++) {
+                out.println(name + "{quantile=\"" + QUANTILES[i] + "\"} "
+                        + histogram.getValueAtPercentile(QUANTILES[i] * 100));
+            }
+            out.println(name + "_max " + histogram.getMax());
+            out.println(name + "_sum " + histogram.getSum());
+            out.println(name + "_count " + histogram.getCount());
+        }
+        out.flush();
+    }
+
+    /**
+     * return a snapshot of all metrics in the Prometheus text format.
+     */
+    public String toText() {
+        StringWriter text = new StringWriter();
+        try {
+            writeText(text);
+        } catch (IOException e) {
+            // a StringWriter does not fail
+            throw new IllegalStateException(e);
+        }
+        return text.toString();
+    }
+}
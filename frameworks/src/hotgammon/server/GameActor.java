@@ -0,0 +1,165 @@
+package hotgammon.server;
+
+import hotgammon.framework.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A game hosted by a GameRegistry. The game is an actor: commands
+ * are put into its mailbox from any thread and executed one at a
+ * time by a task on a shared executor. Thus the game is only ever
+ * accessed by one thread at a time, without any locks, and an idle
+ * game costs no thread, only the game itself and an empty mailbox.
+ * A task executes at most BATCH commands and then submits a new task
+ * for the rest, so a flooded game does not starve the others.
+ * <p/>
+ * Commands are the words of a line of the server protocol:
+ * <pre>
+ * move &lt;id&gt; &lt;from&gt; &lt;to&gt;  -&gt; OK &lt;id&gt; true|false
+ * next &lt;id&gt;              -&gt; OK &lt;id&gt; &lt;player&gt; &lt;die1&gt; &lt;die2&gt; &lt;moves left&gt;
+ * state &lt;id&gt;             -&gt; OK &lt;id&gt; &lt;player&gt; &lt;die1&gt; &lt;die2&gt; &lt;moves left&gt; &lt;28 board values&gt;
+ * </pre>
+ * where locations are named as in the Location enum (B1, R_BAR,
+ * ...) and the board values are those of Game.getBoard. Errors are
+ * answered by "ERR &lt;id&gt; &lt;message&gt;".
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GameActor {
+    /**
+     * the receiver of the answer to a command.
+     */
+    public interface Reply {
+        public void send(String line);
+    }
+
+    /**
+     * the most commands executed by one task; a busy game then lets
+     * the other games on the executor have their turn.
+     */
+    public static final int BATCH = 32;
+
+    private final String id;
+    private final Game game;
+    private final Executor executor;
+    private final Queue<Request> mailbox = new ConcurrentLinkedQueue<Request>();
+    // true while a task is submitted to process the mailbox
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    // only touched by the task processing the mailbox
+    private final int[] board = new int[28];
+    private final int[] dice = new int[2];
+
+    private final Runnable processor = new Runnable() {
+        public void run() {
+            process();
+        }
+    };
+
+    public GameActor(String id, Game game, Executor executor) {
+        this.id = id;
+        this.game = game;
+        this.executor = executor;
+    }
+
+    /**
+     * put a command into the mailbox; the reply is sent once the
+     * command has been executed.
+     *
+     * @param words the words of the command line
+     * @param reply the receiver of the answer
+     */
+    public void submit(String[] words, Reply reply) {
+        mailbox.add(new Request(words, reply));
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(processor);
+        }
+    }
+
+    private void process() {
+        try {
+            Request r;
+            for (int n = 0; n < BATCH && (r = mailbox.poll()) != null; n++) {
+                String answer;
+                try {
+                    answer = execute(r.words);
+                } catch (RuntimeException e) {
+                    answer = "ERR " + id + " " + e;
+                }
+                r.reply.send(answer);
+            }
+        } finally {
+            scheduled.set(false);
+            // the rest of the mailbox, and any command that arrived
+            // after the last poll, go to the back of the executor's
+            // queue
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(processor);
+            }
+        }
+    }
+
+    private String execute(String[] words) {
+        String command = words[0];
+        if (command.equals("move") && words.length == 4) {
+            boolean valid = game.move(Location.valueOf(words[2]),
+                    Location.valueOf(words[3]));
+            return "OK " + id + " " + valid;
+        }
+        if (command.equals("next")) {
+            game.nextTurn();
+            return turnState().toString();
+        }
+        if (command.equals("state")) {
+            StringBuilder answer = turnState();
+            game.getBoard(board);
+            for (int i = 0; i < board.length; i++) {
+                answer.append(' ').append(board[i]);
+            }
+            return answer.toString();
+        }
+        return "ERR " + id + " unknown command";
+    }
+
+    private StringBuilder turnState() {
+        game.getDiceThrown(dice);
+        StringBuilder answer = new StringBuilder(128);
+        answer.append("OK ").append(id)
+                .append(' ').append(game.getPlayerInTurn())
+                .append(' ').append(dice[0])
+                .append(' ').append(dice[1])
+                .append(' ').append(game.getNumberOfMovesLeft());
+        return answer;
+    }
+
+    /**
+     * return the game hosted by this actor. It must only be accessed
+     * through commands while the actor is in use.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    private static final class Request {
+        final String[] words;
+        final Reply reply;
+
+        Request(String[] words, Reply reply) {
+            this.words = words;
+            this.reply = reply;
+        }
+    }
+}
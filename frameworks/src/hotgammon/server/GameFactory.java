@@ -0,0 +1,30 @@
+package hotgammon.server;
+
+import hotgammon.framework.*;
+
+/**
+ * The factory that a GameRegistry uses to create the games it hosts,
+ * thus the registry works with any Game implementation.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public interface GameFactory {
+    /**
+     * create a new game, ready for nextTurn() to be called.
+     *
+     * @return a new game instance
+     */
+    public Game createGame();
+}
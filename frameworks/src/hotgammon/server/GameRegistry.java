@@ -0,0 +1,108 @@
+package hotgammon.server;
+
+import hotgammon.framework.*;
+
+import java.lang.reflect.*;
+import java.util.concurrent.*;
+
+/**
+ * A registry of many concurrently played games, each hosted by a
+ * GameActor and identified by a name chosen by the client. All
+ * actors share one executor, so the number of threads does not
+ * grow with the number of games, and the registry itself is a
+ * concurrent map, so there is no global lock.
+ * <p/>
+ * The executor given by newExecutor runs every command task on a
+ * virtual thread of its own on Java 21 and later, and on a pool of
+ * a thread per processor before that. The frameworks otherwise need
+ * Java 9 or later.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GameRegistry {
+    private final GameFactory factory;
+    private final Executor executor;
+    private final ConcurrentMap<String, GameActor> games =
+            new ConcurrentHashMap<String, GameActor>();
+
+    /**
+     * create a registry.
+     *
+     * @param factory  the factory of the games to host
+     * @param executor the executor that runs the commands of all games
+     */
+    public GameRegistry(GameFactory factory, Executor executor) {
+        this.factory = factory;
+        this.executor = executor;
+    }
+
+    /**
+     * return a new executor for the actors of a registry: a virtual
+     * thread per task if this JVM has virtual threads, otherwise a
+     * fixed pool of a thread per processor.
+     */
+    public static ExecutorService newExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * create and host a new game.
+     *
+     * @param id the name of the game
+     * @return the actor hosting the game, or null if a game of that
+     *         name already exists.
+     */
+    public GameActor create(String id) {
+        Game game = factory.createGame();
+        game.newGame();
+        GameActor actor = new GameActor(id, game, executor);
+        if (games.putIfAbsent(id, actor) != null) {
+            return null;
+        }
+        return actor;
+    }
+
+    /**
+     * return the actor hosting a given game, or null if there is none.
+     */
+    public GameActor get(String id) {
+        return games.get(id);
+    }
+
+    /**
+     * stop hosting a game.
+     *
+     * @return true if the game existed.
+     */
+    public boolean remove(String id) {
+        return games.remove(id) != null;
+    }
+
+    /**
+     * return the number of games hosted.
+     */
+    public int size() {
+        return games.size();
+    }
+}
@@ -0,0 +1,252 @@
+package hotgammon.server;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A TCP server for the games of a GameRegistry, speaking a line
+ * protocol on the loopback interface. Besides the game commands
+ * described in GameActor, the server understands
+ * <pre>
+ * new &lt;id&gt;    -&gt; OK &lt;id&gt;
+ * close &lt;id&gt;  -&gt; OK &lt;id&gt;
+ * </pre>
+ * A single thread handles all connections using non-blocking I/O;
+ * the commands are executed by the game actors, so one connection
+ * may have commands for many games in progress at once. Answers for
+ * the same game come in the order of the commands, answers for
+ * different games may not, which is why every answer starts with
+ * the name of the game. A connection that sends a line longer than
+ * MAX_LINE characters is closed.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class GameServer implements Runnable {
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    /**
+     * the longest command line accepted, in characters.
+     */
+    public static final int MAX_LINE = 256;
+
+    private final GameRegistry registry;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    // connections with answers waiting to be written
+    private final Queue<Connection> flushQueue = new ConcurrentLinkedQueue<Connection>();
+    private volatile boolean running = true;
+
+    /**
+     * create a server; call run() to start serving.
+     *
+     * @param registry the games to serve
+     * @param port     the port to listen on, 0 for any free port
+     */
+    public GameServer(GameRegistry registry, int port) throws IOException {
+        this.registry = registry;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().bind(
+                new InetSocketAddress(InetAddress.getByName(null), port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * return the port the server listens on.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * stop serving and close all connections.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Connection c;
+                while ((c = flushQueue.poll()) != null) {
+                    c.flush();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) connection.read();
+                        if (key.isValid() && key.isWritable()) connection.flush();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * handle a command line received on a connection.
+     */
+    private void handle(String line, Connection connection) {
+        String[] words = line.trim().split(" +");
+        if (words.length < 2) {
+            connection.send("ERR - expected: command id ...");
+            return;
+        }
+        String id = words[1];
+        if (words[0].equals("new")) {
+            connection.send(registry.create(id) != null
+                    ? "OK " + id : "ERR " + id + " already exists");
+        } else if (words[0].equals("close")) {
+            connection.send(registry.remove(id)
+                    ? "OK " + id : "ERR " + id + " no such game");
+        } else {
+            GameActor actor = registry.get(id);
+            if (actor == null) {
+                connection.send("ERR " + id + " no such game");
+            } else {
+                actor.submit(words, connection);
+            }
+        }
+    }
+
+    /**
+     * a client connection; read and flushed by the selector thread
+     * only, answers may be sent from any thread.
+     */
+    private class Connection implements GameActor.Reply {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer in = ByteBuffer.allocate(8192);
+        private final StringBuilder line = new StringBuilder(MAX_LINE);
+        private final Queue<String> out = new ConcurrentLinkedQueue<String>();
+        private final AtomicBoolean flushPending = new AtomicBoolean(false);
+        private ByteBuffer writing;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void read() {
+            int n;
+            try {
+                n = channel.read(in);
+            } catch (IOException e) {
+                n = -1;
+            }
+            if (n < 0) {
+                close(key);
+                return;
+            }
+            in.flip();
+            while (in.hasRemaining()) {
+                char ch = (char) in.get();
+                if (ch == '\n') {
+                    handle(line.toString(), this);
+                    line.setLength(0);
+                } else if (ch != '\r') {
+                    if (line.length() == MAX_LINE) {
+                        // not a client of the protocol
+                        close(key);
+                        return;
+                    }
+                    line.append(ch);
+                }
+            }
+            in.clear();
+        }
+
+        public void send(String answer) {
+            out.add(answer);
+            if (flushPending.compareAndSet(false, true)) {
+                flushQueue.add(this);
+                selector.wakeup();
+            }
+        }
+
+        void flush() {
+            flushPending.set(false);
+            if (!key.isValid()) return;
+            try {
+                while (true) {
+                    if (writing == null || !writing.hasRemaining()) {
+                        StringBuilder answers = new StringBuilder();
+                        String answer;
+                        while ((answer = out.poll()) != null) {
+                            answers.append(answer).append('\n');
+                        }
+                        if (answers.length() == 0) {
+                            key.interestOps(SelectionKey.OP_READ);
+                            return;
+                        }
+                        writing = ByteBuffer.wrap(answers.toString().getBytes(ASCII));
+                    }
+                    channel.write(writing);
+                    if (writing.hasRemaining()) {
+                        // the socket is full, continue when writable
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                close(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import minidraw.framework.*;
+import minidraw.standard.*;
+
+import java.awt.Image;
+import java.awt.Point;
+import java.util.*;
+import java.util.List;
+
+/**
+ * The animation listener that draws the frames of a CheckerAnimator
+ * in a minidraw drawing, on top of a BoardRenderer. When a move
+ * starts the checker is taken off its location by the renderer;
+ * while it flies it is drawn by a figure of this layer; when it
+ * lands the renderer puts it on its new location. The renderer draws
+ * the locations from the stacks of the move, not from the game,
+ * which is played on another thread. The figures of
+ * flying checkers are reused, so animating creates no figures once
+ * the most checkers ever in flight at once have been drawn.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class AnimationLayer implements AnimationListener {
+    private final Drawing drawing;
+    private final BoardRenderer renderer;
+    private final Image blackChecker, redChecker;
+
+    // the figures of the checkers in flight, and the spare ones
+    private final List<ImageFigure> inFlight = new ArrayList<ImageFigure>();
+    private final Deque<ImageFigure> spare = new ArrayDeque<ImageFigure>();
+    private final Point at = new Point();
+
+    public AnimationLayer(Drawing drawing, BoardRenderer renderer,
+                          Image blackChecker, Image redChecker) {
+        this.drawing = drawing;
+        this.renderer = renderer;
+        this.blackChecker = blackChecker;
+        this.redChecker = redChecker;
+    }
+
+    public void moveStarted(Location from, Location to, CheckerAnimator.Stacks stacks) {
+        renderer.moveStarted(from, stacks);
+    }
+
+    public void moveLanded(Location from, Location to, CheckerAnimator.Stacks stacks) {
+        renderer.moveLanded(to, stacks);
+    }
+
+    public void diceRolled(int[] values) {
+        renderer.diceRolled(values);
+    }
+
+    public void frame(List<CheckerAnimator.Sprite> sprites) {
+        while (inFlight.size() > sprites.size()) {
+            ImageFigure figure = inFlight.remove(inFlight.size() - 1);
+            drawing.remove(figure);
+            spare.push(figure);
+        }
+        for (int i = 0; i < sprites.size(); i++) {
+            CheckerAnimator.Sprite sprite = sprites.get(i);
+            Image image = sprite.color == Color.BLACK ? blackChecker : redChecker;
+            if (i == inFlight.size()) {
+                ImageFigure figure = spare.isEmpty()
+                        ? new ImageFigure(image, new Point(sprite.x, sprite.y)) : spare.pop();
+                inFlight.add(figure);
+                drawing.add(figure);
+            }
+            ImageFigure figure = inFlight.get(i);
+            figure.invalidate();
+            at.setLocation(sprite.x, sprite.y);
+            figure.set(image, at);
+            figure.changed();
+        }
+        drawing.requestUpdate();
+    }
+
+    /**
+     * return the number of checkers drawn in flight.
+     */
+    public int getCheckersInFlight() {
+        return inFlight.size();
+    }
+}
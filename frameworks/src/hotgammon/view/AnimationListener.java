@@ -0,0 +1,51 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+
+import java.util.List;
+
+/**
+ * The receiver of the frames of a CheckerAnimator. All methods are
+ * invoked on the thread the animator publishes to, normally the
+ * Swing event dispatch thread, in the order the game events
+ * happened. A move comes with the stacks it left, taken on the game
+ * thread, so the listener need not read the game.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public interface AnimationListener {
+    /**
+     * a checker has left a location and is on its way to another;
+     * it is drawn by the frames until moveLanded tells it landed.
+     */
+    public void moveStarted(Location from, Location to, CheckerAnimator.Stacks stacks);
+
+    /**
+     * the checker of a move has landed on its location.
+     */
+    public void moveLanded(Location from, Location to, CheckerAnimator.Stacks stacks);
+
+    /**
+     * the dice were rolled.
+     */
+    public void diceRolled(int[] values);
+
+    /**
+     * the checkers in flight at the time of the latest frame; an
+     * empty list when the last one has landed.
+     */
+    public void frame(List<CheckerAnimator.Sprite> sprites);
+}
@@ -0,0 +1,280 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The geometry of the board at some size: the rectangle of every
+ * location and the position of every checker on it. All of it is
+ * derived from the size of the board and the proportions of the
+ * board image (594 x 438 pixels), so the board may be drawn at any
+ * scale, for a HiDPI display or a resized window.
+ * <p/>
+ * A layout is computed once per size and cached; forScale and
+ * forSize hand out the same layout for the same size. Like Convert,
+ * a layout cuts the board into bands at every rectangle edge, so
+ * hit testing is two array lookups, and keeps the first position
+ * and step of the checkers of each location. Where rectangles
+ * overlap, the location first in the Location enum wins.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class BoardLayout {
+    /** the size of the board image the proportions are taken from */
+    public static final int REFERENCE_WIDTH = 594, REFERENCE_HEIGHT = 438;
+
+    // the proportions, in pixels of the board image
+    private static final int LEFT_HALF_X = 15, RIGHT_HALF_X = 300;
+    private static final int POINT_WIDTH = 40, POINT_HEIGHT = 200;
+    private static final int BLACK_POINTS_Y = 20, RED_POINTS_Y = 217;
+    private static final int BAR_X = 260, BAR_WIDTH = 36;
+    private static final int BEAR_OFF_X = 545;
+    private static final int UPPER_Y = 12, LOWER_Y = 220;
+    private static final int CHECKER = 27;
+
+    private static final ConcurrentMap<Long, BoardLayout> layouts =
+            new ConcurrentHashMap<Long, BoardLayout>();
+
+    private final int width, height;
+    private final Map<Location, Rectangle> rectangles =
+            new EnumMap<Location, Rectangle>(Location.class);
+    private final int checkerWidth, checkerHeight;
+
+    // the band of each x and y within the bounds of all rectangles
+    private int minX, maxX, minY, maxY;
+    private int[] xBand, yBand;
+    private int rows;
+    // the location of each cell, x band major; null if none
+    private Location[] cells;
+
+    // the position of the first checker of each location, and the
+    // offset of each further checker
+    private final int[] checkerX = new int[Location.NUMBER_OF_LOCATIONS];
+    private final int[] checkerY = new int[Location.NUMBER_OF_LOCATIONS];
+    private final int[] checkerStepY = new int[Location.NUMBER_OF_LOCATIONS];
+
+    /**
+     * return the layout of the board drawn at a scale of the board
+     * image.
+     */
+    public static BoardLayout forScale(double scale) {
+        return forSize((int) Math.round(REFERENCE_WIDTH * scale),
+                (int) Math.round(REFERENCE_HEIGHT * scale));
+    }
+
+    /**
+     * return the layout of the board drawn at a size, which need not
+     * have the proportions of the board image.
+     */
+    public static BoardLayout forSize(int width, int height) {
+        Long key = (long) width << 32 | height;
+        BoardLayout layout = layouts.get(key);
+        if (layout == null) {
+            layout = new BoardLayout(width, height);
+            BoardLayout other = layouts.putIfAbsent(key, layout);
+            if (other != null) layout = other;
+        }
+        return layout;
+    }
+
+    private BoardLayout(int width, int height) {
+        this.width = width;
+        this.height = height;
+        checkerWidth = x(CHECKER);
+        checkerHeight = y(CHECKER);
+        defineRectangles();
+        defineBands();
+        defineCheckerPositions();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * return the size of a checker; it is square when the board has
+     * the proportions of the board image.
+     */
+    public int getCheckerWidth() {
+        return checkerWidth;
+    }
+
+    public int getCheckerHeight() {
+        return checkerHeight;
+    }
+
+    /**
+     * return the rectangle of a location.
+     */
+    public Rectangle getRectangle(Location location) {
+        return new Rectangle(rectangles.get(location));
+    }
+
+    /**
+     * return the location at (x,y), or null if not on any location.
+     */
+    public Location xy2Location(int x, int y) {
+        if (x < minX || x >= maxX || y < minY || y >= maxY) {
+            return null;
+        }
+        return cells[xBand[x - minX] * rows + yBand[y - minY]];
+    }
+
+    /**
+     * The search of all rectangles that xy2Location is precomputed
+     * from.
+     */
+    Location scanXy2Location(int x, int y) {
+        for (Map.Entry<Location, Rectangle> e : rectangles.entrySet()) {
+            if (e.getValue().contains(x, y)) {
+                return e.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * compute the position of a checker on a location that already
+     * has count checkers, and store it in a given point.
+     *
+     * @return result
+     */
+    public Point locationAndCount2xy(Location location, int count, Point result) {
+        int i = location.getIndex();
+        result.x = checkerX[i];
+        result.y = checkerY[i] + checkerStepY[i] * count;
+        return result;
+    }
+
+    // == derivation
+
+    /**
+     * scale an x coordinate of the board image.
+     */
+    private int x(int x) {
+        return (int) Math.round((double) x * width / REFERENCE_WIDTH);
+    }
+
+    private int y(int y) {
+        return (int) Math.round((double) y * height / REFERENCE_HEIGHT);
+    }
+
+    /**
+     * define the rectangle of a location from one in the board image;
+     * the edges are scaled, not the size, so neighbours stay
+     * neighbours.
+     */
+    private void define(Location l, int x, int y, int w, int h) {
+        rectangles.put(l, new Rectangle(x(x), y(y), x(x + w) - x(x), y(y + h) - y(y)));
+    }
+
+    private void defineRectangles() {
+        // the points, numbered from the middle of the board outwards
+        Location[] blackLeft = {Location.B7, Location.B8, Location.B9,
+                Location.B10, Location.B11, Location.B12};
+        Location[] redLeft = {Location.R7, Location.R8, Location.R9,
+                Location.R10, Location.R11, Location.R12};
+        Location[] blackRight = {Location.B6, Location.B5, Location.B4,
+                Location.B3, Location.B2, Location.B1};
+        Location[] redRight = {Location.R6, Location.R5, Location.R4,
+                Location.R3, Location.R2, Location.R1};
+        for (int i = 0; i < 6; i++) {
+            int left = LEFT_HALF_X + (5 - i) * POINT_WIDTH;
+            int right = RIGHT_HALF_X + i * POINT_WIDTH;
+            define(blackLeft[i], left, BLACK_POINTS_Y, POINT_WIDTH, POINT_HEIGHT);
+            define(redLeft[i], left, RED_POINTS_Y, POINT_WIDTH, POINT_HEIGHT);
+            define(blackRight[i], right, BLACK_POINTS_Y, POINT_WIDTH, POINT_HEIGHT);
+            define(redRight[i], right, RED_POINTS_Y, POINT_WIDTH, POINT_HEIGHT);
+        }
+        define(Location.B_BAR, BAR_X, LOWER_Y, BAR_WIDTH, POINT_HEIGHT);
+        define(Location.R_BAR, BAR_X, UPPER_Y, BAR_WIDTH, POINT_HEIGHT);
+        define(Location.B_BEAR_OFF, BEAR_OFF_X, UPPER_Y, POINT_WIDTH, POINT_HEIGHT);
+        define(Location.R_BEAR_OFF, BEAR_OFF_X, LOWER_Y, POINT_WIDTH, POINT_HEIGHT);
+    }
+
+    private void defineBands() {
+        TreeSet<Integer> xs = new TreeSet<Integer>();
+        TreeSet<Integer> ys = new TreeSet<Integer>();
+        for (Rectangle r : rectangles.values()) {
+            xs.add(r.x);
+            xs.add(r.x + r.width);
+            ys.add(r.y);
+            ys.add(r.y + r.height);
+        }
+        minX = xs.first();
+        maxX = xs.last();
+        minY = ys.first();
+        maxY = ys.last();
+        Integer[] xEdges = xs.toArray(new Integer[xs.size()]);
+        Integer[] yEdges = ys.toArray(new Integer[ys.size()]);
+        xBand = bands(xEdges);
+        yBand = bands(yEdges);
+        rows = yEdges.length - 1;
+        cells = new Location[(xEdges.length - 1) * rows];
+        for (int b = 0; b < xEdges.length - 1; b++) {
+            for (int r = 0; r < rows; r++) {
+                cells[b * rows + r] = scanXy2Location(xEdges[b], yEdges[r]);
+            }
+        }
+    }
+
+    /**
+     * return the band of each coordinate from the first edge to the
+     * last; band i runs from edge i up to edge i+1.
+     */
+    private static int[] bands(Integer[] edges) {
+        int[] band = new int[edges[edges.length - 1] - edges[0]];
+        int b = 0;
+        for (int c = 0; c < band.length; c++) {
+            if (edges[0] + c >= edges[b + 1]) b++;
+            band[c] = b;
+        }
+        return band;
+    }
+
+    /**
+     * a checker is centred on its location. Black's points, the
+     * black bear off and the red bar are stacked downwards from the
+     * top of the location, the others upwards from the bottom; the
+     * bear offs stack at half a checker's height, and the red one
+     * starts a checker up.
+     */
+    private void defineCheckerPositions() {
+        for (Location l : Location.values()) {
+            Rectangle box = rectangles.get(l);
+            int i = l.getIndex();
+            boolean bearOff = l == Location.B_BEAR_OFF || l == Location.R_BEAR_OFF;
+            int step = bearOff ? checkerHeight / 2 : checkerHeight;
+            checkerX[i] = box.x + (box.width - checkerWidth) / 2;
+            boolean blackPoint = i >= Location.B12.getIndex() && i <= Location.B1.getIndex();
+            if (blackPoint || l == Location.B_BEAR_OFF || l == Location.R_BAR) {
+                checkerY[i] = box.y;
+                checkerStepY[i] = step;
+            } else {
+                int first = l == Location.R_BEAR_OFF ? 2 : 1;
+                checkerY[i] = box.y + box.height - step * first;
+                checkerStepY[i] = -step;
+            }
+        }
+    }
+}
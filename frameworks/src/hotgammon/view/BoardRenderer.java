@@ -0,0 +1,237 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import minidraw.framework.*;
+import minidraw.standard.*;
+
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.*;
+import java.util.List;
+
+/**
+ * An observer of a game that keeps the checker and dice figures of a
+ * drawing in step with the game, changing only what a move changed.
+ * On a checker move only the stacks of the two locations and the
+ * bars are compared with the game; a checker that left is removed,
+ * one that arrived is added at its slot given by Convert. The
+ * drawing then invalidates just the boxes of those checkers, which
+ * the drawing view repaints, instead of the whole board.
+ * <p/>
+ * Checker figures are pooled: a removed figure is kept and reused
+ * for the next checker of its colour, so a game in progress creates
+ * no figures after the first position is drawn.
+ * <p/>
+ * The renderer changes the drawing, so it must be notified on the
+ * thread that paints the drawing. As a game observer it reads the
+ * game, so that must be the thread playing it too; a game played on
+ * another thread is drawn through a CheckerAnimator instead, from
+ * the stacks it took of each move.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class BoardRenderer implements GameObserver {
+    /** where the red and black die are drawn */
+    public static final Point RED_DIE = new Point(216, 202);
+    public static final Point BLACK_DIE = new Point(306, 202);
+
+    private static final Location BLACK_BAR = Location.B_BAR;
+    private static final Location RED_BAR = Location.R_BAR;
+
+    private final Game game;
+    private final Drawing drawing;
+    private final Image blackChecker, redChecker;
+    private final Image[] dieFaces;
+
+    // the checker figures on each location, bottom first
+    private final List<List<CheckerFigure>> stacks = new ArrayList<List<CheckerFigure>>();
+    private final Deque<CheckerFigure> blackPool = new ArrayDeque<CheckerFigure>();
+    private final Deque<CheckerFigure> redPool = new ArrayDeque<CheckerFigure>();
+    private final ImageFigure redDie, blackDie;
+    private final Point slot = new Point();
+    // the move whose stacks each location was last drawn from
+    private final long[] drawnMove = new long[Location.NUMBER_OF_LOCATIONS];
+    private int figuresCreated;
+
+    /**
+     * create a renderer using the images of the minidraw image
+     * manager: blackchecker, redchecker and die0 to die6.
+     */
+    public BoardRenderer(Game game, Drawing drawing) {
+        this(game, drawing, image("blackchecker"), image("redchecker"), dieFaces());
+    }
+
+    /**
+     * create a renderer using the images of a sprite atlas.
+     */
+    public BoardRenderer(Game game, Drawing drawing, SpriteAtlas atlas) {
+        this(game, drawing, atlas.getImage("blackchecker"), atlas.getImage("redchecker"),
+                atlas.getDieFaces());
+    }
+
+    /**
+     * @param dieFaces the images of the die faces 0 (no value) to 6
+     */
+    public BoardRenderer(Game game, Drawing drawing,
+                         Image blackChecker, Image redChecker, Image[] dieFaces) {
+        this.game = game;
+        this.drawing = drawing;
+        this.blackChecker = blackChecker;
+        this.redChecker = redChecker;
+        this.dieFaces = dieFaces;
+        for (int i = 0; i < Location.NUMBER_OF_LOCATIONS; i++) {
+            stacks.add(new ArrayList<CheckerFigure>());
+        }
+        redDie = new ImageFigure(dieFaces[0], RED_DIE);
+        blackDie = new ImageFigure(dieFaces[0], BLACK_DIE);
+        drawing.add(redDie);
+        drawing.add(blackDie);
+    }
+
+    private static Image image(String name) {
+        return ImageManager.getSingleton().getImage(name);
+    }
+
+    private static Image[] dieFaces() {
+        Image[] faces = new Image[7];
+        for (int i = 0; i < faces.length; i++) {
+            faces[i] = image("die" + i);
+        }
+        return faces;
+    }
+
+    /**
+     * bring every location of the drawing in step with the game; to
+     * be called when the renderer is made and after a new game.
+     */
+    public void sync() {
+        for (Location l : Location.LOCATIONS_BY_INDEX) {
+            reconcile(l);
+        }
+        drawing.requestUpdate();
+    }
+
+    public void checkerMove(Location from, Location to) {
+        reconcile(from);
+        reconcile(to);
+        // a checker hit on 'to' has gone to its bar
+        reconcile(BLACK_BAR);
+        reconcile(RED_BAR);
+        drawing.requestUpdate();
+    }
+
+    /**
+     * draw the location a checker left and the bars as an animated
+     * move left them, without requesting an update.
+     */
+    public void moveStarted(Location from, CheckerAnimator.Stacks stacks) {
+        reconcile(from, stacks);
+        reconcile(BLACK_BAR, stacks);
+        reconcile(RED_BAR, stacks);
+    }
+
+    /**
+     * draw the location a checker landed on and the bars as an
+     * animated move left them.
+     */
+    public void moveLanded(Location to, CheckerAnimator.Stacks stacks) {
+        reconcile(to, stacks);
+        reconcile(BLACK_BAR, stacks);
+        reconcile(RED_BAR, stacks);
+        drawing.requestUpdate();
+    }
+
+    public void diceRolled(int[] values) {
+        setFace(redDie, values[0], RED_DIE);
+        setFace(blackDie, values[1], BLACK_DIE);
+        drawing.requestUpdate();
+    }
+
+    private void setFace(ImageFigure die, int value, Point at) {
+        die.invalidate();
+        die.set(dieFaces[value], at);
+        die.changed();
+    }
+
+    /**
+     * remove the figures of a location that are not in the game, and
+     * add those missing.
+     */
+    private void reconcile(Location location) {
+        reconcile(location, game.getColor(location), game.getCount(location));
+    }
+
+    /**
+     * bring a location in step with the stacks of a move, unless it
+     * was drawn from a later move already: a checker landing after
+     * the next move started from the same location.
+     */
+    private void reconcile(Location location, CheckerAnimator.Stacks stacks) {
+        int i = location.getIndex();
+        if (stacks.getMove() < drawnMove[i]) return;
+        drawnMove[i] = stacks.getMove();
+        reconcile(location, stacks.getColor(location), stacks.getCount(location));
+    }
+
+    private void reconcile(Location location, Color color, int count) {
+        List<CheckerFigure> stack = stacks.get(location.getIndex());
+        while (stack.size() > count
+                || (!stack.isEmpty() && stack.get(stack.size() - 1).color != color)) {
+            release(stack.remove(stack.size() - 1));
+        }
+        while (stack.size() < count) {
+            CheckerFigure checker = acquire(color);
+            Convert.locationAndCount2xy(location, stack.size(), slot);
+            Rectangle box = checker.displayBox();
+            checker.moveBy(slot.x - box.x, slot.y - box.y);
+            drawing.add(checker);
+            stack.add(checker);
+        }
+    }
+
+    private CheckerFigure acquire(Color color) {
+        Deque<CheckerFigure> pool = color == Color.BLACK ? blackPool : redPool;
+        if (!pool.isEmpty()) {
+            return pool.pop();
+        }
+        figuresCreated++;
+        return new CheckerFigure(color, color == Color.BLACK ? blackChecker : redChecker);
+    }
+
+    private void release(CheckerFigure checker) {
+        drawing.remove(checker);
+        (checker.color == Color.BLACK ? blackPool : redPool).push(checker);
+    }
+
+    /**
+     * return the number of checker figures created so far.
+     */
+    public int getFiguresCreated() {
+        return figuresCreated;
+    }
+
+    /**
+     * A checker figure, which knows its colour.
+     */
+    static class CheckerFigure extends ImageFigure {
+        final Color color;
+
+        CheckerFigure(Color color, Image image) {
+            super(image, new Point(0, 0));
+            this.color = color;
+        }
+    }
+}
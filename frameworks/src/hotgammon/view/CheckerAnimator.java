@@ -0,0 +1,405 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+
+import javax.swing.SwingUtilities;
+import java.awt.Point;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A game observer that animates checker moves off the event dispatch
+ * thread. The game thread only records the start and end point of a
+ * moving checker, as given by Convert, in a non-blocking queue; it
+ * never waits for the view. A timer thread computes a frame at a
+ * fixed rate, interpolating the position of each checker in flight,
+ * and publishes it to an AnimationListener through an executor,
+ * normally SwingUtilities.invokeLater.
+ * <p/>
+ * Frames are coalesced: at most one publishing task is pending at
+ * any time, and it delivers only the latest frame, together with all
+ * move and dice events since the last delivery. A frame that is
+ * replaced before the event dispatch thread got to it, or a tick the
+ * timer thread was too late for, is counted as dropped.
+ * <p/>
+ * The animator reads the game when notified, so it must be notified
+ * on the thread that plays the game. It then takes the stacks the
+ * move changed, which the listener draws from, so the game is never
+ * read on the event dispatch thread, and the board drawn is the one
+ * of the events delivered, not a later one.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class CheckerAnimator implements GameObserver {
+    private final Game game;
+    private final AnimationListener listener;
+    private final Executor publisher;
+    private final long periodNanos, durationNanos;
+
+    // game thread -> timer thread
+    private final Queue<Event> incoming = new ConcurrentLinkedQueue<Event>();
+    // owned by the game thread
+    private long moves;
+    // timer thread -> publishing task
+    private final AtomicReference<Frame> pending = new AtomicReference<Frame>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    // owned by the timer thread
+    private final List<Flight> flying = new ArrayList<Flight>();
+    private boolean wasFlying;
+    private long firstTick, lastTick = -1;
+
+    private ScheduledExecutorService timer;
+
+    // metrics
+    private final AtomicLong computed = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private final Runnable tick = new Runnable() {
+        public void run() {
+            tick(System.nanoTime());
+        }
+    };
+
+    private final Runnable deliverer = new Runnable() {
+        public void run() {
+            deliver();
+        }
+    };
+
+    /**
+     * create an animator publishing to the Swing event dispatch
+     * thread.
+     *
+     * @param framesPerSecond the rate frames are computed at
+     * @param durationMillis  the time a checker takes to move
+     */
+    public CheckerAnimator(Game game, AnimationListener listener,
+                           int framesPerSecond, int durationMillis) {
+        this(game, listener, framesPerSecond, durationMillis, new Executor() {
+            public void execute(Runnable task) {
+                SwingUtilities.invokeLater(task);
+            }
+        });
+    }
+
+    /**
+     * create an animator.
+     *
+     * @param publisher the executor that runs the deliveries to the
+     *                  listener; it must run them one at a time
+     */
+    public CheckerAnimator(Game game, AnimationListener listener,
+                           int framesPerSecond, int durationMillis, Executor publisher) {
+        this.game = game;
+        this.listener = listener;
+        this.publisher = publisher;
+        this.periodNanos = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+        this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMillis);
+    }
+
+    /**
+     * start the timer thread.
+     */
+    public synchronized void start() {
+        if (timer != null) return;
+        timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "checker-animator");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        firstTick = System.nanoTime();
+        timer.scheduleAtFixedRate(tick, 0, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * stop the timer thread; checkers in flight stay where they are.
+     */
+    public synchronized void stop() {
+        if (timer == null) return;
+        timer.shutdown();
+        try {
+            timer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        timer = null;
+    }
+
+    public void checkerMove(Location from, Location to) {
+        Stacks stacks = new Stacks(++moves, game, from, to);
+        // the checker was on top of 'from' and is now on top of 'to'
+        Point start = Convert.locationAndCount2xy(from, stacks.getCount(from));
+        Point end = Convert.locationAndCount2xy(to, stacks.getCount(to) - 1);
+        incoming.offer(new Event(from, to, stacks.getColor(to), start, end, null, stacks));
+    }
+
+    public void diceRolled(int[] values) {
+        // copy, the game may reuse its array before we deliver
+        incoming.offer(new Event(null, null, null, null, null, values.clone(), null));
+    }
+
+    /**
+     * compute the frame at the given time and publish it; invoked by
+     * the timer thread.
+     */
+    void tick(long now) {
+        // with a fixed rate a late timer runs the missed ticks back
+        // to back; skip those and count them as dropped
+        long number = (now - firstTick) / periodNanos;
+        if (number <= lastTick) return;
+        if (lastTick >= 0 && number > lastTick + 1) {
+            dropped.addAndGet(number - lastTick - 1);
+        }
+        lastTick = number;
+
+        List<Event> events = new ArrayList<Event>();
+        Event event;
+        while ((event = incoming.poll()) != null) {
+            if (event.values == null) {
+                flying.add(new Flight(event, now));
+            }
+            events.add(event);
+        }
+
+        List<Sprite> sprites = new ArrayList<Sprite>(flying.size());
+        for (Iterator<Flight> i = flying.iterator(); i.hasNext(); ) {
+            Flight flight = i.next();
+            double t = (double) (now - flight.started) / durationNanos;
+            if (t >= 1.0) {
+                i.remove();
+                events.add(flight.landed);
+            } else {
+                sprites.add(flight.at(t));
+            }
+        }
+        if (events.isEmpty() && sprites.isEmpty() && !wasFlying) return;
+        wasFlying = !sprites.isEmpty();
+        publish(new Frame(sprites, events));
+    }
+
+    private void publish(Frame frame) {
+        computed.incrementAndGet();
+        // only the timer thread sets frames, so a frame taken back
+        // here was never seen by the listener; keep its events
+        Frame replaced = pending.getAndSet(null);
+        if (replaced != null) {
+            dropped.incrementAndGet();
+            replaced.events.addAll(frame.events);
+            frame = new Frame(frame.sprites, replaced.events);
+        }
+        pending.set(frame);
+        if (scheduled.compareAndSet(false, true)) {
+            publisher.execute(deliverer);
+        }
+    }
+
+    private void deliver() {
+        try {
+            Frame frame = pending.getAndSet(null);
+            if (frame != null) {
+                for (Event event : frame.events) {
+                    if (event.values != null) {
+                        listener.diceRolled(event.values);
+                    } else if (event.started) {
+                        listener.moveStarted(event.from, event.to, event.stacks);
+                    } else {
+                        listener.moveLanded(event.from, event.to, event.stacks);
+                    }
+                }
+                listener.frame(frame.sprites);
+                delivered.incrementAndGet();
+            }
+            batches.incrementAndGet();
+        } finally {
+            scheduled.set(false);
+        }
+        // a frame may have arrived after we took ours but before the
+        // flag was cleared; its publish did not schedule a task.
+        if (pending.get() != null && scheduled.compareAndSet(false, true)) {
+            publisher.execute(deliverer);
+        }
+    }
+
+    // == metrics
+
+    /**
+     * return the number of frames computed by the timer thread.
+     */
+    public long getComputedCount() {
+        return computed.get();
+    }
+
+    /**
+     * return the number of frames delivered to the listener.
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * return the number of frames dropped, either replaced by a
+     * newer frame before delivery or skipped by a late timer.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * return the number of delivery tasks run on the publisher.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * A checker drawn at a point between two locations.
+     */
+    public static final class Sprite {
+        public final Color color;
+        public final int x, y;
+
+        Sprite(Color color, int x, int y) {
+            this.color = color;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /**
+     * The checkers of the locations a move changed - the two locations
+     * and the bars - as the move left them. Moves are numbered in the
+     * order they were made, so a listener can tell an older picture of
+     * a location from a newer one.
+     */
+    public static final class Stacks {
+        private final long move;
+        private final Location[] locations = new Location[4];
+        private final Color[] colors = new Color[4];
+        private final int[] counts = new int[4];
+
+        Stacks(long move, Game game, Location from, Location to) {
+            this.move = move;
+            locations[0] = from;
+            locations[1] = to;
+            locations[2] = Location.B_BAR;
+            locations[3] = Location.R_BAR;
+            for (int i = 0; i < locations.length; i++) {
+                colors[i] = game.getColor(locations[i]);
+                counts[i] = game.getCount(locations[i]);
+            }
+        }
+
+        /**
+         * return the number of the move, counted from 1.
+         */
+        public long getMove() {
+            return move;
+        }
+
+        public Color getColor(Location location) {
+            return colors[indexOf(location)];
+        }
+
+        public int getCount(Location location) {
+            return counts[indexOf(location)];
+        }
+
+        private int indexOf(Location location) {
+            for (int i = 0; i < locations.length; i++) {
+                if (locations[i] == location) return i;
+            }
+            throw new IllegalArgumentException("The move did not change " + location);
+        }
+    }
+
+    /**
+     * a game event: a dice roll, or a move that started or landed.
+     */
+    private static final class Event {
+        final Location from, to;
+        final Color color;
+        final Point start, end;
+        final int[] values;
+        final Stacks stacks;
+        final boolean started;
+
+        Event(Location from, Location to, Color color, Point start, Point end,
+              int[] values, Stacks stacks) {
+            this(from, to, color, start, end, values, stacks, true);
+        }
+
+        private Event(Location from, Location to, Color color, Point start, Point end,
+                      int[] values, Stacks stacks, boolean started) {
+            this.from = from;
+            this.to = to;
+            this.color = color;
+            this.start = start;
+            this.end = end;
+            this.values = values;
+            this.stacks = stacks;
+            this.started = started;
+        }
+
+        Event landed() {
+            return new Event(from, to, color, start, end, null, stacks, false);
+        }
+    }
+
+    /**
+     * a checker in flight.
+     */
+    private static final class Flight {
+        final Event landed;
+        final long started;
+
+        Flight(Event move, long started) {
+            this.landed = move.landed();
+            this.started = started;
+        }
+
+        /**
+         * return the checker at the fraction t of the flight, easing
+         * in and out.
+         */
+        Sprite at(double t) {
+            double s = t * t * (3 - 2 * t);
+            Point a = landed.start, b = landed.end;
+            return new Sprite(landed.color,
+                    (int) Math.round(a.x + s * (b.x - a.x)),
+                    (int) Math.round(a.y + s * (b.y - a.y)));
+        }
+    }
+
+    /**
+     * the checkers in flight and the events since the last frame.
+     */
+    private static final class Frame {
+        final List<Sprite> sprites;
+        final List<Event> events;
+
+        Frame(List<Sprite> sprites, List<Event> events) {
+            this.sprites = sprites;
+            this.events = events;
+        }
+    }
+}
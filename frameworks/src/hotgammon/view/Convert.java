@@ -2,14 +2,18 @@ package hotgammon.view;
 
 import hotgammon.framework.*;
 
-import java.awt.Rectangle;
 import java.awt.Point;
-import java.util.*;
 
 /**
  * Mappings between graphical coordinate (x,y) and locations;
  * and vice versa.
  * <p/>
+ * The mappings are those of the board drawn at the size of the board
+ * image, BoardLayout.forScale(1.0); see BoardLayout for the board at
+ * other sizes. ConvertVerifier checks them against the rectangles of
+ * the locations and the computation of checker positions they were
+ * derived from.
+ * <p/>
  * This source code is from the book
  * "Flexible, Reliable Software:
  * Using Patterns and Agile Development"
@@ -34,14 +38,7 @@ public class Convert {
      * @param y the y coordinate
      */
     public static Location xy2Location(int x, int y) {
-        Set<Location> s = mapLocation2Rectangle.keySet();
-        for (Location l : s) {
-            Rectangle r = mapLocation2Rectangle.get(l);
-            if (r.contains(x, y)) {
-                return l;
-            }
-        }
-        return null;
+        return LAYOUT.xy2Location(x, y);
     }
 
     /**
@@ -53,98 +50,19 @@ public class Convert {
      * @param count    the number of checkers already on this location
      */
     public static Point locationAndCount2xy(Location location, int count) {
-        Rectangle box = mapLocation2Rectangle.get(location);
-
-        int size = 27; // magic constant: a checker is 27 pixels wide and high...
-        // calculate x
-        int newx = box.x + (box.width - size) / 2;
-
-        // calculate y
-        int newy;
-        // stack in the y-directio if on the bear off locations
-        if (location == Location.B_BEAR_OFF
-                ||
-                location == Location.R_BEAR_OFF) {
-            size /= 2;
-        }
-        // if on the black side of the board
-        if (location == Location.B1 ||
-                location == Location.B2 ||
-                location == Location.B3 ||
-                location == Location.B4 ||
-                location == Location.B5 ||
-                location == Location.B6 ||
-                location == Location.B7 ||
-                location == Location.B8 ||
-                location == Location.B9 ||
-                location == Location.B10 ||
-                location == Location.B11 ||
-                location == Location.B12 ||
-                location == Location.B12 ||
-                location == Location.B_BEAR_OFF ||
-                location == Location.R_BAR) {
-            newy = size * count + box.y;
-        } else if (location == Location.R_BEAR_OFF) {
-            newy =
-                    (box.y + box.height)
-                            - (size * (count + 2));
-        } else {
-            newy =
-                    (box.y + box.height)
-                            - (size * (count + 1));
-        }
-        return new Point(newx, newy);
+        return locationAndCount2xy(location, count, new Point());
     }
 
-    private static Map<Location, Rectangle> mapLocation2Rectangle;
-
-    private static void defineLocation2RectangleMap() {
-        mapLocation2Rectangle = new HashMap<Location, Rectangle>();
-        // Black normal points
-        processARectangleCreationForLocation(Location.B12, new Rectangle(15 + 0 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B11, new Rectangle(15 + 1 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B10, new Rectangle(15 + 2 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B9, new Rectangle(15 + 3 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B8, new Rectangle(15 + 4 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B7, new Rectangle(15 + 5 * 40, 20, 40, 200));
-
-        processARectangleCreationForLocation(Location.B6, new Rectangle(300 + 0 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B5, new Rectangle(300 + 1 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B4, new Rectangle(300 + 2 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B3, new Rectangle(300 + 3 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B2, new Rectangle(300 + 4 * 40, 20, 40, 200));
-        processARectangleCreationForLocation(Location.B1, new Rectangle(300 + 5 * 40, 20, 40, 200));
-
-        // red normal points
-        processARectangleCreationForLocation(Location.R12, new Rectangle(15 + 0 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R11, new Rectangle(15 + 1 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R10, new Rectangle(15 + 2 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R9, new Rectangle(15 + 3 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R8, new Rectangle(15 + 4 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R7, new Rectangle(15 + 5 * 40, 217, 40, 200));
-
-        processARectangleCreationForLocation(Location.R6, new Rectangle(300 + 0 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R5, new Rectangle(300 + 1 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R4, new Rectangle(300 + 2 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R3, new Rectangle(300 + 3 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R2, new Rectangle(300 + 4 * 40, 217, 40, 200));
-        processARectangleCreationForLocation(Location.R1, new Rectangle(300 + 5 * 40, 217, 40, 200));
-
-        // black special points
-        processARectangleCreationForLocation(Location.B_BAR, new Rectangle(260, 220, 36, 200));
-        processARectangleCreationForLocation(Location.B_BEAR_OFF, new Rectangle(545, 12, 40, 200));
-
-        // red special points
-        processARectangleCreationForLocation(Location.R_BAR, new Rectangle(260, 12, 36, 200));
-        processARectangleCreationForLocation(Location.R_BEAR_OFF, new Rectangle(545, 220, 40, 200));
-    }
-
-    private static void processARectangleCreationForLocation(Location l, Rectangle r) {
-        mapLocation2Rectangle.put(l, r);
+    /**
+     * As locationAndCount2xy(location, count), but the position is
+     * stored in a given point, so nothing is allocated.
+     *
+     * @param result the point to store the position in
+     * @return result
+     */
+    public static Point locationAndCount2xy(Location location, int count, Point result) {
+        return LAYOUT.locationAndCount2xy(location, count, result);
     }
 
-    // I need to initialize the map
-    static {
-        defineLocation2RectangleMap();
-    }
-}
\ No newline at end of file
+    private static final BoardLayout LAYOUT = BoardLayout.forScale(1.0);
+}
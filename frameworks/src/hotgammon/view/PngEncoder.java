@@ -0,0 +1,110 @@
+package hotgammon.view;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An encoder of RGB images as PNG, made for many small images of the
+ * same size. Every row is filtered by its difference to the row
+ * above, which suits the board, and deflated at the fastest level;
+ * ImageIO's writer tries several filters per row and takes twice as
+ * long for the same size. The buffers and the deflater are kept, so
+ * an encoder must only be used by one thread.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+class PngEncoder {
+    private static final byte[] SIGNATURE = {(byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n'};
+    private static final int FILTER_UP = 2;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+    private byte[] raw = new byte[0], compressed = new byte[0];
+    private final byte[] header = new byte[13];
+
+    /**
+     * return an image of type TYPE_INT_RGB as PNG.
+     */
+    byte[] encode(BufferedImage image) {
+        int width = image.getWidth(), height = image.getHeight();
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int size = height * (1 + 3 * width);
+        if (raw.length < size) {
+            raw = new byte[size];
+            compressed = new byte[size + size / 8 + 64];
+        }
+        int p = 0;
+        for (int y = 0; y < height; y++) {
+            raw[p++] = FILTER_UP;
+            int row = y * width, above = row - width;
+            for (int x = 0; x < width; x++) {
+                int c = pixels[row + x], u = y > 0 ? pixels[above + x] : 0;
+                raw[p++] = (byte) ((c >> 16) - (u >> 16));
+                raw[p++] = (byte) ((c >> 8) - (u >> 8));
+                raw[p++] = (byte) (c - u);
+            }
+        }
+        deflater.reset();
+        deflater.setInput(raw, 0, p);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, 2 * compressed.length);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        out.reset();
+        out.write(SIGNATURE, 0, SIGNATURE.length);
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; // bits per sample
+        header[9] = 2; // RGB
+        header[10] = header[11] = header[12] = 0;
+        chunk("IHDR", header, header.length);
+        chunk("IDAT", compressed, length);
+        chunk("IEND", header, 0);
+        return out.toByteArray();
+    }
+
+    private void chunk(String type, byte[] data, int length) {
+        byte[] word = new byte[4];
+        putInt(word, 0, length);
+        out.write(word, 0, 4);
+        for (int i = 0; i < 4; i++) {
+            word[i] = (byte) type.charAt(i);
+        }
+        out.write(word, 0, 4);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(word, 0, 4);
+        crc.update(data, 0, length);
+        putInt(word, 0, (int) crc.getValue());
+        out.write(word, 0, 4);
+    }
+
+    private static void putInt(byte[] b, int at, int value) {
+        b[at] = (byte) (value >>> 24);
+        b[at + 1] = (byte) (value >>> 16);
+        b[at + 2] = (byte) (value >>> 8);
+        b[at + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,306 @@
+package hotgammon.view;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * All the images of the board, checkers and dice packed into an
+ * atlas in the format of the screen, so they are read and converted
+ * once and drawn from images the graphics pipeline can keep in video
+ * memory. The opaque board is kept on a sheet of its own, the
+ * checkers and dice share a translucent one.
+ * <p/>
+ * The atlas is kept at the scale of the display and at any other
+ * scale asked for; each scaled atlas is drawn from the originals
+ * with bicubic interpolation once, when first needed, and cached.
+ * The images handed out are sub-images, sharing the pixels of the
+ * atlases: a multi-resolution image of the original size with the
+ * scaled sprites as variants, so a figure has the same size on every
+ * display but is drawn from pixels made for it.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class SpriteAtlas {
+    /** the names of the sprites, as the images in /resource/ */
+    public static final String[] NAMES = {"board", "blackchecker", "redchecker",
+            "die0", "die1", "die2", "die3", "die4", "die5", "die6"};
+
+    // pixels between sprites, so interpolation does not bleed
+    private static final int GUTTER = 2;
+
+    private static SpriteAtlas singleton;
+
+    private final Map<String, Integer> indexOf = new HashMap<String, Integer>();
+    private final BufferedImage[] originals;
+    private final boolean[] opaque;
+    private final double displayScale;
+    private final ConcurrentMap<Double, Variant> variants = new ConcurrentHashMap<Double, Variant>();
+    private Image[] images;
+
+    /**
+     * return the atlas of the images in /resource/, loading it the
+     * first time.
+     */
+    public static synchronized SpriteAtlas getSingleton() {
+        if (singleton == null) {
+            try {
+                singleton = new SpriteAtlas("/resource/", getDisplayScale());
+            } catch (IOException e) {
+                throw new RuntimeException("SpriteAtlas: cannot read images: " + e.getMessage());
+            }
+        }
+        return singleton;
+    }
+
+    /**
+     * read the sprites from a resource folder and pack them.
+     *
+     * @param displayScale the scale of the screen the sprites are
+     *                     drawn on, 2.0 on a typical HiDPI display
+     */
+    public SpriteAtlas(String folder, double displayScale) throws IOException {
+        this.displayScale = displayScale;
+        originals = new BufferedImage[NAMES.length];
+        opaque = new boolean[NAMES.length];
+        for (int i = 0; i < NAMES.length; i++) {
+            URL url = SpriteAtlas.class.getResource(folder + NAMES[i] + ".gif");
+            if (url == null) {
+                throw new IOException("no image named " + NAMES[i] + " in " + folder);
+            }
+            originals[i] = ImageIO.read(url);
+            opaque[i] = isOpaque(originals[i]);
+            indexOf.put(NAMES[i], i);
+        }
+    }
+
+    /**
+     * return the scale of the default screen; 1.0 when there is none.
+     */
+    public static double getDisplayScale() {
+        if (GraphicsEnvironment.isHeadless()) return 1.0;
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().getDefaultTransform().getScaleX();
+    }
+
+    /**
+     * return the image of a sprite, at its original size with the
+     * sprite at the display scale as resolution variant.
+     */
+    public Image getImage(String name) {
+        return images()[index(name)];
+    }
+
+    private synchronized Image[] images() {
+        if (images == null) {
+            Variant base = getVariant(1.0), display = getVariant(displayScale);
+            images = new Image[NAMES.length];
+            for (int i = 0; i < NAMES.length; i++) {
+                images[i] = base == display ? base.sprites[i]
+                        : new BaseMultiResolutionImage(base.sprites[i], display.sprites[i]);
+            }
+        }
+        return images;
+    }
+
+    /**
+     * return the die faces 0 (no value) to 6.
+     */
+    public Image[] getDieFaces() {
+        Image[] faces = new Image[7];
+        for (int i = 0; i < faces.length; i++) {
+            faces[i] = getImage("die" + i);
+        }
+        return faces;
+    }
+
+    /**
+     * return the size of a sprite as drawn, whatever the scale.
+     */
+    public Dimension getSize(String name) {
+        BufferedImage original = originals[index(name)];
+        return new Dimension(original.getWidth(), original.getHeight());
+    }
+
+    /**
+     * return the sheet of the atlas at a scale that holds a sprite,
+     * drawing the atlas the first time.
+     */
+    public BufferedImage getSheet(String name, double scale) {
+        return getVariant(scale).sheetOf[index(name)];
+    }
+
+    /**
+     * return where a sprite is on its sheet at a scale.
+     */
+    public Rectangle getBounds(String name, double scale) {
+        return new Rectangle(getVariant(scale).regions[index(name)]);
+    }
+
+    /**
+     * draw a sprite at its original size at (x, y) in the user space
+     * of the graphics, from the atlas at the scale of its transform.
+     */
+    public void draw(Graphics2D g, String name, int x, int y) {
+        int i = index(name);
+        Variant v = getVariant(g.getTransform().getScaleX());
+        Rectangle r = v.regions[i];
+        g.drawImage(v.sheetOf[i], x, y, x + originals[i].getWidth(), y + originals[i].getHeight(),
+                r.x, r.y, r.x + r.width, r.y + r.height, null);
+    }
+
+    private int index(String name) {
+        Integer i = indexOf.get(name);
+        if (i == null) throw new IllegalArgumentException("SpriteAtlas: no sprite named " + name);
+        return i;
+    }
+
+    private Variant getVariant(double scale) {
+        Variant v = variants.get(scale);
+        if (v == null) {
+            v = new Variant(scale);
+            Variant other = variants.putIfAbsent(scale, v);
+            if (other != null) v = other;
+        }
+        return v;
+    }
+
+    /**
+     * return an image in the format of the screen, or a buffered
+     * image when there is no screen.
+     */
+    private static BufferedImage createCompatibleImage(int width, int height, boolean opaque) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height,
+                    opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return gc.createCompatibleImage(width, height,
+                opaque ? Transparency.OPAQUE : Transparency.TRANSLUCENT);
+    }
+
+    private static boolean isOpaque(BufferedImage image) {
+        ColorModel model = image.getColorModel();
+        if (model.getTransparency() == Transparency.OPAQUE) return true;
+        int width = image.getWidth();
+        int[] row = new int[width];
+        if (model instanceof IndexColorModel) {
+            // look the pixels up in the palette, which is much faster
+            // than converting each to RGB
+            IndexColorModel palette = (IndexColorModel) model;
+            boolean[] transparent = new boolean[palette.getMapSize()];
+            for (int i = 0; i < transparent.length; i++) {
+                transparent[i] = palette.getAlpha(i) != 0xff;
+            }
+            Raster raster = image.getRaster();
+            for (int y = 0; y < image.getHeight(); y++) {
+                raster.getSamples(0, y, width, 1, 0, row);
+                for (int pixel : row) {
+                    if (transparent[pixel]) return false;
+                }
+            }
+            return true;
+        }
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                if (argb >>> 24 != 0xff) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * the atlas at one scale. It has two sheets, one for the opaque
+     * sprites, like the board, and one for those with transparent
+     * pixels: copying an opaque image is much faster than blending
+     * a translucent one. On each sheet the sprites are packed in rows
+     * as wide as the widest sprite, by decreasing height.
+     */
+    private final class Variant {
+        final BufferedImage[] sheetOf = new BufferedImage[NAMES.length];
+        final Rectangle[] regions = new Rectangle[NAMES.length];
+        final BufferedImage[] sprites = new BufferedImage[NAMES.length];
+
+        Variant(double scale) {
+            int rowWidth = 0;
+            for (int i = 0; i < NAMES.length; i++) {
+                regions[i] = new Rectangle(0, 0,
+                        (int) Math.ceil(originals[i].getWidth() * scale),
+                        (int) Math.ceil(originals[i].getHeight() * scale));
+                rowWidth = Math.max(rowWidth, regions[i].width);
+            }
+            for (int sheet = 0; sheet < 2; sheet++) {
+                boolean opaque = sheet == 0;
+                List<Integer> order = new ArrayList<Integer>();
+                for (int i = 0; i < NAMES.length; i++) {
+                    if (SpriteAtlas.this.opaque[i] == opaque) order.add(i);
+                }
+                if (!order.isEmpty()) pack(order, rowWidth, scale, opaque);
+            }
+        }
+
+        private void pack(List<Integer> order, int rowWidth, double scale, boolean opaque) {
+            Collections.sort(order, new Comparator<Integer>() {
+                public int compare(Integer a, Integer b) {
+                    return regions[b].height - regions[a].height;
+                }
+            });
+            int x = 0, y = 0, rowHeight = 0, width = 0;
+            for (int i : order) {
+                Rectangle r = regions[i];
+                if (x > 0 && x + r.width > rowWidth) {
+                    x = 0;
+                    y += rowHeight + GUTTER;
+                    rowHeight = 0;
+                }
+                r.setLocation(x, y);
+                x += r.width + GUTTER;
+                rowHeight = Math.max(rowHeight, r.height);
+                width = Math.max(width, r.x + r.width);
+            }
+            BufferedImage atlas = createCompatibleImage(width, y + rowHeight, opaque);
+            Graphics2D g = atlas.createGraphics();
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    scale == 1.0 ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+                            : RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            for (int i : order) {
+                Rectangle r = regions[i];
+                g.drawImage(originals[i], r.x, r.y, r.width, r.height, null);
+                sheetOf[i] = atlas;
+                sprites[i] = atlas.getSubimage(r.x, r.y, r.width, r.height);
+            }
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A renderer of PNG thumbnails of many tables, without any window,
+ * for a lobby or spectators. The board, checkers and dice are drawn
+ * from a sprite atlas at the places given by Convert, scaled down,
+ * into an image that each worker thread reuses, and encoded by a PNG
+ * encoder the thread also keeps.
+ * <p/>
+ * A table is rendered only if its position has changed since its
+ * last thumbnail: the renderer remembers a hash of the board and
+ * dice of each table. Tables are rendered in parallel on the given
+ * executor.
+ * <p/>
+ * The renderer draws snapshots, not games, as a hosted game must
+ * only be read by the thread that plays it; see Table.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class ThumbnailRenderer {
+    private static final String[] DIE = {"die0", "die1", "die2", "die3", "die4", "die5", "die6"};
+
+    private final SpriteAtlas atlas;
+    private final double scale;
+    private final ExecutorService executor;
+    private final int width, height;
+
+    // the hash of the position of each table's last thumbnail
+    private final ConcurrentMap<String, Long> rendered = new ConcurrentHashMap<String, Long>();
+
+    private final ThreadLocal<Canvas> canvases = new ThreadLocal<Canvas>() {
+        protected Canvas initialValue() {
+            return new Canvas();
+        }
+    };
+
+    // metrics
+    private final AtomicLong renderedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    /**
+     * @param scale    the size of a thumbnail relative to the board
+     * @param executor the executor the thumbnails are rendered on
+     */
+    public ThumbnailRenderer(SpriteAtlas atlas, double scale, ExecutorService executor) {
+        this.atlas = atlas;
+        this.scale = scale;
+        this.executor = executor;
+        width = (int) Math.ceil(atlas.getSize("board").width * scale);
+        height = (int) Math.ceil(atlas.getSize("board").height * scale);
+    }
+
+    /**
+     * render the thumbnails of the tables whose position has changed
+     * since they were last rendered, and wait for them.
+     *
+     * @return the PNG images of the rendered tables by table id
+     */
+    public Map<String, byte[]> render(Collection<Table> tables) throws InterruptedException {
+        Map<String, Future<byte[]>> pending = new HashMap<String, Future<byte[]>>();
+        for (final Table table : tables) {
+            Long last = rendered.get(table.id);
+            if (last != null && last == table.hash) {
+                skippedCount.incrementAndGet();
+                continue;
+            }
+            pending.put(table.id, executor.submit(new Callable<byte[]>() {
+                public byte[] call() {
+                    return render(table);
+                }
+            }));
+        }
+        Map<String, byte[]> thumbnails = new HashMap<String, byte[]>();
+        for (Map.Entry<String, Future<byte[]>> e : pending.entrySet()) {
+            try {
+                thumbnails.put(e.getKey(), e.getValue().get());
+            } catch (ExecutionException ex) {
+                throw new RuntimeException("ThumbnailRenderer: cannot render table "
+                        + e.getKey(), ex.getCause());
+            }
+        }
+        return thumbnails;
+    }
+
+    /**
+     * render one thumbnail on the calling thread, whether its position
+     * has changed or not.
+     *
+     * @return the PNG image
+     */
+    public byte[] render(Table table) {
+        byte[] png = canvases.get().draw(table);
+        rendered.put(table.id, table.hash);
+        renderedCount.incrementAndGet();
+        return png;
+    }
+
+    /**
+     * forget a table, for instance when its game has ended.
+     */
+    public void forget(String id) {
+        rendered.remove(id);
+    }
+
+    /**
+     * return a hash of a position: the board as given by
+     * Game.getBoard and the dice.
+     */
+    public static long positionHash(int[] board, int[] dice) {
+        long h = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < board.length; i++) {
+            h = (h ^ board[i]) * 0x100000001b3L;
+        }
+        h = (h ^ dice[0]) * 0x100000001b3L;
+        h = (h ^ dice[1]) * 0x100000001b3L;
+        // finish as SplitMix64 does, so all bits depend on all values
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    // == metrics
+
+    /**
+     * return the number of thumbnails rendered.
+     */
+    public long getRenderedCount() {
+        return renderedCount.get();
+    }
+
+    /**
+     * return the number of tables skipped because their position had
+     * not changed.
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * A snapshot of a table: its board and dice at some moment.
+     */
+    public static final class Table {
+        final String id;
+        final int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+        final int[] dice = new int[2];
+        final long hash;
+
+        /**
+         * take a snapshot of a game; to be called by the thread that
+         * plays it, for instance as a command of its GameActor.
+         */
+        public Table(String id, Game game) {
+            this.id = id;
+            game.getBoard(board);
+            game.getDiceThrown(dice);
+            hash = positionHash(board, dice);
+        }
+
+        public Table(String id, int[] board, int[] dice) {
+            this.id = id;
+            System.arraycopy(board, 0, this.board, 0, this.board.length);
+            this.dice[0] = dice[0];
+            this.dice[1] = dice[1];
+            hash = positionHash(board, dice);
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+
+    /**
+     * the image and PNG encoder of one worker thread.
+     */
+    private final class Canvas {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g = image.createGraphics();
+        final PngEncoder encoder = new PngEncoder();
+        final Point slot = new Point();
+
+        Canvas() {
+            g.scale(scale, scale);
+        }
+
+        byte[] draw(Table table) {
+            atlas.draw(g, "board", 0, 0);
+            for (int i = 0; i < Location.NUMBER_OF_LOCATIONS; i++) {
+                int count = Math.abs(table.board[i]);
+                if (count == 0) continue;
+                Location location = Location.getLocationFromIndex(i);
+                String name = table.board[i] > 0 ? "blackchecker" : "redchecker";
+                for (int c = 0; c < count; c++) {
+                    Convert.locationAndCount2xy(location, c, slot);
+                    atlas.draw(g, name, slot.x, slot.y);
+                }
+            }
+            atlas.draw(g, DIE[table.dice[0]], BoardRenderer.RED_DIE.x, BoardRenderer.RED_DIE.y);
+            atlas.draw(g, DIE[table.dice[1]], BoardRenderer.BLACK_DIE.x, BoardRenderer.BLACK_DIE.y);
+            return encoder.encode(image);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package hotgammon.concurrent;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measure reads against a game shared by a writing thread and a
+ * growing number of reading threads, for the StampedLock based
+ * ConcurrentGame and the SynchronizedGame baseline. The writer plays
+ * a turn every WRITE_PAUSE_NANOS; each reader reads the whole board
+ * as a UI repaint would. Prints board reads/s and turns/s.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class ContentionBenchmark {
+    private static final long DURATION_MILLIS = 1000;
+    private static final long WRITE_PAUSE_NANOS = 20000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("CPUs: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("readers  decorator        board reads/s   turns/s");
+        int[] readers = {1, 2, 4, 8, 16};
+        for (int warmup = 0; warmup < 2; warmup++) {
+            for (int i = 0; i < readers.length; i++) {
+                run(new SynchronizedGame(new StubGame2()), "synchronized", readers[i], warmup > 0);
+                run(new ConcurrentGame(new StubGame2()), "stamped lock", readers[i], warmup > 0);
+            }
+        }
+    }
+
+    private static void run(final Game game, String name, int readers, boolean print)
+            throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong turns = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(readers + 1);
+
+        Thread writer = new Thread() {
+            public void run() {
+                long n = 0;
+                while (running.get()) {
+                    game.nextTurn();
+                    int sign = game.getPlayerInTurn().getSign();
+                    for (int i = 0; i < 28 && game.getNumberOfMovesLeft() > 0; i++) {
+                        if (game.getCount(i) > 0 && game.getColor(i).getSign() == sign) {
+                            game.move(i, i + sign > 0 && i + sign < 28 ? i + sign : i);
+                        }
+                    }
+                    n++;
+                    LockSupport.parkNanos(WRITE_PAUSE_NANOS);
+                }
+                turns.set(n);
+                done.countDown();
+            }
+        };
+        for (int r = 0; r < readers; r++) {
+            new Thread() {
+                public void run() {
+                    int[] values = new int[4];
+                    long n = 0, sum = 0;
+                    while (running.get()) {
+                        sum += game.getPlayerInTurn().getSign();
+                        for (int i = 0; i < 28; i++) {
+                            sum += game.getCount(i);
+                        }
+                        sum += game.getDiceValuesLeft(values);
+                        n++;
+                    }
+                    reads.addAndGet(n);
+                    if (sum == 42) System.out.print("");
+                    done.countDown();
+                }
+            }.start();
+        }
+        writer.start();
+        Thread.sleep(DURATION_MILLIS);
+        running.set(false);
+        done.await();
+        if (print) {
+            System.out.printf("%7d  %-14s %15.0f %9.0f%n", readers, name,
+                    reads.get() * 1000.0 / DURATION_MILLIS, turns.get() * 1000.0 / DURATION_MILLIS);
+        }
+    }
+}
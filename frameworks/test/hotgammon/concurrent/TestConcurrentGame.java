@@ -0,0 +1,113 @@
+package hotgammon.concurrent;
+
+import hotgammon.framework.*;
+import hotgammon.stub.StubGame2;
+import org.junit.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing that readers of a ConcurrentGame never see a write half
+ * done, and that the writing thread may read the game while it
+ * notifies observers.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestConcurrentGame {
+    private static final long DURATION_MILLIS = 300;
+    private static final int READERS = 4;
+
+    /**
+     * a game whose every move is a checker moved away and back, so the
+     * board is the starting board except in the middle of a move.
+     */
+    private static class AwayAndBackGame extends StubGame2 {
+        public boolean move(int from, int to) {
+            if (!super.move(from, to)) return false;
+            // widen the window in which the board is torn
+            for (int i = 0; i < 100; i++) {
+                Thread.yield();
+            }
+            return super.move(to, from);
+        }
+    }
+
+    @Test
+    public void shouldNeverReadAWriteHalfDone() throws Exception {
+        final Game game = new ConcurrentGame(new AwayAndBackGame());
+        final int[] start = new int[Location.NUMBER_OF_LOCATIONS];
+        game.getBoard(start);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong reads = new AtomicLong();
+        final AtomicInteger torn = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(READERS + 1);
+        pool.execute(new Runnable() {
+            public void run() {
+                game.nextTurn();
+                while (running.get()) {
+                    // black moves a checker from R1 to R2 and back
+                    if (game.move(Location.R1, Location.R2)) writes.incrementAndGet();
+                    game.nextTurn();
+                    game.nextTurn();
+                }
+            }
+        });
+        for (int r = 0; r < READERS; r++) {
+            pool.execute(new Runnable() {
+                public void run() {
+                    int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+                    while (running.get()) {
+                        game.getBoard(board);
+                        if (!Arrays.equals(start, board)) torn.incrementAndGet();
+                        if (game.getCount(Location.R1) != 2) torn.incrementAndGet();
+                        reads.incrementAndGet();
+                    }
+                }
+            });
+        }
+        Thread.sleep(DURATION_MILLIS);
+        running.set(false);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(writes.get() > 0);
+        assertTrue(reads.get() > 0);
+        assertEquals(0, torn.get());
+    }
+
+    @Test
+    public void shouldLetObserversReadTheGame() {
+        final Game game = new ConcurrentGame(new StubGame2());
+        final List<Integer> counts = new ArrayList<Integer>();
+        game.addObserver(new GameObserver() {
+            public void checkerMove(Location from, Location to) {
+                // called back in, holding the write lock
+                counts.add(game.getCount(to));
+            }
+
+            public void diceRolled(int[] values) {
+                counts.add(game.getNumberOfMovesLeft());
+            }
+        });
+        game.nextTurn();
+        assertTrue(game.move(Location.R1, Location.R2));
+        assertEquals(Arrays.asList(4, 1), counts);
+    }
+}
@@ -0,0 +1,136 @@
+package hotgammon.event;
+
+import hotgammon.framework.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Measure the fan out throughput of the GameEventRing against the
+ * number of spectators. The game thread publishes half a ring of
+ * events, then a fixed pool of spectator threads drain all cursors,
+ * and so on. Prints the game events/sec sustained while every
+ * spectator keeps up, and the total deliveries/sec to all spectators.
+ * Finally a producer that never waits shows that spectators which
+ * cannot keep up are detected and resynchronized.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class RingFanOutBenchmark {
+    private static final int CAPACITY = 4096;
+    private static final int BATCH = CAPACITY / 2;
+    private static final long DELIVERIES = 200000000L;
+
+    private static final GameObserver NULL_OBSERVER = new GameObserver() {
+        public void checkerMove(Location from, Location to) {
+        }
+
+        public void diceRolled(int[] values) {
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println("Spectator threads: " + threads
+                + ", ring capacity: " + CAPACITY);
+        System.out.println("spectators     events/s  deliveries/s");
+        int[] counts = {1, 10, 100, 1000, 10000};
+        for (int i = 0; i < counts.length; i++) {
+            run(counts[i], threads);
+        }
+        overrun();
+    }
+
+    private static void run(int spectators, int threads) throws Exception {
+        final GameEventRing ring = new GameEventRing(CAPACITY);
+        final List<List<GameEventRing.Cursor>> slices =
+                new ArrayList<List<GameEventRing.Cursor>>();
+        for (int t = 0; t < threads; t++) {
+            slices.add(new ArrayList<GameEventRing.Cursor>());
+        }
+        for (int s = 0; s < spectators; s++) {
+            slices.get(s % threads).add(ring.attach());
+        }
+        final int rounds = (int) Math.max(4, DELIVERIES / spectators / BATCH);
+        final CyclicBarrier published = new CyclicBarrier(threads + 1);
+        final CyclicBarrier drained = new CyclicBarrier(threads + 1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            final List<GameEventRing.Cursor> mine = slices.get(t);
+            pool.execute(new Runnable() {
+                public void run() {
+                    try {
+                        for (int r = 0; r < rounds; r++) {
+                            published.await();
+                            for (GameEventRing.Cursor c : mine) {
+                                if (c.poll(NULL_OBSERVER, BATCH) != BATCH) {
+                                    throw new IllegalStateException("lost events");
+                                }
+                            }
+                            drained.await();
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+        }
+
+        int[] dice = new int[2];
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            publish(ring, dice, BATCH);
+            published.await();
+            drained.await();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        long events = (long) rounds * BATCH;
+        System.out.printf("%10d  %11.0f  %12.0f%n", spectators,
+                events * 1e9 / elapsed, events * spectators * 1e9 / elapsed);
+    }
+
+    private static void overrun() {
+        GameEventRing ring = new GameEventRing(CAPACITY);
+        GameEventRing.Cursor slow = ring.attach();
+        int[] dice = new int[2];
+        long start = System.nanoTime();
+        int resyncs = 0;
+        for (int r = 0; r < 1000; r++) {
+            // the spectator reads one event per three rings published
+            publish(ring, dice, 3 * CAPACITY);
+            if (slow.poll(NULL_OBSERVER, 1) == GameEventRing.RESYNC) {
+                resyncs++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("Unthrottled producer: %.0f events/s, slow spectator resynced %d times%n",
+                ring.getPublishedCount() * 1e9 / elapsed, resyncs);
+    }
+
+    private static void publish(GameEventRing ring, int[] dice, int count) {
+        for (int i = 0; i < count; i++) {
+            if ((i & 3) == 0) {
+                dice[0] = 1 + i % 6;
+                dice[1] = 1 + (i / 6) % 6;
+                ring.diceRolled(dice);
+            } else {
+                ring.checkerMove(Location.R1, Location.R4);
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package hotgammon.event;
+
+import hotgammon.framework.*;
+import hotgammon.stub.StubGame2;
+import org.junit.*;
+
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the back pressure policies of the asynchronous observer,
+ * and the hand over between a delivery task and the next.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestAsyncGameObserver {
+    private ManualExecutor executor;
+    private Recorder recorder;
+
+    @Before
+    public void setup() {
+        executor = new ManualExecutor();
+        recorder = new Recorder();
+    }
+
+    @Test
+    public void shouldDeliverABurstAsOneBatch() {
+        AsyncGameObserver async = new AsyncGameObserver(recorder, executor, 8,
+                BackPressurePolicy.DROP);
+        async.diceRolled(new int[]{3, 3});
+        async.checkerMove(Location.B6, Location.B3);
+        async.checkerMove(Location.B6, Location.B3);
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(Arrays.asList("dice 3-3", "B6-B3", "B6-B3"), recorder.events);
+        assertEquals(1, async.getBatchCount());
+        assertEquals(3, async.getDeliveredCount());
+        assertEquals(3, async.getPeakQueueDepth());
+    }
+
+    @Test
+    public void shouldDropNewEventsWhenFull() {
+        AsyncGameObserver async = new AsyncGameObserver(recorder, executor, 2,
+                BackPressurePolicy.DROP);
+        async.checkerMove(Location.B6, Location.B5);
+        async.checkerMove(Location.B8, Location.B5);
+        async.checkerMove(Location.R1, Location.R2);
+        assertEquals(1, async.getDroppedCount());
+        assertEquals(2, async.getQueueDepth());
+        executor.runAll();
+        assertEquals(Arrays.asList("B6-B5", "B8-B5"), recorder.events);
+    }
+
+    @Test
+    public void shouldBlockTheGameThreadWhenFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        GameObserver slow = new Recorder() {
+            public void checkerMove(Location from, Location to) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.checkerMove(from, to);
+            }
+        };
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        final AsyncGameObserver async = new AsyncGameObserver(slow, pool, 1,
+                BackPressurePolicy.BLOCK);
+        Thread game = new Thread() {
+            public void run() {
+                // the first is taken by the observer, the second
+                // fills the queue, the third waits for room
+                async.checkerMove(Location.B6, Location.B5);
+                async.checkerMove(Location.B6, Location.B4);
+                async.checkerMove(Location.B6, Location.B3);
+            }
+        };
+        game.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (game.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.WAITING, game.getState());
+        release.countDown();
+        game.join(5000);
+        assertFalse(game.isAlive());
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("B6-B5", "B6-B4", "B6-B3"), ((Recorder) slow).events);
+        assertEquals(0, async.getDroppedCount());
+    }
+
+    @Test
+    public void shouldCollapseIntoSnapshotOfTheGameWhenFull() {
+        Game game = new StubGame2();
+        GameEventBus bus = new GameEventBus(game, executor);
+        game.addObserver(bus);
+        AsyncGameObserver async = bus.subscribe(recorder, 2, BackPressurePolicy.KEEP_LATEST);
+        game.nextTurn();
+        assertTrue(game.move(Location.R1, Location.R2));
+        // the queue is full; the move is in the snapshot
+        assertTrue(game.move(Location.R1, Location.R3));
+        assertEquals(2, async.getDroppedCount());
+        executor.runAll();
+        assertEquals(Arrays.asList("snapshot"), recorder.events);
+        int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+        game.getBoard(board);
+        assertArrayEquals(board, recorder.board);
+        assertArrayEquals(new int[]{1, 1}, recorder.dice);
+
+        // events after the snapshot are delivered as usual
+        game.nextTurn();
+        executor.runAll();
+        assertEquals(Arrays.asList("snapshot", "dice 2-1"), recorder.events);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRefuseKeepLatestWithoutSnapshots() {
+        new AsyncGameObserver(new GameObserver() {
+            public void checkerMove(Location from, Location to) {
+            }
+
+            public void diceRolled(int[] values) {
+            }
+        }, new StubGame2(), executor, 2, BackPressurePolicy.KEEP_LATEST);
+    }
+
+    @Test
+    public void shouldRescheduleEventsBehindAFailingObserver() {
+        GameObserver failing = new Recorder() {
+            public void checkerMove(Location from, Location to) {
+                super.checkerMove(from, to);
+                if (from == Location.B6) throw new IllegalStateException("observer failed");
+            }
+        };
+        AsyncGameObserver async = new AsyncGameObserver(failing, executor, 8,
+                BackPressurePolicy.DROP);
+        async.checkerMove(Location.B6, Location.B5);
+        async.checkerMove(Location.B8, Location.B5);
+        try {
+            executor.runNext();
+            fail("the observer should have thrown");
+        } catch (IllegalStateException e) {
+            // as the observer does
+        }
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(Arrays.asList("B6-B5", "B8-B5"), ((Recorder) failing).events);
+
+        // and a later event schedules a task again
+        async.checkerMove(Location.B8, Location.B4);
+        assertEquals(1, executor.tasks.size());
+    }
+
+    @Test
+    public void shouldScheduleEventsArrivingDuringADrain() {
+        final AsyncGameObserver[] async = new AsyncGameObserver[1];
+        GameObserver reentrant = new Recorder() {
+            public void checkerMove(Location from, Location to) {
+                super.checkerMove(from, to);
+                // the game moves on while the observer works
+                if (from == Location.B6) async[0].checkerMove(Location.B8, Location.B5);
+            }
+        };
+        async[0] = new AsyncGameObserver(reentrant, executor, 8, BackPressurePolicy.DROP);
+        async[0].checkerMove(Location.B6, Location.B5);
+        executor.runAll();
+        assertEquals(Arrays.asList("B6-B5", "B8-B5"), ((Recorder) reentrant).events);
+        assertEquals(0, async[0].getQueueDepth());
+    }
+
+    /**
+     * an executor that runs its tasks when told to.
+     */
+    private static class ManualExecutor implements Executor {
+        final Deque<Runnable> tasks = new ArrayDeque<Runnable>();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runNext() {
+            tasks.poll().run();
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                runNext();
+            }
+        }
+    }
+
+    /**
+     * an observer that records what it is told.
+     */
+    private static class Recorder implements SnapshotObserver {
+        final List<String> events = new ArrayList<String>();
+        int[] board, dice;
+
+        public void checkerMove(Location from, Location to) {
+            events.add(from + "-" + to);
+        }
+
+        public void diceRolled(int[] values) {
+            events.add("dice " + values[0] + "-" + values[1]);
+        }
+
+        public void snapshot(int[] board, int[] dice) {
+            events.add("snapshot");
+            this.board = board;
+            this.dice = dice;
+        }
+    }
+}
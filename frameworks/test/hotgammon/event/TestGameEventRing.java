@@ -0,0 +1,126 @@
+package hotgammon.event;
+
+import hotgammon.framework.*;
+import org.junit.*;
+
+import java.util.*;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the fan out of events through the ring: delivery in order,
+ * the limit of a poll, attaching in the middle of a game, and the
+ * resynchronization of a spectator that the game laps.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestGameEventRing {
+    private GameEventRing ring;
+    private Recorder recorder;
+
+    @Before
+    public void setup() {
+        ring = new GameEventRing(4);
+        recorder = new Recorder();
+    }
+
+    @Test
+    public void shouldDeliverEventsInOrder() {
+        GameEventRing.Cursor cursor = ring.attach();
+        ring.diceRolled(new int[]{6, 5});
+        ring.checkerMove(Location.B12, Location.B7);
+        ring.checkerMove(Location.B7, Location.B2);
+        assertEquals(3, cursor.getLag());
+        assertEquals(3, cursor.poll(recorder, 10));
+        assertEquals(Arrays.asList("dice 6-5", "B12-B7", "B7-B2"), recorder.events);
+        assertEquals(0, cursor.getLag());
+        assertEquals(0, cursor.poll(recorder, 10));
+    }
+
+    @Test
+    public void shouldDeliverAtMostMaxEvents() {
+        GameEventRing.Cursor cursor = ring.attach();
+        ring.checkerMove(Location.B6, Location.B5);
+        ring.checkerMove(Location.B6, Location.B4);
+        ring.checkerMove(Location.B6, Location.B3);
+        assertEquals(2, cursor.poll(recorder, 2));
+        assertEquals(Arrays.asList("B6-B5", "B6-B4"), recorder.events);
+        assertEquals(1, cursor.poll(recorder, 2));
+        assertEquals(Arrays.asList("B6-B5", "B6-B4", "B6-B3"), recorder.events);
+    }
+
+    @Test
+    public void shouldDeliverOnlyEventsAfterAttaching() {
+        ring.checkerMove(Location.B6, Location.B5);
+        ring.checkerMove(Location.B8, Location.B5);
+        GameEventRing.Cursor cursor = ring.attach();
+        assertEquals(0, cursor.getLag());
+        ring.checkerMove(Location.R1, Location.R2);
+        assertEquals(1, cursor.poll(recorder, 10));
+        assertEquals(Arrays.asList("R1-R2"), recorder.events);
+        assertEquals(3, ring.getPublishedCount());
+    }
+
+    @Test
+    public void shouldResyncASpectatorThatIsLapped() {
+        GameEventRing.Cursor cursor = ring.attach();
+        for (int i = 0; i < ring.getCapacity(); i++) {
+            ring.checkerMove(Location.B6, Location.B5);
+        }
+        // a full ring behind, the oldest unread event is still there
+        assertFalse(cursor.isOverrun());
+        ring.checkerMove(Location.B8, Location.B3);
+        assertTrue(cursor.isOverrun());
+        assertEquals(GameEventRing.RESYNC, cursor.poll(recorder, 10));
+        assertTrue(recorder.events.isEmpty());
+        assertEquals(1, cursor.getOverrunCount());
+        // moved to the head, it continues with the new events
+        assertEquals(0, cursor.getLag());
+        ring.checkerMove(Location.R1, Location.R3);
+        assertEquals(1, cursor.poll(recorder, 10));
+        assertEquals(Arrays.asList("R1-R3"), recorder.events);
+    }
+
+    @Test
+    public void shouldDeliverAFullRingWithoutResync() {
+        GameEventRing.Cursor cursor = ring.attach();
+        for (int i = 0; i < ring.getCapacity(); i++) {
+            ring.checkerMove(Location.B6, Location.B5);
+        }
+        assertEquals(ring.getCapacity(), cursor.poll(recorder, 10));
+        assertEquals(0, cursor.getOverrunCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRefuseCapacityNotPowerOfTwo() {
+        new GameEventRing(6);
+    }
+
+    /**
+     * an observer that records what it is told.
+     */
+    private static class Recorder implements GameObserver {
+        final List<String> events = new ArrayList<String>();
+
+        public void checkerMove(Location from, Location to) {
+            events.add(from + "-" + to);
+        }
+
+        public void diceRolled(int[] values) {
+            events.add("dice " + values[0] + "-" + values[1]);
+        }
+    }
+}
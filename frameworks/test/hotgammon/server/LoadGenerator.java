@@ -0,0 +1,171 @@
+package hotgammon.server;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A load generator for the GameServer. It starts a server in this
+ * JVM, creates a number of games (10000 unless given as the first
+ * argument) spread over a few client connections, and keeps one
+ * command in flight for every game: next, a move, state, and so
+ * on. Reports commands/sec and the p50 and p99 command latency,
+ * measured from sending a command to reading its answer, and the
+ * heap used per hosted game.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class LoadGenerator {
+    private static final int CONNECTIONS = 8;
+    private static final int COMMANDS_PER_GAME = 30;
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+        ExecutorService executor = GameRegistry.newExecutor();
+        GameRegistry registry = new GameRegistry(new GameFactory() {
+            public Game createGame() {
+                return new StubGame2();
+            }
+        }, executor);
+        GameServer server = new GameServer(registry, 0);
+        Thread serverThread = new Thread(server, "game-server");
+        serverThread.start();
+
+        long heapBefore = usedHeap();
+        ExecutorService clients = Executors.newFixedThreadPool(CONNECTIONS);
+        List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+        long start = System.nanoTime();
+        for (int c = 0; c < CONNECTIONS; c++) {
+            results.add(clients.submit(
+                    new Client(server.getPort(), c, games / CONNECTIONS)));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> f : results) {
+            long[] latencies = f.get();
+            long[] merged = Arrays.copyOf(all, all.length + latencies.length);
+            System.arraycopy(latencies, 0, merged, all.length, latencies.length);
+            all = merged;
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(all);
+
+        System.out.println("Games: " + registry.size()
+                + ", connections: " + CONNECTIONS
+                + ", commands: " + all.length
+                + ", executor: " + executor.getClass().getSimpleName());
+        System.out.printf("Throughput: %.0f commands/s%n", all.length * 1e9 / elapsed);
+        System.out.printf("Latency p50: %.1f us, p99: %.1f us, max: %.1f us%n",
+                all[all.length / 2] / 1e3,
+                all[(int) (all.length * 0.99)] / 1e3,
+                all[all.length - 1] / 1e3);
+
+        clients.shutdown();
+        clients.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.printf("Heap per hosted game: about %d bytes%n",
+                (usedHeap() - heapBefore) / registry.size());
+        server.stop();
+        serverThread.join();
+        executor.shutdown();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * a connection playing a slice of the games; returns the
+     * latencies of its commands in nanoseconds.
+     */
+    private static class Client implements Callable<long[]> {
+        private static final String[] SCRIPT = {
+                "next", "move %s R1 R2", "move %s B6 B5", "state"};
+        private final int port;
+        private final int connection;
+        private final int games;
+
+        Client(int port, int connection, int games) {
+            this.port = port;
+            this.connection = connection;
+            this.games = games;
+        }
+
+        public long[] call() throws Exception {
+            Socket socket = new Socket(InetAddress.getByName(null), port);
+            socket.setTcpNoDelay(true);
+            PrintWriter out = new PrintWriter(new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), "US-ASCII")));
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+
+            String[] ids = new String[games];
+            Map<String, Integer> index = new HashMap<String, Integer>();
+            for (int g = 0; g < games; g++) {
+                ids[g] = "c" + connection + "g" + g;
+                index.put(ids[g], g);
+                out.println("new " + ids[g]);
+            }
+            out.flush();
+            for (int g = 0; g < games; g++) {
+                expectOk(in.readLine());
+            }
+
+            // one command in flight per game
+            long[] sent = new long[games];
+            int[] step = new int[games];
+            long[] latencies = new long[games * COMMANDS_PER_GAME];
+            int measured = 0;
+            for (int g = 0; g < games; g++) {
+                sent[g] = System.nanoTime();
+                out.println(command(ids[g], 0));
+            }
+            out.flush();
+            while (measured < latencies.length) {
+                if (!in.ready()) out.flush();
+                String answer = in.readLine();
+                long now = System.nanoTime();
+                expectOk(answer);
+                int end = answer.indexOf(' ', 3);
+                int g = index.get(answer.substring(3, end < 0 ? answer.length() : end));
+                latencies[measured++] = now - sent[g];
+                if (++step[g] < COMMANDS_PER_GAME) {
+                    sent[g] = System.nanoTime();
+                    out.println(command(ids[g], step[g]));
+                }
+            }
+            socket.close();
+            return latencies;
+        }
+
+        private static String command(String id, int step) {
+            String c = SCRIPT[step % SCRIPT.length];
+            return c.indexOf("%s") >= 0 ? String.format(c, id) : c + " " + id;
+        }
+
+        private static void expectOk(String answer) {
+            if (answer == null || !answer.startsWith("OK ")) {
+                throw new IllegalStateException("Unexpected answer: " + answer);
+            }
+        }
+    }
+}
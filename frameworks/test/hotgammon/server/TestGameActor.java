@@ -0,0 +1,120 @@
+package hotgammon.server;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+import org.junit.*;
+
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing that a game actor executes the commands of its mailbox in
+ * order, a batch per task, and answers errors.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestGameActor {
+    private final Deque<Runnable> tasks = new ArrayDeque<Runnable>();
+    private final List<String> answers = new ArrayList<String>();
+    private GameActor actor;
+
+    private final GameActor.Reply reply = new GameActor.Reply() {
+        public void send(String line) {
+            answers.add(line);
+        }
+    };
+
+    @Before
+    public void setup() {
+        actor = new GameActor("g", new StubGame2(), new Executor() {
+            public void execute(Runnable task) {
+                tasks.add(task);
+            }
+        });
+    }
+
+    private void submit(String line) {
+        actor.submit(line.split(" "), reply);
+    }
+
+    private void runAll() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    public void shouldExecuteCommandsInOrder() {
+        submit("next g");
+        submit("move g R1 R2");
+        submit("move g R1 R6");
+        submit("state g");
+        assertEquals(1, tasks.size());
+        runAll();
+        assertEquals("OK g BLACK 1 1 4", answers.get(0));
+        assertEquals("OK g true", answers.get(1));
+        assertEquals("OK g false", answers.get(2));
+        String[] state = answers.get(3).split(" ");
+        assertEquals(6 + Location.NUMBER_OF_LOCATIONS, state.length);
+        assertEquals("3", state[5]);
+        // R1 and R2 hold a black checker each
+        assertEquals("1", state[6 + Location.R1.getIndex()]);
+        assertEquals("1", state[6 + Location.R2.getIndex()]);
+    }
+
+    @Test
+    public void shouldAnswerErrors() {
+        submit("jump g");
+        submit("move g R1 NOWHERE");
+        runAll();
+        assertEquals("ERR g unknown command", answers.get(0));
+        assertTrue(answers.get(1), answers.get(1).startsWith("ERR g java.lang.IllegalArgumentException"));
+    }
+
+    @Test
+    public void shouldExecuteABatchPerTask() {
+        for (int i = 0; i < GameActor.BATCH + 5; i++) {
+            submit("state g");
+        }
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+        assertEquals(GameActor.BATCH, answers.size());
+        // the rest waits behind the other games' tasks
+        assertEquals(1, tasks.size());
+        runAll();
+        assertEquals(GameActor.BATCH + 5, answers.size());
+    }
+
+    @Test
+    public void shouldRescheduleWhenAReplyFails() {
+        actor.submit("state g".split(" "), new GameActor.Reply() {
+            public void send(String line) {
+                throw new IllegalStateException("connection lost");
+            }
+        });
+        submit("next g");
+        try {
+            tasks.poll().run();
+            fail("the reply should have thrown");
+        } catch (IllegalStateException e) {
+            // as the reply does
+        }
+        runAll();
+        assertEquals(Arrays.asList("OK g BLACK 1 1 4"), answers);
+    }
+}
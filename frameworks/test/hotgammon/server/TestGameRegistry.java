@@ -0,0 +1,109 @@
+package hotgammon.server;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+import org.junit.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the registry of hosted games, and that a game hosted on a
+ * shared executor is only accessed by one thread at a time.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestGameRegistry {
+    private ExecutorService executor;
+    private GameRegistry registry;
+    // set if a game is entered by two threads at once
+    private final AtomicBoolean overlap = new AtomicBoolean(false);
+
+    @Before
+    public void setup() {
+        executor = GameRegistry.newExecutor();
+        registry = new GameRegistry(new GameFactory() {
+            public Game createGame() {
+                return new StubGame2() {
+                    private final AtomicInteger inside = new AtomicInteger();
+
+                    public void nextTurn() {
+                        if (inside.incrementAndGet() > 1) overlap.set(true);
+                        super.nextTurn();
+                        Thread.yield();
+                        inside.decrementAndGet();
+                    }
+                };
+            }
+        }, executor);
+    }
+
+    @After
+    public void teardown() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldHostGamesByName() {
+        GameActor one = registry.create("one");
+        assertNotNull(one);
+        assertNotNull(registry.create("two"));
+        assertNull(registry.create("one"));
+        assertSame(one, registry.get("one"));
+        assertEquals(2, registry.size());
+        assertTrue(registry.remove("one"));
+        assertFalse(registry.remove("one"));
+        assertNull(registry.get("one"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void shouldStartHostedGames() {
+        Game game = registry.create("g").getGame();
+        assertEquals(Color.NONE, game.getPlayerInTurn());
+        assertEquals(2, game.getCount(Location.R1));
+    }
+
+    @Test
+    public void shouldSerializeCommandsFromManyThreads() throws Exception {
+        final GameActor actor = registry.create("g");
+        final int threads = 4, commands = 500;
+        final CountDownLatch answered = new CountDownLatch(threads * commands);
+        final AtomicInteger errors = new AtomicInteger();
+        final GameActor.Reply reply = new GameActor.Reply() {
+            public void send(String line) {
+                if (!line.startsWith("OK g ")) errors.incrementAndGet();
+                answered.countDown();
+            }
+        };
+        Thread[] clients = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            clients[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < commands; i++) {
+                        actor.submit(new String[]{"next", "g"}, reply);
+                    }
+                }
+            };
+            clients[t].start();
+        }
+        assertTrue(answered.await(10, TimeUnit.SECONDS));
+        assertEquals(0, errors.get());
+        assertFalse(overlap.get());
+    }
+}
@@ -0,0 +1,109 @@
+package hotgammon.server;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+import org.junit.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the line protocol of the game server over a loopback
+ * connection.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestGameServer {
+    private ExecutorService executor;
+    private GameServer server;
+    private Thread serverThread;
+
+    @Before
+    public void setup() throws IOException {
+        executor = Executors.newSingleThreadExecutor();
+        GameRegistry registry = new GameRegistry(new GameFactory() {
+            public Game createGame() {
+                return new StubGame2();
+            }
+        }, executor);
+        server = new GameServer(registry, 0);
+        serverThread = new Thread(server, "game-server");
+        serverThread.start();
+    }
+
+    @After
+    public void teardown() throws InterruptedException {
+        server.stop();
+        serverThread.join(5000);
+        executor.shutdown();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getByName(null), server.getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    @Test
+    public void shouldPlayOverTheLineProtocol() throws IOException {
+        Socket socket = connect();
+        try {
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            out.println("new g");
+            assertEquals("OK g", in.readLine());
+            out.println("new g");
+            assertEquals("ERR g already exists", in.readLine());
+            out.println("next g");
+            assertEquals("OK g BLACK 1 1 4", in.readLine());
+            out.println("move g B6 B5");
+            assertEquals("OK g true", in.readLine());
+            out.println("close g");
+            assertEquals("OK g", in.readLine());
+            out.println("state g");
+            assertEquals("ERR g no such game", in.readLine());
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void shouldDropConnectionSendingTooLongLine() throws IOException {
+        Socket socket = connect();
+        try {
+            OutputStream out = socket.getOutputStream();
+            byte[] junk = new byte[GameServer.MAX_LINE + 1];
+            java.util.Arrays.fill(junk, (byte) 'x');
+            out.write(junk);
+            out.flush();
+            assertEquals(-1, socket.getInputStream().read());
+        } finally {
+            socket.close();
+        }
+        // others are still served
+        Socket other = connect();
+        try {
+            PrintWriter out = new PrintWriter(other.getOutputStream(), true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(other.getInputStream()));
+            out.println("new h");
+            assertEquals("OK h", in.readLine());
+        } finally {
+            other.close();
+        }
+    }
+}
@@ -125,6 +125,38 @@ public class StubGame1 implements Game {
         return sum;
     }
 
+    public void getBoard(int[] board) {
+        for (int i = 0; i < 28; i++) {
+            board[i] = 0;
+        }
+        board[loneRiderHere1.getIndex()] += Color.BLACK.getSign();
+        board[loneRiderHere2.getIndex()] += Color.RED.getSign();
+    }
+
+    public void getDiceThrown(int[] dice) {
+        int[] thrown = diceThrown();
+        dice[0] = thrown[0];
+        dice[1] = thrown[1];
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        values[0] = 1;
+        return 1;
+    }
+
+    public boolean move(int from, int to) {
+        return move(Location.getLocationFromIndex(from),
+                Location.getLocationFromIndex(to));
+    }
+
+    public Color getColor(int index) {
+        return getColor(Location.getLocationFromIndex(index));
+    }
+
+    public int getCount(int index) {
+        return getCount(Location.getLocationFromIndex(index));
+    }
+
     public void addObserver(GameObserver gl) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package hotgammon.stub;
+
+import hotgammon.framework.*;
+
+import java.util.*;
+
+/**
+ * A silent testing stub for load tests and benchmarks of the
+ * framework. It starts from the standard backgammon position and
+ * rolls all 36 dice combinations in turn; any move of a checker of
+ * the player in turn to a location without opponent checkers is
+ * valid, and uses the die of its distance if there is one left, the
+ * largest die otherwise. Observers are notified of moves and dice
+ * rolls.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class StubGame2 implements Game {
+    private final int[] board = new int[28];
+    private final List<GameObserver> observers = new ArrayList<GameObserver>();
+    private Color playerInTurn;
+    private int movesLeft;
+    private int turn;
+    private final int[] dice = new int[2];
+    // unused die values, largest first
+    private final int[] diceLeft = new int[4];
+
+    public StubGame2() {
+        newGame();
+    }
+
+    public void newGame() {
+        Arrays.fill(board, 0);
+        board[Location.R1.getIndex()] = 2;
+        board[Location.R12.getIndex()] = 5;
+        board[Location.B8.getIndex()] = 3;
+        board[Location.B6.getIndex()] = 5;
+        board[Location.B1.getIndex()] = -2;
+        board[Location.B12.getIndex()] = -5;
+        board[Location.R8.getIndex()] = -3;
+        board[Location.R6.getIndex()] = -5;
+        playerInTurn = Color.NONE;
+        movesLeft = 0;
+        turn = 0;
+    }
+
+    public void nextTurn() {
+        dice[0] = 1 + turn % 6;
+        dice[1] = 1 + (turn / 6) % 6;
+        turn++;
+        playerInTurn = playerInTurn == Color.BLACK ? Color.RED : Color.BLACK;
+        movesLeft = dice[0] == dice[1] ? 4 : 2;
+        diceLeft[0] = Math.max(dice[0], dice[1]);
+        diceLeft[1] = Math.min(dice[0], dice[1]);
+        diceLeft[2] = diceLeft[3] = dice[0];
+        for (GameObserver o : observers) {
+            o.diceRolled(dice);
+        }
+    }
+
+    public boolean move(Location from, Location to) {
+        return move(from.getIndex(), to.getIndex());
+    }
+
+    public boolean move(int from, int to) {
+        int sign = playerInTurn.getSign();
+        if (movesLeft == 0 || board[from] * sign <= 0 || board[to] * sign < 0) {
+            return false;
+        }
+        board[from] -= sign;
+        board[to] += sign;
+        int used = 0;
+        int distance = Location.distance(from, to) * sign;
+        for (int i = 0; i < movesLeft; i++) {
+            if (diceLeft[i] == distance) used = i;
+        }
+        movesLeft--;
+        System.arraycopy(diceLeft, used + 1, diceLeft, used, movesLeft - used);
+        for (GameObserver o : observers) {
+            o.checkerMove(Location.getLocationFromIndex(from),
+                    Location.getLocationFromIndex(to));
+        }
+        return true;
+    }
+
+    public Color getPlayerInTurn() {
+        return playerInTurn;
+    }
+
+    public int getNumberOfMovesLeft() {
+        return movesLeft;
+    }
+
+    public int[] diceThrown() {
+        return new int[]{dice[0], dice[1]};
+    }
+
+    public int[] diceValuesLeft() {
+        int[] values = new int[4];
+        return Arrays.copyOf(values, getDiceValuesLeft(values));
+    }
+
+    public Color winner() {
+        return Color.NONE;
+    }
+
+    public Color getColor(Location location) {
+        return getColor(location.getIndex());
+    }
+
+    public int getCount(Location location) {
+        return getCount(location.getIndex());
+    }
+
+    public void getBoard(int[] board) {
+        System.arraycopy(this.board, 0, board, 0, 28);
+    }
+
+    public void getDiceThrown(int[] dice) {
+        dice[0] = this.dice[0];
+        dice[1] = this.dice[1];
+    }
+
+    public int getDiceValuesLeft(int[] values) {
+        System.arraycopy(diceLeft, 0, values, 0, movesLeft);
+        return movesLeft;
+    }
+
+    public Color getColor(int index) {
+        return Color.getColorFromNumerical(board[index]);
+    }
+
+    public int getCount(int index) {
+        return Math.abs(board[index]);
+    }
+
+    public void addObserver(GameObserver observer) {
+        observers.add(observer);
+    }
+}
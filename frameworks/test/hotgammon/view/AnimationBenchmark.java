@@ -0,0 +1,140 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+import minidraw.standard.*;
+
+import javax.swing.SwingUtilities;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Play a stub game while its moves are animated on the event
+ * dispatch thread, offscreen, and measure how long the game thread
+ * spends notifying its observers, and how many frames are computed,
+ * delivered and dropped. The game is played with the renderer
+ * notified directly on the game thread, as before, with the
+ * animator, and with the animator and an event dispatch thread that
+ * is too slow for the frame rate.
+ *
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class AnimationBenchmark {
+    private static final int TURNS = 1000;
+    private static final int FPS = 60, DURATION = 250;
+
+    public static void main(String[] args) throws Exception {
+        RenderBenchmark.board = RenderBenchmark.load("board");
+        RenderBenchmark.black = RenderBenchmark.load("blackchecker");
+        RenderBenchmark.red = RenderBenchmark.load("redchecker");
+        for (int i = 0; i < RenderBenchmark.dice.length; i++) {
+            RenderBenchmark.dice[i] = RenderBenchmark.load("die" + i);
+        }
+        System.out.println("observer          move us (mean/max)   computed  delivered  dropped");
+        for (int round = 0; round < 2; round++) {
+            run("renderer", false, 0);
+            run("animator", true, 0);
+            run("animator, slow", true, 25);
+        }
+    }
+
+    private static void run(String name, boolean animate, final int paintMillis) throws Exception {
+        final StubGame2 game = new StubGame2();
+        final StandardDrawing drawing = new StandardDrawing();
+        BufferedImage canvas = new BufferedImage(RenderBenchmark.board.getWidth(null),
+                RenderBenchmark.board.getHeight(null), BufferedImage.TYPE_INT_RGB);
+        final RenderBenchmark.View view = new RenderBenchmark.View(drawing, canvas);
+        drawing.addDrawingChangeListener(view);
+        final BoardRenderer renderer = new BoardRenderer(game, drawing,
+                RenderBenchmark.black, RenderBenchmark.red, RenderBenchmark.dice);
+        renderer.sync();
+
+        CheckerAnimator animator = null;
+        if (animate) {
+            AnimationLayer layer = new AnimationLayer(drawing, renderer,
+                    RenderBenchmark.black, RenderBenchmark.red) {
+                public void frame(List<CheckerAnimator.Sprite> sprites) {
+                    super.frame(sprites);
+                    view.paintDamage();
+                    pause(paintMillis);
+                }
+            };
+            animator = new CheckerAnimator(game, layer, FPS, DURATION);
+            game.addObserver(animator);
+            animator.start();
+        } else {
+            game.addObserver(renderer);
+            game.addObserver(new GameObserver() {
+                public void checkerMove(Location from, Location to) {
+                    view.paintDamage();
+                }
+
+                public void diceRolled(int[] values) {
+                    view.paintDamage();
+                }
+            });
+        }
+
+        long moves = 0, total = 0, max = 0;
+        for (int t = 0; t < TURNS; t++) {
+            if (t % 100 == 0) {
+                game.newGame();
+                if (!animate) renderer.sync();
+                else SwingUtilities.invokeAndWait(new Runnable() {
+                    public void run() {
+                        renderer.sync();
+                    }
+                });
+            }
+            game.nextTurn();
+            int[] values = game.diceThrown();
+            int sign = game.getPlayerInTurn().getSign();
+            for (int d = 0; d < 2; d++) {
+                for (int i = 1; i <= 24; i++) {
+                    int to = i + sign * values[d];
+                    if (to < 1 || to > 24 || game.getColor(i) != game.getPlayerInTurn()) continue;
+                    long start = System.nanoTime();
+                    boolean moved = game.move(i, to);
+                    long elapsed = System.nanoTime() - start;
+                    if (moved) {
+                        moves++;
+                        total += elapsed;
+                        max = Math.max(max, elapsed);
+                        break;
+                    }
+                }
+            }
+            // the other player thinks
+            pause(2);
+        }
+        if (animator != null) {
+            pause(2 * DURATION);
+            animator.stop();
+            System.out.printf("%-16s %10.1f %10.1f %10d %10d %8d%n", name, total / 1e3 / moves, max / 1e3,
+                    animator.getComputedCount(), animator.getDeliveredCount(), animator.getDroppedCount());
+        } else {
+            System.out.printf("%-16s %10.1f %10.1f%n", name, total / 1e3 / moves, max / 1e3);
+        }
+    }
+
+    private static void pause(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
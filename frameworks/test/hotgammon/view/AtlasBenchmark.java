@@ -0,0 +1,143 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+
+import java.awt.Canvas;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.MediaTracker;
+import java.awt.Point;
+import java.awt.Toolkit;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measure the time from a cold start to the first frame of the
+ * board, and the time to paint a frame after that, with the images
+ * loaded one by one through the toolkit, as minidraw's image manager
+ * does, or from the sprite atlas. Run once per mode in a fresh JVM:
+ * <pre>
+ * AtlasBenchmark (separate|atlas) scale
+ * </pre>
+ * The frame is the whole board, the checkers of the starting
+ * position and the dice, drawn at the given scale.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class AtlasBenchmark {
+    private static final int FRAMES = 3000;
+
+    private static Game game = new StubGame2();
+
+    public static void main(String[] args) throws Exception {
+        long start = System.nanoTime();
+        boolean atlas = args[0].equals("atlas");
+        double scale = Double.parseDouble(args[1]);
+
+        Painter painter = atlas ? new AtlasPainter(scale) : new SeparatePainter();
+        BufferedImage canvas = new BufferedImage((int) Math.ceil(painter.width() * scale),
+                (int) Math.ceil(painter.height() * scale), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas.createGraphics();
+        g.scale(scale, scale);
+        paint(painter, g);
+        long firstFrame = System.nanoTime() - start;
+        long sinceLaunch = System.currentTimeMillis()
+                - ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        for (int i = 0; i < FRAMES / 10; i++) {
+            paint(painter, g);
+        }
+        long paintStart = System.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            paint(painter, g);
+        }
+        double paint = (System.nanoTime() - paintStart) / 1e3 / FRAMES;
+        System.out.printf("%-9s %5.1f %12.1f %14d %10.1f%n", args[0], scale,
+                firstFrame / 1e6, sinceLaunch, paint);
+    }
+
+    private static void paint(Painter painter, Graphics2D g) {
+        painter.draw(g, "board", 0, 0);
+        for (Location l : Location.LOCATIONS_BY_INDEX) {
+            String name = game.getColor(l) == Color.BLACK ? "blackchecker" : "redchecker";
+            for (int c = 0; c < game.getCount(l); c++) {
+                Point p = Convert.locationAndCount2xy(l, c);
+                painter.draw(g, name, p.x, p.y);
+            }
+        }
+        painter.draw(g, "die4", BoardRenderer.RED_DIE.x, BoardRenderer.RED_DIE.y);
+        painter.draw(g, "die2", BoardRenderer.BLACK_DIE.x, BoardRenderer.BLACK_DIE.y);
+    }
+
+    interface Painter {
+        int width();
+
+        int height();
+
+        void draw(Graphics2D g, String name, int x, int y);
+    }
+
+    /**
+     * the images read one by one by the toolkit and waited for by a
+     * media tracker, as minidraw's image manager reads them.
+     */
+    static class SeparatePainter implements Painter {
+        private final java.util.Map<String, Image> images = new java.util.HashMap<String, Image>();
+
+        SeparatePainter() throws InterruptedException {
+            MediaTracker tracker = new MediaTracker(new Canvas());
+            for (String name : SpriteAtlas.NAMES) {
+                Image image = Toolkit.getDefaultToolkit().getImage(
+                        AtlasBenchmark.class.getResource("/resource/" + name + ".gif"));
+                tracker.addImage(image, 7);
+                images.put(name, image);
+            }
+            tracker.waitForAll();
+        }
+
+        public int width() {
+            return images.get("board").getWidth(null);
+        }
+
+        public int height() {
+            return images.get("board").getHeight(null);
+        }
+
+        public void draw(Graphics2D g, String name, int x, int y) {
+            g.drawImage(images.get(name), x, y, null);
+        }
+    }
+
+    static class AtlasPainter implements Painter {
+        private final SpriteAtlas atlas;
+
+        AtlasPainter(double scale) throws java.io.IOException {
+            atlas = new SpriteAtlas("/resource/", scale);
+        }
+
+        public int width() {
+            return atlas.getSize("board").width;
+        }
+
+        public int height() {
+            return atlas.getSize("board").height;
+        }
+
+        public void draw(Graphics2D g, String name, int x, int y) {
+            atlas.draw(g, name, x, y);
+        }
+    }
+}
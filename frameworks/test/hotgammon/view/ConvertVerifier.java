@@ -0,0 +1,252 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.*;
+
+/**
+ * Verify that the precomputed mappings of Convert are those of the
+ * searches and computations they are made from, which are kept here
+ * as the reference: xy2Location for
+ * every (x,y) on and around the board, and locationAndCount2xy for
+ * every location and count. Check that the board layouts at other
+ * sizes hit test as their rectangles and keep the checkers within
+ * them. Then measure hit testing both ways.
+ * Exits with status 1 on the first difference.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class ConvertVerifier {
+    // beyond the board image in every direction
+    private static final int MIN = -50, MAX_X = 700, MAX_Y = 550;
+
+    public static void main(String[] args) {
+        long points = 0;
+        for (int x = MIN; x < MAX_X; x++) {
+            for (int y = MIN; y < MAX_Y; y++) {
+                Location index = Convert.xy2Location(x, y);
+                Location scan = scanXy2Location(x, y);
+                if (index != scan) {
+                    fail("xy2Location(" + x + "," + y + ") is " + index + ", was " + scan);
+                }
+                points++;
+            }
+        }
+        System.out.println("xy2Location: " + points + " points identical");
+
+        Point point = new Point();
+        for (Location l : Location.values()) {
+            for (int count = 0; count <= 15; count++) {
+                Point computed = computeLocationAndCount2xy(l, count);
+                if (!computed.equals(Convert.locationAndCount2xy(l, count))
+                        || !computed.equals(Convert.locationAndCount2xy(l, count, point))) {
+                    fail("locationAndCount2xy(" + l + "," + count + ") is "
+                            + point + ", was " + computed);
+                }
+            }
+        }
+        System.out.println("locationAndCount2xy: all locations and counts identical");
+
+        // the layouts at other sizes, against their own rectangles
+        double[][] sizes = {{0.5, 0.5}, {1.25, 1.25}, {1.5, 1.5}, {2, 2}, {3, 3}, {1.6, 1.2}};
+        for (double[] size : sizes) {
+            BoardLayout layout = BoardLayout.forSize(
+                    (int) Math.round(BoardLayout.REFERENCE_WIDTH * size[0]),
+                    (int) Math.round(BoardLayout.REFERENCE_HEIGHT * size[1]));
+            verifyLayout(layout);
+        }
+        if (BoardLayout.forScale(2) != BoardLayout.forSize(2 * BoardLayout.REFERENCE_WIDTH,
+                2 * BoardLayout.REFERENCE_HEIGHT)) {
+            fail("layout of scale 2 is not cached");
+        }
+        System.out.println("BoardLayout: " + sizes.length + " sizes consistent");
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int x = MIN; x < MAX_X; x++) {
+                for (int y = MIN; y < MAX_Y; y++) {
+                    if (scanXy2Location(x, y) != null) found++;
+                }
+            }
+            long scanNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int x = MIN; x < MAX_X; x++) {
+                for (int y = MIN; y < MAX_Y; y++) {
+                    if (Convert.xy2Location(x, y) != null) found--;
+                }
+            }
+            long indexNanos = System.nanoTime() - start;
+            System.out.printf("hit test: search %.1f ns, index %.1f ns (%d)%n",
+                    (double) scanNanos / points, (double) indexNanos / points, found);
+        }
+    }
+
+    /**
+     * check that hit testing agrees with the rectangles of a layout,
+     * and that every checker of a stack of five is within its
+     * location, except those of the bear offs, which start outside.
+     */
+    private static void verifyLayout(BoardLayout layout) {
+        int w = layout.getWidth(), h = layout.getHeight();
+        for (int x = -10; x < w + 10; x++) {
+            for (int y = -10; y < h + 10; y++) {
+                if (layout.xy2Location(x, y) != layout.scanXy2Location(x, y)) {
+                    fail(w + "x" + h + ": xy2Location(" + x + "," + y + ") is "
+                            + layout.xy2Location(x, y) + ", was " + layout.scanXy2Location(x, y));
+                }
+            }
+        }
+        Point point = new Point();
+        for (Location l : Location.values()) {
+            if (l == Location.B_BEAR_OFF || l == Location.R_BEAR_OFF) continue;
+            Rectangle box = layout.getRectangle(l);
+            for (int count = 0; count < 5; count++) {
+                layout.locationAndCount2xy(l, count, point);
+                Rectangle checker = new Rectangle(point.x, point.y,
+                        layout.getCheckerWidth(), layout.getCheckerHeight());
+                if (!box.contains(checker)) {
+                    fail(w + "x" + h + ": checker " + count + " of " + l + " at " + checker
+                            + " is outside " + box);
+                }
+            }
+        }
+    }
+
+    private static void fail(String message) {
+        System.out.println(message);
+        System.exit(1);
+    }
+
+    // == the reference the mappings of Convert were derived from
+
+    /**
+     * The search of all rectangles of the board image, which
+     * xy2Location must agree with.
+     */
+    private static Location scanXy2Location(int x, int y) {
+        Set<Location> s = mapLocation2Rectangle.keySet();
+        for (Location l : s) {
+            Rectangle r = mapLocation2Rectangle.get(l);
+            if (r.contains(x, y)) {
+                return l;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The computation of checker positions on the board image, which
+     * locationAndCount2xy must agree with.
+     */
+    private static Point computeLocationAndCount2xy(Location location, int count) {
+        Rectangle box = mapLocation2Rectangle.get(location);
+
+        int size = 27; // magic constant: a checker is 27 pixels wide and high...
+        // calculate x
+        int newx = box.x + (box.width - size) / 2;
+
+        // calculate y
+        int newy;
+        // stack in the y-directio if on the bear off locations
+        if (location == Location.B_BEAR_OFF
+                ||
+                location == Location.R_BEAR_OFF) {
+            size /= 2;
+        }
+        // if on the black side of the board
+        if (location == Location.B1 ||
+                location == Location.B2 ||
+                location == Location.B3 ||
+                location == Location.B4 ||
+                location == Location.B5 ||
+                location == Location.B6 ||
+                location == Location.B7 ||
+                location == Location.B8 ||
+                location == Location.B9 ||
+                location == Location.B10 ||
+                location == Location.B11 ||
+                location == Location.B12 ||
+                location == Location.B12 ||
+                location == Location.B_BEAR_OFF ||
+                location == Location.R_BAR) {
+            newy = size * count + box.y;
+        } else if (location == Location.R_BEAR_OFF) {
+            newy =
+                    (box.y + box.height)
+                            - (size * (count + 2));
+        } else {
+            newy =
+                    (box.y + box.height)
+                            - (size * (count + 1));
+        }
+        return new Point(newx, newy);
+    }
+
+    private static Map<Location, Rectangle> mapLocation2Rectangle;
+
+    private static void defineLocation2RectangleMap() {
+        // searched in the order of the enum, as BoardLayout does
+        mapLocation2Rectangle = new EnumMap<Location, Rectangle>(Location.class);
+        // Black normal points
+        processARectangleCreationForLocation(Location.B12, new Rectangle(15 + 0 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B11, new Rectangle(15 + 1 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B10, new Rectangle(15 + 2 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B9, new Rectangle(15 + 3 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B8, new Rectangle(15 + 4 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B7, new Rectangle(15 + 5 * 40, 20, 40, 200));
+
+        processARectangleCreationForLocation(Location.B6, new Rectangle(300 + 0 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B5, new Rectangle(300 + 1 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B4, new Rectangle(300 + 2 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B3, new Rectangle(300 + 3 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B2, new Rectangle(300 + 4 * 40, 20, 40, 200));
+        processARectangleCreationForLocation(Location.B1, new Rectangle(300 + 5 * 40, 20, 40, 200));
+
+        // red normal points
+        processARectangleCreationForLocation(Location.R12, new Rectangle(15 + 0 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R11, new Rectangle(15 + 1 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R10, new Rectangle(15 + 2 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R9, new Rectangle(15 + 3 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R8, new Rectangle(15 + 4 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R7, new Rectangle(15 + 5 * 40, 217, 40, 200));
+
+        processARectangleCreationForLocation(Location.R6, new Rectangle(300 + 0 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R5, new Rectangle(300 + 1 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R4, new Rectangle(300 + 2 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R3, new Rectangle(300 + 3 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R2, new Rectangle(300 + 4 * 40, 217, 40, 200));
+        processARectangleCreationForLocation(Location.R1, new Rectangle(300 + 5 * 40, 217, 40, 200));
+
+        // black special points
+        processARectangleCreationForLocation(Location.B_BAR, new Rectangle(260, 220, 36, 200));
+        processARectangleCreationForLocation(Location.B_BEAR_OFF, new Rectangle(545, 12, 40, 200));
+
+        // red special points
+        processARectangleCreationForLocation(Location.R_BAR, new Rectangle(260, 12, 36, 200));
+        processARectangleCreationForLocation(Location.R_BEAR_OFF, new Rectangle(545, 220, 40, 200));
+    }
+
+    private static void processARectangleCreationForLocation(Location l, Rectangle r) {
+        mapLocation2Rectangle.put(l, r);
+    }
+
+    // I need to initialize the map
+    static {
+        defineLocation2RectangleMap();
+    }
+}
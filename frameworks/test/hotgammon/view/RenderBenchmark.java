@@ -0,0 +1,203 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+import minidraw.framework.*;
+import minidraw.standard.*;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Measure drawing a game as it is played, offscreen: the naive way,
+ * where every event creates all figures anew, against the
+ * BoardRenderer. After each game event the union of the boxes
+ * invalidated by it is repainted, as minidraw's view and Swing's
+ * repaint manager do together. Prints frames (game events) per
+ * second, the area repainted per frame, and figures created.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class RenderBenchmark {
+    private static final int TURNS = 20000;
+
+    static Image board, black, red;
+    static Image[] dice = new Image[7];
+
+    public static void main(String[] args) throws IOException {
+        board = load("board");
+        black = load("blackchecker");
+        red = load("redchecker");
+        for (int i = 0; i < dice.length; i++) {
+            dice[i] = load("die" + i);
+        }
+        System.out.println("renderer       frames/s  pixels/frame of board  figures created");
+        for (int round = 0; round < 3; round++) {
+            run("naive", false);
+            run("incremental", true);
+        }
+    }
+
+    static Image load(String name) throws IOException {
+        return ImageIO.read(RenderBenchmark.class.getResource("/resource/" + name + ".gif"));
+    }
+
+    private static void run(String name, boolean incremental) {
+        BufferedImage canvas = new BufferedImage(board.getWidth(null), board.getHeight(null),
+                BufferedImage.TYPE_INT_RGB);
+        StandardDrawing drawing = new StandardDrawing();
+        StubGame2 game = new StubGame2();
+
+        View view = new View(drawing, canvas);
+        drawing.addDrawingChangeListener(view);
+
+        BoardRenderer renderer = null;
+        NaiveRenderer naive = null;
+        if (incremental) {
+            renderer = new BoardRenderer(game, drawing, black, red, dice);
+            game.addObserver(renderer);
+            renderer.sync();
+        } else {
+            naive = new NaiveRenderer(game, drawing);
+            game.addObserver(naive);
+        }
+
+        long start = System.nanoTime();
+        for (int t = 0; t < TURNS; t++) {
+            if (t % 200 == 0) {
+                game.newGame();
+                if (renderer != null) renderer.sync();
+                view.paintDamage();
+            }
+            game.nextTurn();
+            view.paintDamage();
+            playTurn(game, view);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-12s %10.0f %12.0f %8.1f%% %10d%n", name, view.frames / seconds,
+                (double) view.pixels / view.frames,
+                100.0 * view.pixels / view.frames / (canvas.getWidth() * canvas.getHeight()),
+                incremental ? renderer.getFiguresCreated() : naive.figuresCreated);
+    }
+
+    /**
+     * A view that collects the damage of the drawing and repaints it
+     * when asked.
+     */
+    static class View implements DrawingChangeListener {
+        private final StandardDrawing drawing;
+        private final Graphics2D g;
+        private final Rectangle full;
+        private Rectangle damage;
+        long frames, pixels;
+
+        View(StandardDrawing drawing, BufferedImage canvas) {
+            this.drawing = drawing;
+            g = canvas.createGraphics();
+            full = new Rectangle(0, 0, canvas.getWidth(), canvas.getHeight());
+        }
+
+        public void drawingInvalidated(DrawingChangeEvent e) {
+            Rectangle r = e.getInvalidatedRectangle();
+            damage = damage == null ? new Rectangle(r) : damage.union(r);
+        }
+
+        public void drawingRequestUpdate(DrawingChangeEvent e) {
+        }
+
+        void paintDamage() {
+            if (damage == null) return;
+            Rectangle clip = damage.intersection(full);
+            g.setClip(clip);
+            g.drawImage(board, 0, 0, null);
+            drawing.draw(g);
+            pixels += (long) clip.width * clip.height;
+            frames++;
+            damage = null;
+        }
+    }
+
+    /**
+     * move the first checkers that can move by the dice, painting
+     * after each move; return the number of moves.
+     */
+    private static int playTurn(Game game, View view) {
+        int[] values = game.diceThrown();
+        int sign = game.getPlayerInTurn().getSign();
+        int made = 0;
+        for (int d = 0; d < 2; d++) {
+            for (int i = 1; i <= 24; i++) {
+                int to = i + sign * values[d];
+                if (to >= 1 && to <= 24 && game.getColor(i) == game.getPlayerInTurn()
+                        && game.move(i, to)) {
+                    view.paintDamage();
+                    made++;
+                    break;
+                }
+            }
+        }
+        return made;
+    }
+
+    /**
+     * The naive observer: clear the drawing and create all figures
+     * anew on every event.
+     */
+    static class NaiveRenderer implements GameObserver {
+        private final Game game;
+        private final Drawing drawing;
+        private int[] values = {0, 0};
+        long figuresCreated;
+
+        NaiveRenderer(Game game, Drawing drawing) {
+            this.game = game;
+            this.drawing = drawing;
+        }
+
+        public void checkerMove(Location from, Location to) {
+            redraw();
+        }
+
+        public void diceRolled(int[] values) {
+            this.values = values.clone();
+            redraw();
+        }
+
+        private void redraw() {
+            java.util.List<Figure> all = new java.util.ArrayList<Figure>();
+            for (java.util.Iterator<Figure> i = drawing.iterator(); i.hasNext(); ) {
+                all.add(i.next());
+            }
+            for (Figure f : all) {
+                drawing.remove(f);
+            }
+            for (Location l : Location.LOCATIONS_BY_INDEX) {
+                Image image = game.getColor(l) == Color.BLACK ? black : red;
+                for (int c = 0; c < game.getCount(l); c++) {
+                    drawing.add(new ImageFigure(image, Convert.locationAndCount2xy(l, c)));
+                    figuresCreated++;
+                }
+            }
+            drawing.add(new ImageFigure(dice[values[0]], BoardRenderer.RED_DIE));
+            drawing.add(new ImageFigure(dice[values[1]], BoardRenderer.BLACK_DIE));
+            figuresCreated += 2;
+            drawing.requestUpdate();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import hotgammon.stub.StubGame2;
+import minidraw.framework.*;
+import minidraw.standard.*;
+import org.junit.*;
+
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing that the renderer keeps the checker figures of a drawing
+ * in step with the game: a hit checker goes to the bar, a point
+ * changes colour, and figures are reused once the first position is
+ * drawn.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestBoardRenderer {
+    private BoardGame game;
+    private StandardDrawing drawing;
+    private BoardRenderer renderer;
+
+    /**
+     * a game whose board is set by the test, as a move left it.
+     */
+    private static class BoardGame extends StubGame2 {
+        final int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+
+        BoardGame() {
+            getBoard(board);
+        }
+
+        void move(Location from, Location to, int sign) {
+            board[from.getIndex()] -= sign;
+            if (board[to.getIndex()] == -sign) {
+                // a blot is hit and goes to its bar
+                board[to.getIndex()] = 0;
+                board[(sign > 0 ? Location.R_BAR : Location.B_BAR).getIndex()] -= sign;
+            }
+            board[to.getIndex()] += sign;
+        }
+
+        public Color getColor(Location location) {
+            return getColor(location.getIndex());
+        }
+
+        public int getCount(Location location) {
+            return getCount(location.getIndex());
+        }
+
+        public Color getColor(int index) {
+            return Color.getColorFromNumerical(board[index]);
+        }
+
+        public int getCount(int index) {
+            return Math.abs(board[index]);
+        }
+    }
+
+    @Before
+    public void setup() {
+        game = new BoardGame();
+        drawing = new StandardDrawing();
+        Image[] dieFaces = new Image[7];
+        for (int i = 0; i < dieFaces.length; i++) {
+            dieFaces[i] = image();
+        }
+        renderer = new BoardRenderer(game, drawing, image(), image(), dieFaces);
+        renderer.sync();
+    }
+
+    private static Image image() {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    @Test
+    public void shouldDrawTheCheckersOfTheGame() {
+        for (Location l : Location.LOCATIONS_BY_INDEX) {
+            assertStack(l);
+        }
+    }
+
+    @Test
+    public void shouldSendAHitCheckerToTheBar() {
+        // red leaves a blot on R3, which black hits from R1
+        game.move(Location.R6, Location.R3, -1);
+        renderer.checkerMove(Location.R6, Location.R3);
+        game.move(Location.R1, Location.R3, 1);
+        renderer.checkerMove(Location.R1, Location.R3);
+        assertEquals(Color.BLACK, game.getColor(Location.R3));
+        assertEquals(1, game.getCount(Location.R_BAR));
+        for (Location l : Location.LOCATIONS_BY_INDEX) {
+            assertStack(l);
+        }
+    }
+
+    @Test
+    public void shouldChangeTheColourOfAPoint() {
+        // black leaves R1 empty, then red takes it
+        game.move(Location.R1, Location.R2, 1);
+        renderer.checkerMove(Location.R1, Location.R2);
+        game.move(Location.R1, Location.R3, 1);
+        renderer.checkerMove(Location.R1, Location.R3);
+        assertStack(Location.R1);
+        game.move(Location.R6, Location.R1, -1);
+        renderer.checkerMove(Location.R6, Location.R1);
+        assertEquals(Color.RED, game.getColor(Location.R1));
+        for (Location l : Location.LOCATIONS_BY_INDEX) {
+            assertStack(l);
+        }
+    }
+
+    @Test
+    public void shouldCreateNoFiguresAfterTheFirstSync() {
+        int created = renderer.getFiguresCreated();
+        assertEquals(30, created);
+        for (int i = 0; i < 10; i++) {
+            // red hits a black blot, which enters again and hits back
+            game.move(Location.R12, Location.R11, 1);
+            renderer.checkerMove(Location.R12, Location.R11);
+            game.move(Location.B12, Location.R11, -1);
+            renderer.checkerMove(Location.B12, Location.R11);
+            game.move(Location.B_BAR, Location.R11, 1);
+            renderer.checkerMove(Location.B_BAR, Location.R11);
+            game.move(Location.R_BAR, Location.B12, -1);
+            renderer.checkerMove(Location.R_BAR, Location.B12);
+            game.move(Location.R11, Location.R12, 1);
+            renderer.checkerMove(Location.R11, Location.R12);
+        }
+        renderer.sync();
+        assertEquals(created, renderer.getFiguresCreated());
+        for (Location l : Location.LOCATIONS_BY_INDEX) {
+            assertStack(l);
+        }
+    }
+
+    /**
+     * assert that the figures drawn on a location are the checkers of
+     * the game, one on each slot.
+     */
+    private void assertStack(Location location) {
+        int count = game.getCount(location);
+        Point slot = new Point();
+        for (int k = 0; k < 15; k++) {
+            Convert.locationAndCount2xy(location, k, slot);
+            BoardRenderer.CheckerFigure checker = checkerAt(slot);
+            if (k < count) {
+                assertNotNull(location + " " + k, checker);
+                assertEquals(location + " " + k, game.getColor(location), checker.color);
+            } else {
+                assertNull(location + " " + k, checker);
+            }
+        }
+    }
+
+    private BoardRenderer.CheckerFigure checkerAt(Point slot) {
+        BoardRenderer.CheckerFigure found = null;
+        for (Iterator<Figure> i = drawing.iterator(); i.hasNext(); ) {
+            Figure figure = i.next();
+            Rectangle box = figure.displayBox();
+            if (figure instanceof BoardRenderer.CheckerFigure && box.x == slot.x && box.y == slot.y) {
+                assertNull("two checkers on " + slot, found);
+                found = (BoardRenderer.CheckerFigure) figure;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,166 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import hotgammon.stub.StubGame2;
+import org.junit.*;
+
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the animator by driving its ticks by hand: events are
+ * delivered in order, a frame replaced before delivery keeps its
+ * events, late ticks are counted as dropped, and a move lands with
+ * the stacks it left rather than those of the game now.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestCheckerAnimator {
+    // 10 frames a second, a move takes two and a half frames
+    private static final int FPS = 10, DURATION = 250;
+    private static final long PERIOD = 100000000L;
+
+    private StubGame2 game;
+    private Recorder recorder;
+    private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    private static final Executor DIRECT = new Executor() {
+        public void execute(Runnable task) {
+            task.run();
+        }
+    };
+
+    // runs nothing until the test says so
+    private final Executor queued = new Executor() {
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+    };
+
+    @Before
+    public void setup() {
+        game = new StubGame2();
+        recorder = new Recorder();
+    }
+
+    private CheckerAnimator animator(Executor publisher) {
+        CheckerAnimator animator = new CheckerAnimator(game, recorder, FPS, DURATION, publisher);
+        game.addObserver(animator);
+        return animator;
+    }
+
+    @Test
+    public void shouldDeliverEventsInOrder() {
+        CheckerAnimator animator = animator(DIRECT);
+        // black rolls 1-1
+        game.nextTurn();
+        assertTrue(game.move(Location.R1, Location.R2));
+        animator.tick(0);
+        animator.tick(PERIOD);
+        animator.tick(2 * PERIOD);
+        animator.tick(3 * PERIOD);
+        animator.tick(4 * PERIOD);
+        assertEquals(Arrays.asList("dice 1-1", "start R1-R2", "frame 1",
+                "frame 1", "frame 1", "land R1-R2", "frame 0"), recorder.events);
+        assertEquals(4, animator.getDeliveredCount());
+        assertEquals(0, animator.getDroppedCount());
+    }
+
+    @Test
+    public void shouldMergeAFrameReplacedBeforeDelivery() {
+        CheckerAnimator animator = animator(queued);
+        game.nextTurn();
+        assertTrue(game.move(Location.R1, Location.R2));
+        animator.tick(0);
+        assertTrue(game.move(Location.R12, Location.R11));
+        animator.tick(PERIOD);
+        // the first frame was never delivered, so one task is pending
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(Arrays.asList("dice 1-1", "start R1-R2", "start R12-R11", "frame 2"),
+                recorder.events);
+        assertEquals(2, animator.getComputedCount());
+        assertEquals(1, animator.getDeliveredCount());
+        assertEquals(1, animator.getDroppedCount());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void shouldCountLateTicksAsDropped() {
+        CheckerAnimator animator = animator(DIRECT);
+        game.nextTurn();
+        animator.tick(0);
+        assertTrue(game.move(Location.R1, Location.R2));
+        // a late timer runs the missed ticks back to back
+        animator.tick(4 * PERIOD);
+        animator.tick(4 * PERIOD + 1);
+        assertEquals(3, animator.getDroppedCount());
+        assertEquals(2, animator.getComputedCount());
+    }
+
+    @Test
+    public void shouldLandWithTheStacksOfTheMove() {
+        CheckerAnimator animator = animator(DIRECT);
+        game.nextTurn();
+        assertTrue(game.move(Location.R1, Location.R2));
+        animator.tick(0);
+        // the game moves on before the first checker lands
+        assertTrue(game.move(Location.R1, Location.R2));
+        assertTrue(game.move(Location.R2, Location.R3));
+        animator.tick(3 * PERIOD);
+        assertEquals(Arrays.asList("dice 1-1", "start R1-R2", "frame 1",
+                "start R1-R2", "start R2-R3", "land R1-R2", "frame 2"), recorder.events);
+        CheckerAnimator.Stacks landed = recorder.stacks.get(3);
+        assertEquals(1, landed.getMove());
+        assertEquals(1, landed.getCount(Location.R1));
+        assertEquals(1, landed.getCount(Location.R2));
+        assertEquals(Color.BLACK, landed.getColor(Location.R2));
+        assertEquals(0, landed.getCount(Location.B_BAR));
+        assertEquals(0, game.getCount(Location.R1));
+        CheckerAnimator.Stacks last = recorder.stacks.get(2);
+        assertEquals(3, last.getMove());
+        assertEquals(1, last.getCount(Location.R2));
+        assertEquals(1, last.getCount(Location.R3));
+    }
+
+    /**
+     * a listener recording what it is told.
+     */
+    private static class Recorder implements AnimationListener {
+        final List<String> events = new ArrayList<String>();
+        final List<CheckerAnimator.Stacks> stacks = new ArrayList<CheckerAnimator.Stacks>();
+
+        public void moveStarted(Location from, Location to, CheckerAnimator.Stacks stacks) {
+            events.add("start " + from + "-" + to);
+            this.stacks.add(stacks);
+        }
+
+        public void moveLanded(Location from, Location to, CheckerAnimator.Stacks stacks) {
+            events.add("land " + from + "-" + to);
+            this.stacks.add(stacks);
+        }
+
+        public void diceRolled(int[] values) {
+            events.add("dice " + values[0] + "-" + values[1]);
+        }
+
+        public void frame(List<CheckerAnimator.Sprite> sprites) {
+            events.add("frame " + sprites.size());
+        }
+    }
+}
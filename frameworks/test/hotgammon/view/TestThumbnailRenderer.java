@@ -0,0 +1,134 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import hotgammon.stub.StubGame2;
+import org.junit.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the thumbnail renderer on the calling thread: only tables
+ * whose position changed are rendered, a forgotten table is rendered
+ * again, the thumbnails are PNG images, and a failure keeps its cause.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestThumbnailRenderer {
+    private static final double SCALE = 0.25;
+
+    private SpriteAtlas atlas;
+    private ThumbnailRenderer renderer;
+    private StubGame2 game;
+
+    /**
+     * an executor service that runs every task on the calling thread.
+     */
+    private static class DirectExecutorService extends AbstractExecutorService {
+        private boolean shutdown;
+
+        public void execute(Runnable task) {
+            task.run();
+        }
+
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return shutdown;
+        }
+    }
+
+    @Before
+    public void setup() throws IOException {
+        atlas = new SpriteAtlas("/resource/", 1.0);
+        renderer = new ThumbnailRenderer(atlas, SCALE, new DirectExecutorService());
+        game = new StubGame2();
+        game.nextTurn();
+    }
+
+    @Test
+    public void shouldRenderOnlyTablesThatChanged() throws InterruptedException {
+        StubGame2 other = new StubGame2();
+        other.nextTurn();
+        Map<String, byte[]> thumbnails = renderer.render(Arrays.asList(
+                new ThumbnailRenderer.Table("a", game), new ThumbnailRenderer.Table("b", other)));
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b")), thumbnails.keySet());
+        assertEquals(2, renderer.getRenderedCount());
+        assertEquals(0, renderer.getSkippedCount());
+
+        assertTrue(game.move(Location.R1, Location.R2));
+        thumbnails = renderer.render(Arrays.asList(
+                new ThumbnailRenderer.Table("a", game), new ThumbnailRenderer.Table("b", other)));
+        assertEquals(Collections.singleton("a"), thumbnails.keySet());
+        assertEquals(3, renderer.getRenderedCount());
+        assertEquals(1, renderer.getSkippedCount());
+    }
+
+    @Test
+    public void shouldRenderAForgottenTableAgain() throws InterruptedException {
+        List<ThumbnailRenderer.Table> tables =
+                Collections.singletonList(new ThumbnailRenderer.Table("a", game));
+        assertEquals(1, renderer.render(tables).size());
+        assertEquals(0, renderer.render(tables).size());
+        renderer.forget("a");
+        assertEquals(1, renderer.render(tables).size());
+        assertEquals(2, renderer.getRenderedCount());
+        assertEquals(1, renderer.getSkippedCount());
+    }
+
+    @Test
+    public void shouldRenderAPngOfTheScaledBoard() throws IOException {
+        byte[] png = renderer.render(new ThumbnailRenderer.Table("a", game));
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertNotNull(image);
+        assertEquals((int) Math.ceil(atlas.getSize("board").width * SCALE), image.getWidth());
+        assertEquals((int) Math.ceil(atlas.getSize("board").height * SCALE), image.getHeight());
+    }
+
+    @Test
+    public void shouldKeepTheCauseOfAFailure() throws InterruptedException {
+        int[] board = new int[Location.NUMBER_OF_LOCATIONS];
+        game.getBoard(board);
+        // there is no die face 7
+        ThumbnailRenderer.Table table = new ThumbnailRenderer.Table("a", board, new int[]{7, 1});
+        try {
+            renderer.render(Collections.singletonList(table));
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof ArrayIndexOutOfBoundsException);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package hotgammon.view;
+
+import hotgammon.framework.*;
+import hotgammon.stub.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Render thumbnails of a lobby of stub games, as the lobby is
+ * refreshed while some of the games are played, with one worker
+ * thread and with one per core. Prints thumbnails per second for
+ * the first refresh, when every table is new, and for the following
+ * ones, when only the tables that moved are rendered. Run as
+ * <pre>
+ * ThumbnailBenchmark [tables [scale]]
+ * </pre>
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class ThumbnailBenchmark {
+    private static final int REFRESHES = 10;
+    // the share of tables that make a move between refreshes
+    private static final double ACTIVE = 0.1;
+
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        double scale = args.length > 1 ? Double.parseDouble(args[1]) : 0.25;
+        SpriteAtlas atlas = new SpriteAtlas("/resource/", 1.0);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("threads  first thumbnails/s  refresh thumbnails/s  skipped  bytes/png");
+        for (int round = 0; round < 2; round++) {
+            run(atlas, scale, tables, 1);
+            run(atlas, scale, tables, cores);
+        }
+    }
+
+    private static void run(SpriteAtlas atlas, double scale, int tables, int threads)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            ThumbnailRenderer renderer = new ThumbnailRenderer(atlas, scale, pool);
+            Random random = new Random(42);
+            StubGame2[] games = new StubGame2[tables];
+            for (int i = 0; i < tables; i++) {
+                games[i] = new StubGame2();
+                for (int t = random.nextInt(20); t >= 0; t--) {
+                    games[i].nextTurn();
+                    play(games[i], random);
+                }
+            }
+
+            long start = System.nanoTime();
+            Map<String, byte[]> first = renderer.render(snapshot(games));
+            double firstRate = first.size() / ((System.nanoTime() - start) / 1e9);
+            long bytes = 0;
+            for (byte[] png : first.values()) {
+                bytes += png.length;
+            }
+            check(first.get("table0"), scale, atlas);
+
+            long refreshed = 0, refreshTime = 0;
+            for (int r = 0; r < REFRESHES; r++) {
+                for (StubGame2 game : games) {
+                    if (random.nextDouble() >= ACTIVE) continue;
+                    if (game.getNumberOfMovesLeft() == 0) game.nextTurn();
+                    play(game, random);
+                }
+                start = System.nanoTime();
+                refreshed += renderer.render(snapshot(games)).size();
+                refreshTime += System.nanoTime() - start;
+            }
+            System.out.printf("%7d %19.0f %21.0f %8d %10d%n", threads, firstRate,
+                    refreshed / (refreshTime / 1e9), renderer.getSkippedCount(), bytes / first.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<ThumbnailRenderer.Table> snapshot(StubGame2[] games) {
+        List<ThumbnailRenderer.Table> tables = new ArrayList<ThumbnailRenderer.Table>(games.length);
+        for (int i = 0; i < games.length; i++) {
+            tables.add(new ThumbnailRenderer.Table("table" + i, games[i]));
+        }
+        return tables;
+    }
+
+    /**
+     * make one move of the player in turn, if any checker can move
+     * by a die.
+     */
+    private static void play(Game game, Random random) {
+        int[] values = game.diceThrown();
+        int sign = game.getPlayerInTurn().getSign();
+        int die = values[random.nextInt(2)];
+        for (int i = 1; i <= 24; i++) {
+            int to = i + sign * die;
+            if (to >= 1 && to <= 24 && game.getColor(i) == game.getPlayerInTurn()
+                    && game.move(i, to)) {
+                return;
+            }
+        }
+    }
+
+    private static void check(byte[] png, double scale, SpriteAtlas atlas) throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        int width = (int) Math.ceil(atlas.getSize("board").width * scale);
+        if (image == null || image.getWidth() != width) {
+            throw new IllegalStateException("thumbnail is not a PNG of width " + width);
+        }
+    }
+}
@@ -15,6 +15,9 @@
  * <p/>
  * If you want to monitor the moves considered by Gerry while it
  * evaluate, the MoveHook class provides an interface for doing so.
+ * <p/>
+ * Positions of the first turns are looked up in an opening book
+ * before any move is generated, see OpeningBook.
  *
  * @author Gerry Tesauro, IBM Research (e-mail: tesauro@watson.ibm.com)
  *         and Henrik B Christensen.
@@ -44,14 +47,32 @@ public class Gerry {
     private static final int BOARDSIZE = 28;
     private static final int BEAR_OFF = 26;
     int[] theboard;
-    int[] dice;
+    // dice buffers, reused by every call to play
+    int[] dice = new int[4];
+    int[] diceOpposite = new int[4];
     float maxscore;
     Move bestmove;
+    OpeningBook book;
+    // fetch the default book at the first play, not at startup
+    private boolean defaultBook;
 
     /**
-     * Construct an AI player
+     * Construct an AI player using the default opening book, which
+     * is read when it is first needed.
      */
     public Gerry() {
+        this(null);
+        defaultBook = true;
+    }
+
+    /**
+     * Construct an AI player
+     *
+     * @param book the opening book to consult before searching, or
+     *             null to always search.
+     */
+    public Gerry(OpeningBook book) {
+        this.book = book;
         rdwts();
         x = new float[122];
     }
@@ -69,10 +90,24 @@ public class Gerry {
      *                   the convention used in HotGammon's Color enum.
      * @param dicestate  the state of the dice rolled, coded as an
      *                   array of 2 integers, one for each die value.
-     * @return the best move according to Gerry's evaluation function.
+     * @return the move of the opening book, if the position is in it,
+     *         or else the best move according to Gerry's evaluation function.
      */
     public Move play(int[] boardstate, int[] dicestate) {
         theboard = boardstate;
+        if (defaultBook) {
+            book = OpeningBook.getDefault();
+            defaultBook = false;
+        }
+        if (book != null) {
+            Move move = book.lookup(boardstate, dicestate);
+            if (move != null) {
+                // no move was evaluated
+                maxscore = Float.NaN;
+                bestmove = move;
+                return move;
+            }
+        }
         setupDice(dicestate);
 
         // generate valid moves and evaluate each of them
@@ -86,7 +121,6 @@ public class Gerry {
      * move generation
      */
     void setupDice(int[] ldice) {
-        dice = new int[4];
         dice[0] = ldice[0];
         dice[1] = ldice[1];
         if (ldice[0] == ldice[1]) {
@@ -128,7 +162,6 @@ public class Gerry {
             // only two moves possible
             recurse(theboard, dice, 0, new Move());
             // try the opposite dice combination afterwards
-            int[] diceOpposite = new int[4];
             diceOpposite[0] = dice[1];
             diceOpposite[1] = dice[0];
             diceOpposite[2] = 0;
@@ -435,7 +468,7 @@ public class Gerry {
      * Makes lots of obvious mistakes, but provides a
      * decent level of play for benchmarking purposes.
      */
-    private float pubeval(boolean race, int[] pos) {
+    float pubeval(boolean race, int[] pos) {
         int i;
         float score;
 
@@ -453,7 +486,7 @@ public class Gerry {
     }
 
 
-    private void setx(int[] pos) {
+    void setx(int[] pos) {
     /* sets input vector x[] given board position pos[] */
         int j, jm1, n;
     /* initialize */
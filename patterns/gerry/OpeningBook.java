@@ -0,0 +1,225 @@
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.*;
+
+/**
+ * A book of precomputed best moves for the first turns of a game:
+ * every opening roll, and every roll in reply to every opening move
+ * of the opponent. Gerry looks the position up in the book before it
+ * searches, so the most common positions of all are not solved again
+ * in every game.
+ * <p/>
+ * Positions are keyed by a 64 bit hash of the board and the dice, in
+ * an open addressing table, thus a lookup takes the same short time
+ * whether the position is in the book or not. The book is stored as
+ * the resource opening.book, a deflated list of keys and moves, and
+ * is built by OpeningBookBuilder.
+ * <p/>
+ * A book is shared by all Gerrys, so it is read-only once filled;
+ * only its lookup and hit counters change.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class OpeningBook {
+    public static final String RESOURCE = "opening.book";
+    private static final int MAGIC = 0x6f70656e;
+
+    private long[] keys;
+    // the legs of the move of each key: from, to, from, to...
+    private byte[][] moves;
+    private int size;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    private static OpeningBook defaultBook;
+
+    /**
+     * create an empty book.
+     */
+    public OpeningBook() {
+        this(32);
+    }
+
+    /**
+     * create an empty book with room for the given number of moves.
+     */
+    private OpeningBook(int capacity) {
+        int length = 64;
+        while (length < 2 * capacity) {
+            length *= 2;
+        }
+        keys = new long[length];
+        moves = new byte[length][];
+    }
+
+    /**
+     * return the book of the resource opening.book, read once; empty
+     * if there is no such resource.
+     */
+    public static synchronized OpeningBook getDefault() {
+        if (defaultBook == null) {
+            InputStream in = OpeningBook.class.getResourceAsStream(RESOURCE);
+            try {
+                defaultBook = in == null ? new OpeningBook() : read(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("cannot read " + RESOURCE, e);
+            }
+        }
+        return defaultBook;
+    }
+
+    /**
+     * return the book move of a position, or null if the position is
+     * not in the book.
+     *
+     * @param board the board in Gerry's encoding, black to move
+     * @param dice  the two die values
+     */
+    public Move lookup(int[] board, int[] dice) {
+        lookups.incrementAndGet();
+        byte[] legs = moves[slot(key(board, dice))];
+        if (legs == null) return null;
+        hits.incrementAndGet();
+        Move move = new Move();
+        for (int i = 0; i < legs.length; i += 2) {
+            move.add(legs[i], legs[i + 1]);
+        }
+        return move;
+    }
+
+    /**
+     * enter the best move of a position.
+     */
+    public void put(int[] board, int[] dice, Move move) {
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        byte[] legs = new byte[2 * move.noOfMoves()];
+        for (int i = 0; i < move.noOfMoves(); i++) {
+            legs[2 * i] = (byte) move.getFrom(i);
+            legs[2 * i + 1] = (byte) move.getTo(i);
+        }
+        put(key(board, dice), legs);
+    }
+
+    private void put(long key, byte[] legs) {
+        int slot = slot(key);
+        if (moves[slot] == null) size++;
+        keys[slot] = key;
+        moves[slot] = legs;
+    }
+
+    /**
+     * return the slot of a key: the slot holding it, or the empty
+     * slot it belongs in. The table is at most half full.
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) key & mask;
+        while (moves[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[][] oldMoves = moves;
+        keys = new long[2 * oldKeys.length];
+        moves = new byte[2 * oldKeys.length][];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldMoves[i] != null) put(oldKeys[i], oldMoves[i]);
+        }
+    }
+
+    /**
+     * return the key of a position: a hash of the board and the dice,
+     * the dice in either order.
+     */
+    static long key(int[] board, int[] dice) {
+        long h = 0x9e3779b97f4a7c15L * (1 + Math.min(dice[0], dice[1]) * 8 + Math.max(dice[0], dice[1]));
+        for (int i = 0; i < 28; i++) {
+            h = (h ^ (board[i] + 16)) * 0x100000001b3L;
+            h ^= h >>> 29;
+        }
+        // the finalizer of SplitMix64
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * return the fraction of lookups that found the position.
+     */
+    public double getHitRate() {
+        long n = lookups.get();
+        return n == 0 ? 0 : (double) hits.get() / n;
+    }
+
+    public static OpeningBook read(InputStream in) throws IOException {
+        // buffer the inflated bytes too: the book is read at startup,
+        // and reading them one by one from the inflater is slow
+        DataInputStream data = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(new BufferedInputStream(in))));
+        try {
+            if (data.readInt() != MAGIC) {
+                throw new IOException("not an opening book");
+            }
+            int n = data.readInt();
+            OpeningBook book = new OpeningBook(n);
+            for (int i = 0; i < n; i++) {
+                long key = data.readLong();
+                byte[] legs = new byte[2 * data.readByte()];
+                data.readFully(legs);
+                if (2 * (book.size + 1) > book.keys.length) {
+                    book.grow();
+                }
+                book.put(key, legs);
+            }
+            return book;
+        } finally {
+            data.close();
+        }
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new DeflaterOutputStream(
+                new BufferedOutputStream(out), new Deflater(Deflater.BEST_COMPRESSION)));
+        data.writeInt(MAGIC);
+        data.writeInt(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (moves[i] != null) {
+                data.writeLong(keys[i]);
+                data.writeByte(moves[i].length / 2);
+                data.write(moves[i]);
+            }
+        }
+        data.close();
+    }
+}
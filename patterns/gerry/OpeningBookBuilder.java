@@ -0,0 +1,256 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Builds the opening book offline: the best move of every opening
+ * roll from the starting position, and of every roll in reply to
+ * every opening move of the opponent.
+ * <p/>
+ * The best moves are found by rollouts: each of the candidate moves
+ * Gerry rates highest is played out to the end of the game many
+ * times, Gerry playing both sides, and the one winning most often is
+ * entered. All candidates are rolled out with the same dice, so luck
+ * does not decide between them. This is done for the opening rolls,
+ * and for the replies to the book's own opening moves, which are the
+ * ones met when Gerry plays Gerry; replies to other opening moves
+ * are entered as Gerry plays them, so the book only saves the search.
+ * <p/>
+ * Usage: OpeningBookBuilder [file], default opening.book.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class OpeningBookBuilder {
+    private static final int BOARDSIZE = 28;
+    // candidates and games rolled out for the opening rolls
+    private static final int OPENING_CANDIDATES = 5;
+    private static final int OPENING_GAMES = 1296;
+    // and for the replies to the book's opening moves
+    private static final int REPLY_CANDIDATES = 3;
+    private static final int REPLY_GAMES = 216;
+
+    /**
+     * return the starting position in Gerry's encoding.
+     */
+    public static int[] startingPosition() {
+        int[] board = new int[BOARDSIZE];
+        board[1] = 2;
+        board[6] = -5;
+        board[8] = -3;
+        board[12] = 5;
+        board[13] = -5;
+        board[17] = 3;
+        board[19] = 5;
+        board[24] = -2;
+        return board;
+    }
+
+    /**
+     * return the board seen from the other side: colours swapped and
+     * locations turned around.
+     */
+    static int[] mirror(int[] board) {
+        int[] mirrored = new int[BOARDSIZE];
+        for (int i = 0; i <= 25; i++) {
+            mirrored[25 - i] = -board[i];
+        }
+        mirrored[26] = -board[27];
+        mirrored[27] = -board[26];
+        return mirrored;
+    }
+
+    /**
+     * A legal move and the board after it.
+     */
+    static class Candidate {
+        final Move move;
+        final int[] board;
+        final float score;
+
+        Candidate(Move move, int[] board, float score) {
+            this.move = move;
+            this.board = board;
+            this.score = score;
+        }
+    }
+
+    /**
+     * A Gerry that collects all the moves it considers.
+     */
+    static class CandidateGerry extends Gerry {
+        final List<Candidate> considered = new ArrayList<Candidate>();
+
+        CandidateGerry() {
+            super(null);
+        }
+
+        void maybeEnterMove(int[] board, Move move) {
+            considered.add(new Candidate(move.getClone(), board.clone(),
+                    pubeval(isRacing(board), board)));
+            super.maybeEnterMove(board, move);
+        }
+    }
+
+    private final CandidateGerry generator = new CandidateGerry();
+    private final Gerry player = new Gerry(null);
+    private final OpeningBook book = new OpeningBook();
+
+    /**
+     * return the legal moves of black, one for each different
+     * resulting board, best rated by Gerry first. Moves using a
+     * single die are only legal if no move uses both, and then only
+     * those with the highest die.
+     */
+    List<Candidate> candidates(int[] board, int[] dice) {
+        generator.considered.clear();
+        generator.play(board, dice);
+        boolean full = false;
+        int highestDie = 0;
+        for (Candidate c : generator.considered) {
+            if (!c.move.isSolitude()) {
+                full = true;
+            } else {
+                highestDie = Math.max(highestDie, generator.calcDie(c.move.getFrom(0), c.move.getTo(0)));
+            }
+        }
+        Map<String, Candidate> distinct = new LinkedHashMap<String, Candidate>();
+        for (Candidate c : generator.considered) {
+            boolean legal = full ? !c.move.isSolitude()
+                    : generator.calcDie(c.move.getFrom(0), c.move.getTo(0)) == highestDie;
+            String key = Arrays.toString(c.board);
+            if (legal && !distinct.containsKey(key)) {
+                distinct.put(key, c);
+            }
+        }
+        List<Candidate> result = new ArrayList<Candidate>(distinct.values());
+        Collections.sort(result, new Comparator<Candidate>() {
+            public int compare(Candidate a, Candidate b) {
+                return Float.compare(b.score, a.score);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * return the fraction of games black wins from a board black has
+     * just moved to, Gerry playing both sides. Game g is played with
+     * dice seeded by g.
+     */
+    float rollout(int[] board, int games) {
+        int wins = 0;
+        for (int g = 0; g < games; g++) {
+            if (playOut(board, new Random(g))) wins++;
+        }
+        return (float) wins / games;
+    }
+
+    private boolean playOut(int[] board, Random random) {
+        // the player in turn always plays black on a mirrored board
+        int[] position = mirror(board);
+        int[] dice = new int[2];
+        boolean blackInTurn = false;
+        while (true) {
+            dice[0] = 1 + random.nextInt(6);
+            dice[1] = 1 + random.nextInt(6);
+            Move move = player.play(position, dice);
+            for (int i = 0; i < move.noOfMoves(); i++) {
+                player.makeMove(position, move.getFrom(i), move.getTo(i));
+            }
+            if (position[26] == 15) return blackInTurn;
+            position = mirror(position);
+            blackInTurn = !blackInTurn;
+        }
+    }
+
+    /**
+     * enter the best move of a position into the book: the move of
+     * the searched candidates that wins most rollouts, or Gerry's own
+     * move if no rollouts are made.
+     */
+    Move solve(int[] board, int[] dice, int searched, int games) {
+        List<Candidate> candidates = candidates(board, dice);
+        if (candidates.isEmpty()) return null;
+        Move best = generator.bestmove;
+        if (games > 0) {
+            float bestValue = -1;
+            for (Candidate c : candidates.subList(0, Math.min(searched, candidates.size()))) {
+                float value = rollout(c.board, games);
+                if (value > bestValue) {
+                    best = c.move;
+                    bestValue = value;
+                }
+            }
+        }
+        book.put(board, dice, best);
+        return best;
+    }
+
+    /**
+     * return the board after a move.
+     */
+    int[] after(int[] board, Move move) {
+        int[] result = board.clone();
+        for (int i = 0; i < move.noOfMoves(); i++) {
+            player.makeMove(result, move.getFrom(i), move.getTo(i));
+        }
+        return result;
+    }
+
+    public OpeningBook build() {
+        int[] start = startingPosition();
+        Set<String> booked = new HashSet<String>();
+        List<int[]> bookReplies = new ArrayList<int[]>();
+        List<int[]> otherReplies = new ArrayList<int[]>();
+        for (int d1 = 1; d1 <= 6; d1++) {
+            for (int d2 = d1; d2 <= 6; d2++) {
+                int[] dice = {d1, d2};
+                Move opening = solve(start, dice, OPENING_CANDIDATES, OPENING_GAMES);
+                // the starting position is symmetric, so red's opening
+                // moves are black's, mirrored
+                int[] reply = mirror(after(start, opening));
+                booked.add(Arrays.toString(reply));
+                bookReplies.add(reply);
+                for (Candidate c : candidates(start, dice)) {
+                    reply = mirror(c.board);
+                    if (booked.add(Arrays.toString(reply))) {
+                        otherReplies.add(reply);
+                    }
+                }
+            }
+        }
+        solveReplies(bookReplies, REPLY_GAMES);
+        solveReplies(otherReplies, 0);
+        return book;
+    }
+
+    private void solveReplies(List<int[]> replies, int games) {
+        for (int[] reply : replies) {
+            for (int d1 = 1; d1 <= 6; d1++) {
+                for (int d2 = d1; d2 <= 6; d2++) {
+                    solve(reply, new int[]{d1, d2}, REPLY_CANDIDATES, games);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : OpeningBook.RESOURCE);
+        long start = System.nanoTime();
+        OpeningBook book = new OpeningBookBuilder().build();
+        OutputStream out = new FileOutputStream(file);
+        book.write(out);
+        System.out.printf("%d positions, %d bytes, built in %.1f s%n", book.size(), file.length(),
+                (System.nanoTime() - start) / 1e9);
+    }
+}
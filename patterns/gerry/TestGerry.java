@@ -26,7 +26,8 @@ public class TestGerry {
 
     @Before
     public void setUp() {
-        gerry = new Gerry();
+        // without the opening book, to test the search
+        gerry = new Gerry(null);
         openingboard = new int[28];
         // standard backgammon setup
         openingboard[1] = 2;
@@ -0,0 +1,110 @@
+import org.junit.*;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testing the opening book, and Gerry's use of it.
+ * <p/>
+ * This source code is from the book
+ * "Flexible, Reliable Software:
+ * Using Patterns and Agile Development"
+ * published 2010 by CRC Press.
+ * Author:
+ * Henrik B Christensen
+ * Computer Science Department
+ * Aarhus University
+ * <p/>
+ * This source code is provided WITHOUT ANY WARRANTY either
+ * expressed or implied. You may study, use, modify, and
+ * distribute it for non-commercial purposes. For any
+ * commercial use, see http://www.baerbak.com/
+ */
+public class TestOpeningBook {
+    private int[] openingboard;
+    private OpeningBook book;
+    private Move move;
+
+    @Before
+    public void setUp() {
+        openingboard = OpeningBookBuilder.startingPosition();
+        book = new OpeningBook();
+        move = new Move();
+        move.add(1, 3);
+        move.add(1, 7);
+    }
+
+    @Test
+    public void shouldLookUpWithDiceInEitherOrder() {
+        book.put(openingboard, new int[]{6, 2}, move);
+        assertEquals(move.toString(), book.lookup(openingboard, new int[]{6, 2}).toString());
+        assertEquals(move.toString(), book.lookup(openingboard, new int[]{2, 6}).toString());
+        assertNull(book.lookup(openingboard, new int[]{6, 3}));
+        openingboard[1] = 1;
+        assertNull(book.lookup(openingboard, new int[]{6, 2}));
+        assertEquals(4, book.getLookups());
+        assertEquals(2, book.getHits());
+        assertEquals(0.5, book.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void shouldReadWhatItWrites() throws IOException {
+        // enough positions to grow the table
+        for (int i = 0; i < 500; i++) {
+            openingboard[26] = i;
+            book.put(openingboard, new int[]{1 + i % 6, 6}, move);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        book.write(out);
+        OpeningBook read = OpeningBook.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(500, read.size());
+        for (int i = 0; i < 500; i++) {
+            openingboard[26] = i;
+            assertEquals(move.toString(), read.lookup(openingboard, new int[]{1 + i % 6, 6}).toString());
+        }
+    }
+
+    @Test
+    public void shouldPlayBookMoveWithoutSearching() {
+        book.put(openingboard, new int[]{6, 2}, move);
+        Gerry gerry = new Gerry(book);
+        gerry.setNewMoveHook(new Gerry.MoveHook() {
+            public void considerMove(Move move) {
+                fail("searched");
+            }
+        });
+        assertEquals(move.toString(), gerry.play(openingboard, new int[]{2, 6}).toString());
+    }
+
+    @Test
+    public void shouldSearchPositionsNotInBook() {
+        Gerry gerry = new Gerry(book);
+        Move searched = gerry.play(openingboard, new int[]{1, 6});
+        assertEquals(searched.toString(), new Gerry(null).play(openingboard, new int[]{1, 6}).toString());
+        assertEquals(1, book.getLookups());
+        assertEquals(0, book.getHits());
+    }
+
+    @Test
+    public void shouldHaveEveryOpeningAndReplyInDefaultBook() {
+        OpeningBook book = OpeningBook.getDefault();
+        Gerry gerry = new Gerry(null);
+        for (int d1 = 1; d1 <= 6; d1++) {
+            for (int d2 = d1; d2 <= 6; d2++) {
+                Move opening = book.lookup(openingboard, new int[]{d1, d2});
+                assertNotNull(opening);
+                // red replies to a move Gerry would make
+                int[] reply = OpeningBookBuilder.mirror(openingboard);
+                Move red = gerry.play(reply, new int[]{d1, d2});
+                for (int i = 0; i < red.noOfMoves(); i++) {
+                    gerry.makeMove(reply, red.getFrom(i), red.getTo(i));
+                }
+                reply = OpeningBookBuilder.mirror(reply);
+                for (int e = 1; e <= 6; e++) {
+                    assertNotNull(book.lookup(reply, new int[]{e, 7 - e}));
+                }
+            }
+        }
+    }
+}
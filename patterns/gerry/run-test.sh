@@ -1,2 +1,2 @@
-java -classpath .:junit-4.4.jar org.junit.runner.JUnitCore TestGerry
+java -classpath .:junit-4.4.jar org.junit.runner.JUnitCore TestGerry TestOpeningBook
 